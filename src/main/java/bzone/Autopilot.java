@@ -0,0 +1,213 @@
+package bzone;
+
+import static bzone.BattleZone.to16;
+import static bzone.BattleZone.wrap16f;
+import static bzone.BattleZone.wrapDelta16;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector3;
+
+/**
+ * Plays the player's tank without a human, for soak tests, attract mode and
+ * benchmarks. It sets the same control flags on the {@link GameWorld} as the
+ * keyboard and game pad do and fires through {@link GameWorld#firePlayer}, so
+ * the player's own movement, blocking and shooting code does the rest.
+ *
+ * Each tick it turns towards the nearest enemy, drives at it while it is far
+ * off and fires once the enemy is dead ahead. Before driving on it probes
+ * ahead with the world's {@link GameWorld#blockedAt}; with an obstacle or
+ * enemy in the way it turns towards whichever side is clear for a while, and
+ * backs off when the last move got nowhere.
+ *
+ * One autopilot drives one world and keeps a few fields of its own between
+ * ticks; it allocates nothing.
+ */
+public final class Autopilot {
+
+    /**
+     * Off the enemy's bearing by less than this, in degrees, it fires.
+     */
+    private static final float AIM_DEG = 1f;
+
+    /**
+     * Within this of the enemy's bearing it stops turning, less than one
+     * tick's turn so it does not swing back and forth.
+     */
+    private static final float DEAD_BAND_DEG = 0.4f;
+
+    private static final float STAND_OFF = 12000f;
+    private static final float PROBE_NEAR = 600f;
+    private static final float PROBE_FAR = 1600f;
+    private static final float SIDE_PROBE_DEG = 35f;
+    private static final int AVOID_TICKS = 45;
+    private static final int REVERSE_TICKS = 20;
+
+    private int avoidTicks;
+    private boolean avoidLeft;
+    private int reverseTicks;
+    private float lastX = Float.NaN, lastZ;
+    private boolean drove;
+    private int engagements;
+
+    /**
+     * @return ticks it has fired on an enemy it was lined up on
+     */
+    public int engagements() {
+        return engagements;
+    }
+
+    /**
+     * Sets the world's controls for its next tick, and fires when lined up.
+     */
+    public void drive(GameWorld world) {
+        GameContext ctx = world.context;
+        Vector3 pos = world.playerPos;
+        Vector3 dir = world.playerDir;
+
+        boolean stuck = drove && pos.x == lastX && pos.z == lastZ;
+        lastX = pos.x;
+        lastZ = pos.z;
+
+        world.turnLeft = false;
+        world.turnRight = false;
+        world.moveForward = false;
+        world.moveBackward = false;
+        drove = false;
+
+        if (!ctx.alive) {
+            avoidTicks = 0;
+            reverseTicks = 0;
+            return;
+        }
+
+        if (stuck && reverseTicks == 0) {
+            reverseTicks = REVERSE_TICKS;
+            startAvoiding(world);
+        }
+        if (reverseTicks > 0) {
+            reverseTicks--;
+            world.moveBackward = true;
+            turn(world, avoidLeft);
+            return;
+        }
+
+        if (avoidTicks > 0) {
+            avoid(world);
+            return;
+        }
+
+        // the nearest enemy, by wrapped distance
+        float best = Float.MAX_VALUE;
+        float tx = 0f, tz = 0f;
+        if (world.tank.alive) {
+            float d2 = distance2(pos, world.tank.pos);
+            if (d2 < best) {
+                best = d2;
+                tx = world.tank.pos.x;
+                tz = world.tank.pos.z;
+            }
+        }
+        if (world.flyer.alive) {
+            float d2 = distance2(pos, world.flyer.pos);
+            if (d2 < best) {
+                best = d2;
+                tx = world.flyer.pos.x;
+                tz = world.flyer.pos.z;
+            }
+        }
+        if (world.missile.active) {
+            float d2 = distance2(pos, world.missile.pos);
+            if (d2 < best) {
+                best = d2;
+                tx = world.missile.pos.x;
+                tz = world.missile.pos.z;
+            }
+        }
+        if (world.saucer.active) {
+            float d2 = distance2(pos, world.saucer.pos);
+            if (d2 < best) {
+                best = d2;
+                tx = world.saucer.pos.x;
+                tz = world.saucer.pos.z;
+            }
+        }
+        if (best == Float.MAX_VALUE) {
+            // nothing to chase: patrol
+            world.turnLeft = true;
+            forward(world);
+            return;
+        }
+
+        float dx = wrapDelta16(to16(tx) - to16(pos.x));
+        float dz = wrapDelta16(to16(tz) - to16(pos.z));
+        // positive when the enemy is to the right of the heading
+        float off = MathUtils.atan2(dz * dir.x - dx * dir.z, dx * dir.x + dz * dir.z) * MathUtils.radiansToDegrees;
+
+        if (off > DEAD_BAND_DEG) {
+            world.turnRight = true;
+        } else if (off < -DEAD_BAND_DEG) {
+            world.turnLeft = true;
+        }
+        if (Math.abs(off) < AIM_DEG) {
+            world.firePlayer();
+            engagements++;
+        }
+        if (best > STAND_OFF * STAND_OFF && Math.abs(off) < 45f) {
+            forward(world);
+        }
+    }
+
+    /**
+     * Drives on, unless something is in the way, in which case it starts
+     * going around it.
+     */
+    private void forward(GameWorld world) {
+        Vector3 dir = world.playerDir;
+        if (blockedAhead(world, dir.x, dir.z, PROBE_NEAR) || blockedAhead(world, dir.x, dir.z, PROBE_FAR)) {
+            startAvoiding(world);
+            avoid(world);
+            return;
+        }
+        world.moveForward = true;
+        drove = true;
+    }
+
+    private void avoid(GameWorld world) {
+        Vector3 dir = world.playerDir;
+        avoidTicks--;
+        turn(world, avoidLeft);
+        world.moveForward = !blockedAhead(world, dir.x, dir.z, PROBE_NEAR);
+        drove = world.moveForward;
+    }
+
+    /**
+     * Picks the side to turn to, the one whose probe is clear, and holds the
+     * turn for a while.
+     */
+    private void startAvoiding(GameWorld world) {
+        Vector3 dir = world.playerDir;
+        float cl = MathUtils.cosDeg(SIDE_PROBE_DEG), sl = MathUtils.sinDeg(SIDE_PROBE_DEG);
+        // the heading turned left and right, as PlayerMotion turns it
+        float lx = dir.x * cl + dir.z * sl, lz = -dir.x * sl + dir.z * cl;
+        float rx = dir.x * cl - dir.z * sl, rz = dir.x * sl + dir.z * cl;
+        boolean leftClear = !blockedAhead(world, lx, lz, PROBE_FAR);
+        boolean rightClear = !blockedAhead(world, rx, rz, PROBE_FAR);
+        avoidLeft = leftClear == rightClear ? !avoidLeft : leftClear;
+        avoidTicks = AVOID_TICKS;
+    }
+
+    private static void turn(GameWorld world, boolean left) {
+        world.turnLeft = left;
+        world.turnRight = !left;
+    }
+
+    private static boolean blockedAhead(GameWorld world, float dx, float dz, float distance) {
+        Vector3 pos = world.playerPos;
+        return world.blockedAt(wrap16f(pos.x + dx * distance), wrap16f(pos.z + dz * distance));
+    }
+
+    private static float distance2(Vector3 from, Vector3 to) {
+        float dx = wrapDelta16(to16(to.x) - to16(from.x));
+        float dz = wrapDelta16(to16(to.z) - to16(from.z));
+        return dx * dx + dz * dz;
+    }
+}
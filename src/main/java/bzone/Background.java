@@ -2,25 +2,46 @@ package bzone;
 
 import static bzone.BattleZone.SCREEN_HEIGHT;
 import static bzone.BattleZone.SCREEN_WIDTH;
-import com.badlogic.gdx.graphics.g3d.Environment;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.math.MathUtils;
-import java.util.List;
-import com.badlogic.gdx.graphics.g3d.ModelBatch;
-import com.badlogic.gdx.graphics.g3d.ModelInstance;
 import com.badlogic.gdx.math.Matrix4;
+import java.util.List;
 
+/**
+ * The scrolling landscape on the horizon.
+ *
+ * The eight landscape sections are baked end to end, twice over, into one
+ * line mesh together with the horizon line, so any on-screen window of three
+ * sections is a contiguous vertex range. Scrolling only changes the matrix
+ * uniform, and the whole horizon is a single draw call.
+ */
 public class Background {
 
+    /**
+     * Adds the far mountain range from background2.obj as a slower, dimmer
+     * parallax layer behind the main landscape.
+     */
+    public static boolean PARALLAX = false;
+
     private static final int ANGLES = 512;
     private static final float UNITS_PER_ANGLE = -8f;
     private static final float SEG_W_UNITS = 512f;
     private static final int SEG_COUNT = 8;
     private static final float STRIP_UNITS = SEG_W_UNITS * SEG_COUNT;
+    private static final int VISIBLE_SEGS = 3;
+    private static final float PARALLAX_SCROLL = 0.5f;
     private int angle9 = 0;
     private final int horizonAdj = 0;
 
-    private final List<ModelInstance> sections;
+    private final ShaderProgram shader;
+    private final Layer landscape;
+    private final Layer farRange;
+    private final Matrix4 stripTransform = new Matrix4();
 
     private static final int VOLCANO_SEG_INDEX = 5;
     private static final int VOLCANO_PARTICLES = 5;
@@ -32,19 +53,19 @@ public class Background {
 
     public Background() {
 
-        sections = Models.loadBackgroundObjects("assets/data/background.obj", 1);
+        shader = VectorBatch.createShader();
+        landscape = new Layer(Models.loadBackgroundEdges("assets/data/background.obj"), Color.GREEN, true);
+        farRange = new Layer(Models.loadBackgroundEdges("assets/data/background2.obj"), new Color(0f, 0.45f, 0f, 1f), false);
 
         for (int i = 0; i < volcanoParticles.length; i++) {
             volcanoParticles[i] = new VolcanoParticle();
         }
     }
 
-    public void drawBackground2D(ShapeRenderer sr, ModelBatch batch, Environment env, float hd) {
+    public void drawBackground2D(VectorBatch vb, Matrix4 projection, float hd) {
 
         angle9 = (int) (hd / 360f * ANGLES) % ANGLES;
 
-        sr.begin(ShapeRenderer.ShapeType.Line);
-
         final int w = SCREEN_WIDTH;
         final int h = SCREEN_HEIGHT;
 
@@ -53,9 +74,6 @@ public class Background {
 
         final float horizonY = h * 0.5f - ((horizonAdj >> 4) * unit2px);
 
-        sr.setColor(0f, 1f, 0f, 1f);
-        sr.line(0, horizonY, w, horizonY);
-
         // Scroll: 8 units per angle, wrap at 4096
         int scrollUnits = (int) ((angle9 * UNITS_PER_ANGLE) % STRIP_UNITS);
         if (scrollUnits < 0) {
@@ -66,15 +84,11 @@ public class Background {
         float offsetInSegUnits = scrollUnits % SEG_W_UNITS;
         float startX = -offsetInSegUnits * unit2px;
 
-        for (int i = 0; i < 3; i++) {
-            int idx = (segIndex + i) & 7;
-            float sx = startX + i * segWpx;
-
-            Matrix4 xform = sections.get(idx).transform;
-            xform.setToTranslationAndScaling(sx, horizonY, 0f, unit2px, unit2px, 1f);
-            
-            batch.render(sections.get(idx), env);
+        shader.bind();
+        if (PARALLAX) {
+            farRange.draw(shader, projection, stripTransform, (scrollUnits * PARALLAX_SCROLL) % STRIP_UNITS, horizonY, unit2px);
         }
+        landscape.draw(shader, projection, stripTransform, scrollUnits, horizonY, unit2px);
 
         // volcano is tied to a specific landscape segment; origin is at the RIGHT edge of that segment
         int offsetIdx = (VOLCANO_SEG_INDEX - segIndex) & 7;       // how many segments ahead
@@ -83,10 +97,86 @@ public class Background {
         float originXpx = volcanoRightEdgeX + VOLCANO_X_OFFSET_UNITS * unit2px;
         float originYpx = horizonY + VOLCANO_TOP_Y_UNITS * unit2px;
 
-        updateVolcanoParticles();
-        drawVolcanoParticles(sr, originXpx, originYpx, unit2px, w);
+        drawVolcanoParticles(vb, originXpx, originYpx, unit2px, w);
+    }
 
-        sr.end();
+    public void dispose() {
+        landscape.mesh.dispose();
+        farRange.mesh.dispose();
+        shader.dispose();
+    }
+
+    /**
+     * One wrap-around strip: the sections laid out twice in landscape units
+     * as indexed lines, each section's indices (and optionally its stretch
+     * of horizon line) stored contiguously.
+     */
+    private static final class Layer {
+
+        private static final int FLOATS_PER_VERTEX = 3; // x, y, packed colour
+
+        final Mesh mesh;
+        final int[] sectionStart = new int[SEG_COUNT * 2 + 1];
+
+        Layer(List<Models.LineSet> sections, Color color, boolean horizon) {
+            final float c = color.toFloatBits();
+            final int extra = horizon ? 2 : 0;
+
+            int vertices = 0, indices = 0;
+            for (int k = 0; k < SEG_COUNT * 2; k++) {
+                Models.LineSet section = sections.get(k % SEG_COUNT);
+                vertices += section.vertexCount() + extra;
+                indices += section.indices.length + extra;
+            }
+
+            float[] v = new float[vertices * FLOATS_PER_VERTEX];
+            short[] idx = new short[indices];
+            int o = 0, io = 0;
+            for (int k = 0; k < SEG_COUNT * 2; k++) {
+                sectionStart[k] = io;
+                float x0 = k * SEG_W_UNITS;
+                Models.LineSet section = sections.get(k % SEG_COUNT);
+                int base = o / FLOATS_PER_VERTEX;
+                for (int i = 0; i < section.xy.length; i += 2) {
+                    v[o++] = x0 + section.xy[i];
+                    v[o++] = section.xy[i + 1];
+                    v[o++] = c;
+                }
+                for (short i : section.indices) {
+                    idx[io++] = (short) (base + i);
+                }
+                if (horizon) {
+                    idx[io++] = (short) (o / FLOATS_PER_VERTEX);
+                    v[o++] = x0;
+                    v[o++] = 0f;
+                    v[o++] = c;
+                    idx[io++] = (short) (o / FLOATS_PER_VERTEX);
+                    v[o++] = x0 + SEG_W_UNITS;
+                    v[o++] = 0f;
+                    v[o++] = c;
+                }
+            }
+            sectionStart[SEG_COUNT * 2] = indices;
+
+            mesh = new Mesh(true, vertices, indices,
+                    new VertexAttribute(VertexAttributes.Usage.Position, 2, ShaderProgram.POSITION_ATTRIBUTE),
+                    new VertexAttribute(VertexAttributes.Usage.ColorPacked, 4, ShaderProgram.COLOR_ATTRIBUTE));
+            mesh.setVertices(v);
+            mesh.setIndices(idx);
+        }
+
+        void draw(ShaderProgram shader, Matrix4 projection, Matrix4 tmp, float scrollUnits, float horizonY, float unit2px) {
+            int first = (int) (scrollUnits / SEG_W_UNITS) & 7;
+            int start = sectionStart[first];
+            int count = sectionStart[first + VISIBLE_SEGS] - start;
+
+            tmp.set(projection)
+                    .translate(-scrollUnits * unit2px, horizonY, 0f)
+                    .scale(unit2px, unit2px, 1f);
+            shader.setUniformMatrix("u_projTrans", tmp);
+
+            mesh.render(shader, GL20.GL_LINES, start, count);
+        }
     }
 
     private static final class VolcanoParticle {
@@ -103,7 +193,11 @@ public class Background {
         }
     }
 
-    private void updateVolcanoParticles() {
+    /**
+     * Moves the volcano's particles on by one frame. Called once per frame,
+     * however many views draw the background.
+     */
+    public void updateVolcanoParticles() {
         for (int i = 0; i < volcanoParticles.length; i++) {
             VolcanoParticle p = volcanoParticles[i];
 
@@ -141,10 +235,7 @@ public class Background {
         }
     }
 
-    private void drawVolcanoParticles(ShapeRenderer sr, float originXpx, float originYpx, float unit2px, int screenW) {
-        sr.end();
-        sr.begin(ShapeRenderer.ShapeType.Filled);
-
+    private void drawVolcanoParticles(VectorBatch vb, float originXpx, float originYpx, float unit2px, int screenW) {
         for (VolcanoParticle p : volcanoParticles) {
             if (p.ttl <= 0) {
                 continue;
@@ -160,15 +251,11 @@ public class Background {
 
             // brightness from ttl
             float g = MathUtils.clamp(((p.ttl >> 2) / 7f) * 2f, 0f, 2f);
-            sr.setColor(0, g, 0, 1f);
+            vb.setColor(0, g, 0, 1f);
 
             float r = MathUtils.random(1f, 2f);
-            sr.circle(px, py, r);
+            vb.disc(px, py, r);
         }
-
-        // Restore Line mode for the rest of the background pass
-        sr.end();
-        sr.begin(ShapeRenderer.ShapeType.Line);
     }
 
 }
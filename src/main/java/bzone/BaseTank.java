@@ -1,14 +1,14 @@
 package bzone;
 
-import static bzone.BattleZone.nearestWrappedPos;
 import static bzone.BattleZone.to16;
 import static bzone.BattleZone.wrapDelta16;
 import com.badlogic.gdx.graphics.Camera;
-import com.badlogic.gdx.graphics.g3d.Environment;
 import com.badlogic.gdx.graphics.g3d.ModelBatch;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.RandomXS128;
 import com.badlogic.gdx.math.Vector3;
+import java.nio.ByteBuffer;
 
 public abstract class BaseTank {
 
@@ -35,6 +35,13 @@ public abstract class BaseTank {
     public final Vector3 pos = new Vector3();
     protected final Vector3 savedPos = new Vector3();
     private static final Vector3 TMP1 = new Vector3();
+    private final PlayerRelative toPlayer = new PlayerRelative();
+
+    /**
+     * This tank's own random number stream, so enemies updating in parallel
+     * never share a generator. Seeded from the global one when built.
+     */
+    final RandomXS128 random = new RandomXS128(MathUtils.random.nextLong());
 
     public boolean alive = false;
     public int facing;                     // 0..255
@@ -56,10 +63,6 @@ public abstract class BaseTank {
             return;
         }
 
-        if (ctx.spawnProtected != SPAWN_PROTECTION) {
-            ctx.spawnProtected = Math.min(SPAWN_PROTECTION, ctx.spawnProtected + 1);
-        }
-
         updateTank(ctx, dt);
 
         applyWrappedTransform(ctx);
@@ -67,31 +70,100 @@ public abstract class BaseTank {
 
     protected abstract void updateTank(GameContext ctx, float dt);
 
-    public void render(Camera cam, GameContext ctx, ModelBatch modelBatch, Environment environment) {
+    /**
+     * Counts one more frame of spawn protection. Called by the world once per
+     * live tank each tick, before the tanks update.
+     */
+    static void countSpawnProtection(GameContext ctx) {
+        if (ctx.spawnProtected != SPAWN_PROTECTION) {
+            ctx.spawnProtected = Math.min(SPAWN_PROTECTION, ctx.spawnProtected + 1);
+        }
+    }
+
+    public void render(Camera cam, GameContext ctx, ModelBatch modelBatch) {
 
         if (!this.alive) {
             return;
         }
 
-        nearestWrappedPos(this.inst, cam.position.x, cam.position.z, TMP1);
-        if (cam.frustum.pointInFrustum(TMP1)) {
+        // the radar keeps its offset from the tank, moved to the same image
+        float radarX = 0, radarZ = 0;
+        if (this.radar != null) {
+            radarX = this.radar.getX() - this.inst.getX();
+            radarZ = this.radar.getZ() - this.inst.getZ();
+        }
+
+        toPlayer(cam.position.x, cam.position.z).nearestImage(this.inst.getY(), TMP1);
+        if (Culling.isVisible(cam, this.inst, TMP1)) {
             this.inst.transform.val[Matrix4.M03] = TMP1.x;
             this.inst.transform.val[Matrix4.M13] = TMP1.y;
             this.inst.transform.val[Matrix4.M23] = TMP1.z;
-            modelBatch.render(this.inst, environment);
+            modelBatch.render(this.inst);
+            RuntimeMetrics.countDrawn();
         }
 
         if (this.radar != null && !ctx.isSuperTank()) {
-            nearestWrappedPos(this.radar, cam.position.x, cam.position.z, TMP1);
-            if (cam.frustum.pointInFrustum(TMP1)) {
+            TMP1.add(radarX, this.radar.getY() - this.inst.getY(), radarZ);
+            if (Culling.isVisible(cam, this.radar, TMP1)) {
                 this.radar.transform.val[Matrix4.M03] = TMP1.x;
                 this.radar.transform.val[Matrix4.M13] = TMP1.y;
                 this.radar.transform.val[Matrix4.M23] = TMP1.z;
-                modelBatch.render(this.radar, environment);
+                modelBatch.render(this.radar);
+                RuntimeMetrics.countDrawn();
             }
         }
     }
 
+    void addTo(SharedCulling culling, GameContext ctx) {
+        if (!this.alive) {
+            return;
+        }
+        culling.add(this.inst);
+        if (this.radar != null && !ctx.isSuperTank()) {
+            culling.add(this.radar);
+        }
+    }
+
+    void writeState(ByteBuffer out) {
+        QuickSave.putVector(out, pos);
+        QuickSave.putVector(out, savedPos);
+        QuickSave.putBoolean(out, alive);
+        out.putInt(facing).putInt(radarFacing).putInt(moveCounter).putInt(reverseFlags).putInt(turnTo);
+        out.putLong(random.getState(0)).putLong(random.getState(1));
+        writeTankState(out);
+        QuickSave.putMatrix(out, inst.transform);
+        if (radar != null) {
+            QuickSave.putMatrix(out, radar.transform);
+        }
+    }
+
+    void readState(ByteBuffer in) {
+        QuickSave.getVector(in, pos);
+        QuickSave.getVector(in, savedPos);
+        alive = QuickSave.getBoolean(in);
+        facing = in.getInt();
+        radarFacing = in.getInt();
+        moveCounter = in.getInt();
+        reverseFlags = in.getInt();
+        turnTo = in.getInt();
+        random.setState(in.getLong(), in.getLong());
+        readTankState(in);
+        QuickSave.getMatrix(in, inst.transform);
+        if (radar != null) {
+            QuickSave.getMatrix(in, radar.transform);
+        }
+    }
+
+    /**
+     * Quick save hooks for the state a tank type adds, including which model
+     * it currently shows.
+     */
+    protected void writeTankState(ByteBuffer out) {
+    }
+
+    protected void readTankState(ByteBuffer in) {
+    }
+
     protected void savePos() {
         savedPos.set(pos);
     }
@@ -138,6 +210,10 @@ public abstract class BaseTank {
         this.projectile.spawnFromTank(this, ctx);
     }
 
+    protected void planChanged(GameContext ctx, String plan) {
+        PlanChangeEvent.emit(this, plan, ctx.nmiCount);
+    }
+
     protected void stepForward(float spd) {
         this.savePos();
         float rad = this.facing * MathUtils.PI2 / ANGLE_STEPS;
@@ -150,7 +226,7 @@ public abstract class BaseTank {
         stepForward(spd);
         if (ctx.collisionChecker.collides(this.pos.x, this.pos.z)) {
             this.restorePos();
-            int dir = (MathUtils.randomBoolean() ? 0x02 : 0x00) | 0x01; // reverse + dir
+            int dir = (randomBoolean() ? 0x02 : 0x00) | 0x01; // reverse + dir
             this.reverseFlags |= dir;
             this.moveCounter = REVERSE_TIME_FRAMES;
         }
@@ -161,7 +237,7 @@ public abstract class BaseTank {
         if (ctx.collisionChecker.collides(this.pos.x, this.pos.z)) {
             this.restorePos();
             this.reverseFlags &= ~0x01;
-            int offset = MathUtils.random(0x10, 0x20);
+            int offset = random(0x10, 0x20);
             if ((this.reverseFlags & 0x02) != 0) {
                 this.facing = u8(this.facing + offset);
             } else {
@@ -187,11 +263,32 @@ public abstract class BaseTank {
         this.facing = u8(this.facing + (raw >= 0 ? step : -step));
     }
 
+    /**
+     * Offset to the player at the given position, cached until this tank or
+     * the player moves.
+     */
+    public PlayerRelative toPlayer(float playerX, float playerZ) {
+        return toPlayer.update(this.pos.x, this.pos.z, playerX, playerZ);
+    }
+
     protected int calcAngleToPlayer(GameContext ctx) {
-        float dx16 = wrapDelta16(to16(ctx.playerX) - to16(this.pos.x));
-        float dz16 = wrapDelta16(to16(ctx.playerZ) - to16(this.pos.z));
-        float a = MathUtils.atan2((float) dx16, (float) dz16); // +Z is “north”
-        return ((int) Math.round((a / MathUtils.PI2) * ANGLE_STEPS)) & 0xFF;
+        return toPlayer(ctx.playerX, ctx.playerZ).bearing();
+    }
+
+    protected float distanceToPlayer(GameContext ctx) {
+        return toPlayer(ctx.playerX, ctx.playerZ).distance();
+    }
+
+    /**
+     * A random number from start to end, both inclusive, from this tank's
+     * own stream.
+     */
+    protected int random(int start, int end) {
+        return start + random.nextInt(end - start + 1);
+    }
+
+    protected boolean randomBoolean() {
+        return random.nextBoolean();
     }
 
     protected int degToSteps(int deg) {
@@ -0,0 +1,154 @@
+package bzone;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.g3d.Attribute;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.Shader;
+import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
+import com.badlogic.gdx.graphics.g3d.model.MeshPart;
+import com.badlogic.gdx.graphics.g3d.utils.RenderContext;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Alternative to {@link LineShader} that draws nothing per renderable.
+ * Instead each line part is transformed on the CPU into one dynamic line
+ * buffer (position plus packed colour), which is drawn with a single call
+ * when {@link com.badlogic.gdx.graphics.g3d.ModelBatch} ends the shader. The
+ * number of draws then no longer grows with the number of visible objects.
+ *
+ * Vertex and index data of each source mesh are copied out once, the first
+ * time the mesh is seen.
+ */
+public class BatchedLineShader implements Shader {
+
+    private static final int FLOATS_PER_VERTEX = 4; // x, y, z, packed colour
+    private static final int MAX_VERTICES = 32768;
+
+    private ShaderProgram program;
+    private Mesh lines;
+    private final float[] vertices = new float[MAX_VERTICES * FLOATS_PER_VERTEX];
+    private int used;
+    private final Matrix4 projection = new Matrix4();
+
+    private final Map<Mesh, SourceMesh> sources = new IdentityHashMap<>();
+
+    private static final class SourceMesh {
+
+        final float[] positions; // x, y, z per vertex
+        final short[] indices;
+
+        SourceMesh(Mesh mesh) {
+            int stride = mesh.getVertexSize() / 4;
+            VertexAttribute pos = mesh.getVertexAttribute(VertexAttributes.Usage.Position);
+            int offset = pos.offset / 4;
+
+            float[] raw = new float[mesh.getNumVertices() * stride];
+            mesh.getVertices(raw);
+            positions = new float[mesh.getNumVertices() * 3];
+            for (int v = 0; v < mesh.getNumVertices(); v++) {
+                positions[v * 3] = raw[v * stride + offset];
+                positions[v * 3 + 1] = raw[v * stride + offset + 1];
+                positions[v * 3 + 2] = pos.numComponents > 2 ? raw[v * stride + offset + 2] : 0f;
+            }
+
+            if (mesh.getNumIndices() > 0) {
+                indices = new short[mesh.getNumIndices()];
+                mesh.getIndices(indices);
+            } else {
+                indices = null;
+            }
+        }
+
+        int index(int i) {
+            return indices != null ? indices[i] & 0xFFFF : i;
+        }
+    }
+
+    @Override
+    public void init() {
+        program = VectorBatch.createShader();
+        lines = new Mesh(false, MAX_VERTICES, 0,
+                new VertexAttribute(VertexAttributes.Usage.Position, 3, ShaderProgram.POSITION_ATTRIBUTE),
+                new VertexAttribute(VertexAttributes.Usage.ColorPacked, 4, ShaderProgram.COLOR_ATTRIBUTE));
+    }
+
+    @Override
+    public int compareTo(Shader other) {
+        return 0;
+    }
+
+    @Override
+    public boolean canRender(Renderable renderable) {
+        return renderable.meshPart.primitiveType == GL20.GL_LINES;
+    }
+
+    @Override
+    public void begin(Camera camera, RenderContext context) {
+        projection.set(camera.combined);
+        used = 0;
+        context.setDepthTest(GL20.GL_LEQUAL);
+        context.setDepthMask(true);
+        context.setBlending(false, GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+    }
+
+    @Override
+    public void render(Renderable renderable) {
+        MeshPart part = renderable.meshPart;
+        SourceMesh src = sources.get(part.mesh);
+        if (src == null) {
+            src = new SourceMesh(part.mesh);
+            sources.put(part.mesh, src);
+        }
+
+        Attribute emissive = renderable.material.get(ColorAttribute.Emissive);
+        float color = (emissive != null ? ((ColorAttribute) emissive).color : Color.GREEN).toFloatBits();
+
+        final float[] m = renderable.worldTransform.val;
+        final float[] p = src.positions;
+        for (int i = part.offset, end = part.offset + part.size; i < end; i++) {
+            if (used + FLOATS_PER_VERTEX > vertices.length) {
+                flush();
+            }
+            int v = src.index(i) * 3;
+            float x = p[v], y = p[v + 1], z = p[v + 2];
+            vertices[used] = m[Matrix4.M00] * x + m[Matrix4.M01] * y + m[Matrix4.M02] * z + m[Matrix4.M03];
+            vertices[used + 1] = m[Matrix4.M10] * x + m[Matrix4.M11] * y + m[Matrix4.M12] * z + m[Matrix4.M13];
+            vertices[used + 2] = m[Matrix4.M20] * x + m[Matrix4.M21] * y + m[Matrix4.M22] * z + m[Matrix4.M23];
+            vertices[used + 3] = color;
+            used += FLOATS_PER_VERTEX;
+        }
+    }
+
+    @Override
+    public void end() {
+        flush();
+    }
+
+    private void flush() {
+        // parts always hold whole lines and the capacity is even, so a flush
+        // in the middle of a part never splits a line
+        if (used == 0) {
+            return;
+        }
+        lines.setVertices(vertices, 0, used);
+        program.bind();
+        program.setUniformMatrix("u_projTrans", projection);
+        lines.render(program, GL20.GL_LINES, 0, used / FLOATS_PER_VERTEX);
+        RuntimeMetrics.countLineDraw();
+        used = 0;
+    }
+
+    @Override
+    public void dispose() {
+        lines.dispose();
+        program.dispose();
+    }
+}
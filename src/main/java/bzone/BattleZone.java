@@ -1,6 +1,5 @@
 package bzone;
 
-import static bzone.Models.LIFE_ICON_STROKES;
 import bzone.Models.Mesh;
 import com.badlogic.gdx.ApplicationListener;
 import com.badlogic.gdx.Gdx;
@@ -16,29 +15,113 @@ import com.badlogic.gdx.graphics.GL30;
 import com.badlogic.gdx.graphics.PerspectiveCamera;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
-import com.badlogic.gdx.graphics.g3d.Environment;
 import com.badlogic.gdx.graphics.g3d.ModelBatch;
-import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.Matrix4;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import com.badlogic.gdx.math.Matrix4;
-import com.badlogic.gdx.math.collision.BoundingBox;
-import com.badlogic.gdx.utils.Timer;
+import java.util.function.Consumer;
 
 public class BattleZone implements ApplicationListener, InputProcessor, ControllerListener {
 
+    private static final String USAGE = "usage: bzone.BattleZone [options] [scenario]\n"
+            + "  --batch-wireframes      draw every wireframe in one call\n"
+            + "  --instanced-obstacles   draw the obstacles instanced (GL 3.0)\n"
+            + "  --parallax              add the far mountain range behind the landscape\n"
+            + "  --parallel-entities     update the enemies in parallel\n"
+            + "  --threaded              tick the world on its own thread\n"
+            + "  --rewind=SECONDS        keep SECONDS of play to scrub back through\n"
+            + "  --players=N             N players at one screen, 1 to " + SplitScreen.MAX_VIEWS + "\n"
+            + "  --autopilot             let the autopilot play\n"
+            + "  scenario                play a benchmark scenario and exit, one of "
+            + Arrays.toString(BenchmarkScenario.values());
+
     public static void main(String[] args) {
+        try {
+            parseOptions(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
         Lwjgl3ApplicationConfiguration cfg = new Lwjgl3ApplicationConfiguration();
         cfg.setTitle("BAttle Zone");
         cfg.setWindowedMode(SCREEN_WIDTH, SCREEN_HEIGHT);
+        if (INSTANCED_OBSTACLES) {
+            cfg.setOpenGLEmulation(Lwjgl3ApplicationConfiguration.GLEmulation.GL30, 3, 2);
+        }
         new Lwjgl3Application(new BattleZone(), cfg);
     }
 
+    /**
+     * Sets the feature switches from the command line, and refuses
+     * combinations the game cannot run.
+     *
+     * @throws IllegalArgumentException for an unknown or unsupported option
+     */
+    static void parseOptions(String[] args) {
+        for (String arg : args) {
+            if (arg.equals("--batch-wireframes")) {
+                BATCH_WIREFRAMES = true;
+            } else if (arg.equals("--instanced-obstacles")) {
+                INSTANCED_OBSTACLES = true;
+            } else if (arg.equals("--parallax")) {
+                Background.PARALLAX = true;
+            } else if (arg.equals("--parallel-entities")) {
+                GameWorld.PARALLEL_ENTITIES = true;
+            } else if (arg.equals("--threaded")) {
+                THREADED_SIMULATION = true;
+            } else if (arg.startsWith("--rewind=")) {
+                REWIND_SECONDS = intOption(arg);
+            } else if (arg.startsWith("--players=")) {
+                LOCAL_PLAYERS = intOption(arg);
+            } else if (arg.equals("--autopilot")) {
+                AUTOPILOT = true;
+            } else if (arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unknown option " + arg);
+            } else if (SCENARIO == null) {
+                try {
+                    SCENARIO = BenchmarkScenario.valueOf(arg);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown scenario " + arg);
+                }
+            } else {
+                throw new IllegalArgumentException("Only one scenario can be played, got " + SCENARIO + " and " + arg);
+            }
+        }
+
+        if (REWIND_SECONDS < 0) {
+            throw new IllegalArgumentException("--rewind must not be negative");
+        }
+        if (LOCAL_PLAYERS < 1 || LOCAL_PLAYERS > SplitScreen.MAX_VIEWS) {
+            throw new IllegalArgumentException("--players must be 1 to " + SplitScreen.MAX_VIEWS);
+        }
+        if (LOCAL_PLAYERS > 1 && (THREADED_SIMULATION || REWIND_SECONDS > 0 || AUTOPILOT || SCENARIO != null)) {
+            throw new IllegalArgumentException("--players above 1 cannot be combined with --threaded, --rewind, "
+                    + "--autopilot or a scenario");
+        }
+        if (SCENARIO != null && (THREADED_SIMULATION || AUTOPILOT)) {
+            throw new IllegalArgumentException("A scenario is played with the world ticked inside each frame, "
+                    + "not with --threaded or --autopilot");
+        }
+    }
+
+    private static int intOption(String arg) {
+        String value = arg.substring(arg.indexOf('=') + 1);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number in " + arg);
+        }
+    }
+
     public static final int SCREEN_WIDTH = 640 * 2;
     public static final int SCREEN_HEIGHT = 480 * 2;
 
@@ -56,43 +139,96 @@ public class BattleZone implements ApplicationListener, InputProcessor, Controll
      */
     public static final int WORLD_WRAP_HALF_16BIT = WORLD_WRAP_16BIT >>> 1; // 32768
 
+    /**
+     * Draws all wireframes of the 3D scene with one call per frame through
+     * {@link BatchedLineShader} instead of one call per object.
+     */
+    public static boolean BATCH_WIREFRAMES = false;
+
+    /**
+     * Draws the obstacles with one instanced call per mesh type through
+     * {@link ObstacleRenderer}. Asks for a GL 3.0 context; without one the
+     * obstacles go through the model batch as usual.
+     */
+    public static boolean INSTANCED_OBSTACLES = false;
+
+    /**
+     * Ticks the world on a {@link SimulationThread} and draws the snapshots it
+     * publishes, instead of ticking it inside each frame.
+     */
+    public static boolean THREADED_SIMULATION = false;
+
+    /**
+     * Seconds of play kept by a {@link RewindBuffer} for debugging. P pauses,
+     * LEFT and RIGHT then scrub backward and forward. Zero disables it.
+     */
+    public static int REWIND_SECONDS = 0;
+
+    /**
+     * Players sharing the screen through {@link SplitScreen}, up to
+     * {@link SplitScreen#MAX_VIEWS}. Above one the world is a
+     * {@link MultiplayerWorld} ticked inside each frame, so this is not
+     * combined with {@link #THREADED_SIMULATION} or {@link #REWIND_SECONDS}.
+     */
+    public static int LOCAL_PLAYERS = 1;
+
+    /**
+     * Plays a {@link BenchmarkScenario} instead of taking the player's input,
+     * with a fixed tick length, then prints its {@link ScenarioReport} of
+     * frame times and exits. Set from the command line, where it cannot be
+     * combined with {@link #THREADED_SIMULATION}, {@link #AUTOPILOT} or
+     * several {@link #LOCAL_PLAYERS}.
+     */
+    public static BenchmarkScenario SCENARIO = null;
+
+    /**
+     * Lets an {@link Autopilot} play instead of the keyboard and game pad,
+     * for attract mode and unattended soak runs.
+     */
+    public static boolean AUTOPILOT = false;
+
+    /**
+     * Quick save slot, written with F5 and read back with F9.
+     */
+    public static final Path QUICK_SAVE_FILE = Paths.get("bzone.sav");
+
     public static final float WORLD_Y = 0;
     public static final float PLAYER_Y = 480;
 
-    private static final float YAW_SPEED_DEG = 30f;
-    private static final float MOVE_SPEED = 3200f;
-    private static final int MAX_INACTIVITY = 900;
-
-    private boolean wDown, aDown, sDown, dDown, blocked;
+    private boolean wDown, aDown, sDown, dDown;
     private boolean rstickFwd, rstickBck, lstickFwd, lstickBck;
-    private float headingDeg = 0f;
+    private boolean paused, scrubBack, scrubForward;
 
     private SpriteBatch batch;
     private ModelBatch modelBatch;
+    private ObstacleRenderer obstacleRenderer;
     private PerspectiveCamera cam;
     private OrthographicCamera backGroundCam;
-    private Environment environment;
-    private final List<GameModelInstance> obstacles = new ArrayList<>(21);
-    private ShapeRenderer sr;
+    private VectorBatch vectors;
     private Background background;
-
-    private final GameContext context = new GameContext();
-    private int nmiCount = 0;
-
-    private Tanks tanks;
-    private BaseTank tank;
-    private Missile missile;
-    private Saucer saucer;
-    private BaseTank flyer;
-    private Projectile tankProjectile, flyerProjectile, playerProjectile;
-    private TankExplosion explosion;
-    private final Spatter spatter = new Spatter();
+    private Hud hud;
+
+    private GameWorld world;
+    private GameContext context;
+    private SimulationThread simulation;
+    private RenderProxies proxies;
+    private List<GameModelInstance> obstacles;
+    private QuickSave quickSave;
+    private RewindBuffer rewind;
     private Title title;
+    private SplitScreen splitScreen;
+    private BenchmarkScenario.Run scenarioRun;
+    private ScenarioReport scenarioReport;
+    private Autopilot autopilot;
+    private int scenarioTick;
 
     private final Radar radarScreen = new Radar();
     private EngineSound engine;
 
     BitmapFont font;
+    private BitmapFontCache scoreCache;
+    private final StringBuilder scoreText = new StringBuilder(32);
+    private int shownScore = Integer.MIN_VALUE;
 
     @Override
     public void create() {
@@ -106,6 +242,7 @@ public class BattleZone implements ApplicationListener, InputProcessor, Controll
         parameter.color = Color.RED;
         parameter.hinting = FreeTypeFontGenerator.Hinting.Full;
         font = generator.generateFont(parameter);
+        scoreCache = font.newFontCache();
 
         batch = new SpriteBatch();
 
@@ -119,219 +256,305 @@ public class BattleZone implements ApplicationListener, InputProcessor, Controll
         cam.far = 72000f;
         cam.update();
 
-        sr = new ShapeRenderer();
+        vectors = new VectorBatch();
 
         Gdx.input.setInputProcessor(this);
         Controllers.addListener(this);
 
-        environment = new Environment();
-        environment.set(new ColorAttribute(ColorAttribute.AmbientLight, 0.05f, 0.05f, 0.05f, 1f));
-
-        modelBatch = new ModelBatch();
+        modelBatch = new ModelBatch(new LineShader.Provider(BATCH_WIREFRAMES), LineShader.UNSORTED);
 
         background = new Background();
-
-        GameModelInstance tankProj = Models.getModelInstance(Mesh.PROJECTILE, Color.RED, 1);
-        tankProjectile = new Projectile(tankProj);
-
-        GameModelInstance playerProj = Models.getModelInstance(Mesh.PROJECTILE, Color.YELLOW, 1);
-        playerProjectile = new Projectile(playerProj);
-
-        GameModelInstance flyerProj = Models.getModelInstance(Mesh.ROCKET, Color.BLUE, 1);
-        flyerProjectile = new Projectile(flyerProj);
-
-        GameModelInstance mm = Models.getModelInstance(Mesh.MISSILE, Color.GREEN, 1);
-        GameModelInstance sm = Models.getModelInstance(Mesh.SAUCER, Color.GREEN, 1);
+        hud = new Hud();
 
         GameModelInstance logoba = Models.getModelInstance(Mesh.LOGO_BA, Color.GREEN, 20, true);
         GameModelInstance logottle = Models.getModelInstance(Mesh.LOGO_TTLE, Color.GREEN, 20, true);
         GameModelInstance logozone = Models.getModelInstance(Mesh.LOGO_ZONE, Color.GREEN, 20, true);
 
-        this.tanks = new Tanks(tankProjectile);
-        this.tank = this.tanks.nextTank(context);
-        this.tank.alive = true;
+        MultiplayerWorld local = null;
+        if (LOCAL_PLAYERS > 1) {
+            local = new MultiplayerWorld();
+            this.world = local.world;
+        } else {
+            if (SCENARIO != null && !THREADED_SIMULATION) {
+                SCENARIO.seed();
+            }
+            this.world = new GameWorld();
+        }
+        this.context = world.context;
+        this.obstacles = world.obstacles;
+
+        if (local == null && REWIND_SECONDS > 0) {
+            rewind = new RewindBuffer(REWIND_SECONDS * 60, 60);
+        }
 
-        this.flyer = new Skimmer(flyerProjectile);
-        this.missile = new Missile(mm);
-        this.saucer = new Saucer(sm);
+        if (local == null && THREADED_SIMULATION) {
+            // the obstacles never move, the GL thread draws its own copies
+            obstacles = new ArrayList<>(world.obstacles.size());
+            for (GameModelInstance o : world.obstacles) {
+                GameModelInstance copy = new GameModelInstance(o.mesh, o.model);
+                copy.initialPos.set(o.initialPos);
+                copy.transform.set(o.transform);
+                obstacles.add(copy);
+            }
+            proxies = new RenderProxies();
+            simulation = new SimulationThread(world, rewind);
+        }
 
-        this.explosion = new TankExplosion(Color.GREEN);
+        if (AUTOPILOT && local == null) {
+            autopilot = new Autopilot();
+            if (simulation != null) {
+                simulation.autopilot = autopilot;
+            }
+        }
 
-        context.collisionChecker = this::collidesObstacle;
-        context.hitsEnemy = this::hitsEnemy;
-        context.hitsObstacle = this::hitsObstacle;
-        context.tankSpawn = this::tankSpawn;
-        context.playerSpawn = this::playerSpawn;
-        context.saucer_ttl = MathUtils.random(12, 15) * 100;
+        if (local == null && simulation == null && SCENARIO != null) {
+            scenarioRun = SCENARIO.start(world);
+            scenarioReport = new ScenarioReport(SCENARIO);
+        }
 
-        randomSpawn(cam.position, context);
-        context.playerX = cam.position.x;
-        context.playerZ = cam.position.z;
+        if (INSTANCED_OBSTACLES && ObstacleRenderer.isSupported()) {
+            obstacleRenderer = new ObstacleRenderer(obstacles);
+        }
 
-        randomSpawn(this.tank.pos, context);
+        if (local != null) {
+            splitScreen = new SplitScreen(local, Math.min(LOCAL_PLAYERS, SplitScreen.MAX_VIEWS),
+                    modelBatch, obstacleRenderer, vectors, background, hud, backGroundCam);
+        }
 
-        cam.position.y = PLAYER_Y;
-        headingDeg = 0;//0 is facing the moon
+        cam.position.set(world.playerPos);
+        cam.direction.set(world.playerDir);
+        cam.update();
 
         this.title = new Title(logoba, logottle, logozone);
         this.title.pos.set(cam.position.x, cam.position.y - 1000, cam.position.z);
 
-        loadMapObstacles();
-
         engine = new EngineSound();
         engine.start();
+
+        RuntimeMetrics.register();
+
+        if (simulation != null) {
+            simulation.start();
+        }
     }
 
     @Override
     public void render() {
 
-        float dt = Gdx.graphics.getDeltaTime();
+        RuntimeMetrics.INSTANCE.beginFrame();
+        FrameEvent frameEvent = FrameEvent.start();
+        long phaseStart = System.nanoTime();
 
-        float yaw = 0f;
-        if (aDown || rstickFwd || lstickBck) {
-            yaw += YAW_SPEED_DEG * dt;
-        }
-        if (dDown || lstickFwd || rstickBck) {
-            yaw -= YAW_SPEED_DEG * dt;
-        }
-        if (yaw != 0f) {
-            cam.rotate(Vector3.Y, yaw);
-            headingDeg = (headingDeg + yaw) % 360f;
+        float dt = Gdx.graphics.getDeltaTime();
+        if (scenarioReport != null) {
+            if (scenarioTick == 0) {
+                scenarioReport.begin();
+            }
+            dt = SimulationThread.TICK_SECONDS;
+        }
+
+        if (splitScreen != null) {
+            splitScreen.update(dt);
+            RuntimeMetrics.countTick();
+            long simulationEnd = System.nanoTime();
+            engine.update(dt);
+            splitScreen.render(dt);
+            long renderEnd = System.nanoTime();
+            drawScore(context.playerScore);
+            if (frameEvent != null) {
+                frameEvent.frame = context.nmiCount;
+                frameEvent.simulation = simulationEnd - phaseStart;
+                frameEvent.render3d = renderEnd - simulationEnd;
+                frameEvent.hud = System.nanoTime() - renderEnd;
+                frameEvent.commit();
+            }
+            RuntimeMetrics.INSTANCE.endFrame(world.liveEnemies(), world.activeProjectiles(), world.explosion.activePieces());
+            return;
         }
 
-        float move = 0f;
-        if (wDown || (rstickFwd && lstickFwd)) {
-            move += MOVE_SPEED * dt;
-        }
-        if (sDown || (rstickBck && lstickBck)) {
-            move -= MOVE_SPEED * dt;
+        if (paused && scrubBack != scrubForward) {
+            int step = scrubForward ? 1 : -1;
+            withWorld(w -> rewind.seek(w, w.context.nmiCount + step));
         }
-        if (move != 0f) {
-            TMP1.set(cam.direction.x, 0f, cam.direction.z).nor().scl(move);
-            float sx = cam.position.x, sz = cam.position.z;
-            float nx = wrap16f(sx + TMP1.x);
-            float nz = wrap16f(sz + TMP1.z);
-            if (!blockedAt(nx, nz)) {
-                blocked = false;
-                cam.position.x = nx;
-                cam.position.z = nz;
-                Sounds.Effect.ERROR.sound().stop();
-            } else {
-                if (!blocked) {
-                    Sounds.play(Sounds.Effect.BUMP);
-                    Sounds.play(Sounds.Effect.ERROR);
+
+        boolean turnLeft = aDown || rstickFwd || lstickBck;
+        boolean turnRight = dDown || lstickFwd || rstickBck;
+        boolean moveForward = wDown || (rstickFwd && lstickFwd);
+        boolean moveBackward = sDown || (rstickBck && lstickBck);
+
+        RenderSnapshot snapshot = null;
+        if (simulation != null) {
+            simulation.turnLeft = turnLeft;
+            simulation.turnRight = turnRight;
+            simulation.moveForward = moveForward;
+            simulation.moveBackward = moveBackward;
+            snapshot = simulation.snapshots().acquire();
+            cam.position.set(snapshot.playerPos);
+            cam.direction.set(snapshot.playerDir);
+        } else {
+            if (scenarioReport != null) {
+                scenarioRun.beforeTick(world, scenarioTick);
+                scenarioReport.check(scenarioRun.holds(world, scenarioTick++));
+            } else if (autopilot != null) {
+                if (!paused) {
+                    autopilot.drive(world);
                 }
-                blocked = true;
+            } else {
+                world.turnLeft = turnLeft;
+                world.turnRight = turnRight;
+                world.moveForward = moveForward;
+                world.moveBackward = moveBackward;
             }
+            if (!paused) {
+                world.movePlayer(dt);
+            }
+            cam.position.set(world.playerPos);
+            cam.direction.set(world.playerDir);
         }
-
+        cam.up.set(Vector3.Y);
         cam.update(true);
 
-        context.playerX = cam.position.x;
-        context.playerZ = cam.position.z;
-        context.nmiCount = ++this.nmiCount;
-        context.saucer_ttl--;
-        if (context.inactivityCount != MAX_INACTIVITY) {
-            context.inactivityCount = Math.min(MAX_INACTIVITY, context.inactivityCount + 1);
-        }
-
-        context.hdFromCam = (MathUtils.atan2(cam.direction.x, cam.direction.z) * MathUtils.radiansToDegrees + 360f) % 360f;
-        float hd = (headingDeg % 360f + 360f) % 360f;
-
-        tank.update(context, dt);
-        flyer.update(context, dt);
-        tankProjectile.update(context, obstacles, dt, false);
-        flyerProjectile.update(context, obstacles, dt, false);
-        playerProjectile.update(context, obstacles, dt, true);
-        missile.update(context, dt);
-        saucer.update(context, dt);
-        explosion.update(dt, context.tankSpawn);
-        spatter.update(dt);
+        long inputEnd = System.nanoTime();
+
+        if (snapshot == null && !paused) {
+            world.update(dt);
+            RuntimeMetrics.countTick();
+            if (rewind != null) {
+                rewind.record(world);
+            }
+        }
         engine.update(dt);
 
+        float hd = snapshot != null ? snapshot.heading : world.heading();
+
+        long simulationEnd = System.nanoTime();
+
         Gdx.gl.glViewport(0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
         Gdx.gl.glClear(GL30.GL_COLOR_BUFFER_BIT | GL30.GL_DEPTH_BUFFER_BIT);
 
         modelBatch.begin(cam);
 
-        drawObstacles(modelBatch);
-
-        if (tankProjectile.active) {
-            nearestWrappedPos(tankProjectile.inst, cam.position.x, cam.position.z, TMP1);
-            if (cam.frustum.pointInFrustum(TMP1)) {
-                tankProjectile.inst.transform.val[Matrix4.M03] = TMP1.x;
-                tankProjectile.inst.transform.val[Matrix4.M13] = TMP1.y;
-                tankProjectile.inst.transform.val[Matrix4.M23] = TMP1.z;
-                modelBatch.render(tankProjectile.inst, environment);
-            }
-        }
-        if (flyerProjectile.active) {
-            nearestWrappedPos(flyerProjectile.inst, cam.position.x, cam.position.z, TMP1);
-            if (cam.frustum.pointInFrustum(TMP1)) {
-                flyerProjectile.inst.transform.val[Matrix4.M03] = TMP1.x;
-                flyerProjectile.inst.transform.val[Matrix4.M13] = TMP1.y;
-                flyerProjectile.inst.transform.val[Matrix4.M23] = TMP1.z;
-                modelBatch.render(flyerProjectile.inst, environment);
-            }
-        }
-        if (playerProjectile.active) {
-            nearestWrappedPos(playerProjectile.inst, cam.position.x, cam.position.z, TMP1);
-            if (cam.frustum.pointInFrustum(TMP1)) {
-                playerProjectile.inst.transform.val[Matrix4.M03] = TMP1.x;
-                playerProjectile.inst.transform.val[Matrix4.M13] = TMP1.y;
-                playerProjectile.inst.transform.val[Matrix4.M23] = TMP1.z;
-                modelBatch.render(playerProjectile.inst, environment);
-            }
+        if (obstacleRenderer == null) {
+            drawObstacles(modelBatch);
         }
 
-        tank.render(cam, context, modelBatch, environment);
-        flyer.render(cam, context, modelBatch, environment);
-        missile.render(cam, modelBatch, environment);
-        saucer.render(cam, modelBatch, environment);
-        explosion.render(cam, modelBatch, environment);
+        if (snapshot != null) {
+            proxies.render(cam, snapshot, modelBatch);
+        } else {
+            drawWorld(modelBatch);
+        }
 
         if (title != null) {
-            title.render(modelBatch, environment);
+            title.render(modelBatch);
         }
 
         modelBatch.end();
+
+        if (obstacleRenderer != null) {
+            obstacleRenderer.render(cam, obstacles);
+        }
         //end 3D render
 
+        long render3dEnd = System.nanoTime();
+
         //draw 2D spatter
-        sr.setProjectionMatrix(cam.combined);
-        spatter.render(sr);
+        vectors.begin(cam.combined);
+        if (snapshot != null) {
+            Spatter.render(vectors, snapshot.spatter, snapshot.spatterCount);
+        } else {
+            world.spatter.render(vectors);
+        }
+        vectors.end();
 
-        //start 2D render
+        //start 2D render, vector overlay is flushed once after the HUD
         backGroundCam.update();
-        sr.setProjectionMatrix(backGroundCam.combined);
-        modelBatch.begin(backGroundCam);
-        background.drawBackground2D(sr, modelBatch, environment, hd);
-        modelBatch.end();
+        vectors.begin(backGroundCam.combined);
+        background.updateVolcanoParticles();
+        background.drawBackground2D(vectors, backGroundCam.combined, hd);
+
+        long render2dEnd = System.nanoTime();
 
         Gdx.gl.glEnable(GL30.GL_BLEND);
         Gdx.gl.glBlendFunc(GL30.GL_SRC_ALPHA, GL30.GL_ONE_MINUS_SRC_ALPHA);
 
-        drawHUD(dt);
+        drawHUD(dt, snapshot);
+        vectors.end();
 
-        batch.begin();
-        font.draw(batch, "SCORE  " + context.playerScore, 800, SCREEN_HEIGHT - 80);
-        batch.end();
+        drawScore(snapshot != null ? snapshot.playerScore : context.playerScore);
+
+        long hudEnd = System.nanoTime();
+
+        if (frameEvent != null) {
+            frameEvent.frame = snapshot != null ? snapshot.tick : context.nmiCount;
+            frameEvent.input = inputEnd - phaseStart;
+            frameEvent.simulation = simulationEnd - inputEnd;
+            frameEvent.render3d = render3dEnd - simulationEnd;
+            frameEvent.render2d = render2dEnd - render3dEnd;
+            frameEvent.hud = hudEnd - render2dEnd;
+            frameEvent.commit();
+        }
+
+        if (snapshot != null) {
+            RuntimeMetrics.INSTANCE.endFrame(snapshot.liveEnemies, snapshot.activeProjectiles, snapshot.explosionPieces);
+        } else {
+            RuntimeMetrics.INSTANCE.endFrame(world.liveEnemies(), world.activeProjectiles(), world.explosion.activePieces());
+        }
+
+        if (scenarioReport != null && !scenarioReport.done()) {
+            scenarioReport.record(System.nanoTime() - phaseStart);
+            if (scenarioReport.done()) {
+                System.out.println(scenarioReport);
+                Gdx.app.exit();
+            }
+        }
+    }
 
-        if (context.inactivityCount == MAX_INACTIVITY) {
-            randomSpawnDistantInView(context, this.missile.pos, 6000f);
-            missile.spawn(context);
-            context.inactivityCount = 0;
+    private void drawWorld(ModelBatch modelBatch) {
+        if (world.tankProjectile.active) {
+            nearestWrappedPos(world.tankProjectile.inst, cam.position.x, cam.position.z, TMP1);
+            if (Culling.isVisible(cam, world.tankProjectile.inst, TMP1)) {
+                world.tankProjectile.inst.transform.val[Matrix4.M03] = TMP1.x;
+                world.tankProjectile.inst.transform.val[Matrix4.M13] = TMP1.y;
+                world.tankProjectile.inst.transform.val[Matrix4.M23] = TMP1.z;
+                modelBatch.render(world.tankProjectile.inst);
+                RuntimeMetrics.countDrawn();
+            }
         }
-        if (context.saucer_ttl == 0) {
-            context.saucer_ttl = MathUtils.random(12, 15) * 100;
-            randomSpawnDistantInView(context, this.saucer.pos, WORLD_Y);
-            saucer.spawn();
+        if (world.flyerProjectile.active) {
+            nearestWrappedPos(world.flyerProjectile.inst, cam.position.x, cam.position.z, TMP1);
+            if (Culling.isVisible(cam, world.flyerProjectile.inst, TMP1)) {
+                world.flyerProjectile.inst.transform.val[Matrix4.M03] = TMP1.x;
+                world.flyerProjectile.inst.transform.val[Matrix4.M13] = TMP1.y;
+                world.flyerProjectile.inst.transform.val[Matrix4.M23] = TMP1.z;
+                modelBatch.render(world.flyerProjectile.inst);
+                RuntimeMetrics.countDrawn();
+            }
+        }
+        if (world.playerProjectile.active) {
+            nearestWrappedPos(world.playerProjectile.inst, cam.position.x, cam.position.z, TMP1);
+            if (Culling.isVisible(cam, world.playerProjectile.inst, TMP1)) {
+                world.playerProjectile.inst.transform.val[Matrix4.M03] = TMP1.x;
+                world.playerProjectile.inst.transform.val[Matrix4.M13] = TMP1.y;
+                world.playerProjectile.inst.transform.val[Matrix4.M23] = TMP1.z;
+                modelBatch.render(world.playerProjectile.inst);
+                RuntimeMetrics.countDrawn();
+            }
         }
+
+        world.tank.render(cam, context, modelBatch);
+        world.flyer.render(cam, context, modelBatch);
+        world.missile.render(cam, modelBatch);
+        world.saucer.render(cam, modelBatch);
+        world.explosion.render(cam, modelBatch);
     }
 
     @Override
     public boolean keyDown(int keycode) {
 
+        if (splitScreen != null && splitScreen.keyDown(keycode)) {
+            return true;
+        }
+
         switch (keycode) {
             case Input.Keys.W:
                 wDown = true;
@@ -362,9 +585,7 @@ public class BattleZone implements ApplicationListener, InputProcessor, Controll
                 //missile.spawn(context);
                 return true;
             case Input.Keys.SPACE:
-                if (context.alive) {
-                    playerProjectile.spawnFromPlayer(context);
-                }
+                firePlayer();
                 return true;
             case Input.Keys.NUM_6:
                 //randomSpawnDistantInView(context, this.saucer.pos, WORLD_Y);
@@ -375,6 +596,26 @@ public class BattleZone implements ApplicationListener, InputProcessor, Controll
                 return true;
             case Input.Keys.NUM_8:
                 return true;
+            case Input.Keys.F5:
+                withWorld(this::quickSave);
+                return true;
+            case Input.Keys.F9:
+                withWorld(this::quickLoad);
+                return true;
+            case Input.Keys.P:
+                if (rewind != null) {
+                    paused = !paused;
+                    if (simulation != null) {
+                        simulation.paused = paused;
+                    }
+                }
+                return true;
+            case Input.Keys.LEFT:
+                scrubBack = true;
+                return true;
+            case Input.Keys.RIGHT:
+                scrubForward = true;
+                return true;
 
             default:
                 return false;
@@ -383,6 +624,9 @@ public class BattleZone implements ApplicationListener, InputProcessor, Controll
 
     @Override
     public boolean keyUp(int keycode) {
+        if (splitScreen != null && splitScreen.keyUp(keycode)) {
+            return true;
+        }
         switch (keycode) {
             case Input.Keys.W:
                 wDown = false;
@@ -398,6 +642,12 @@ public class BattleZone implements ApplicationListener, InputProcessor, Controll
             case Input.Keys.D:
                 dDown = false;
                 return true;
+            case Input.Keys.LEFT:
+                scrubBack = false;
+                return true;
+            case Input.Keys.RIGHT:
+                scrubForward = false;
+                return true;
             default:
                 return false;
         }
@@ -438,13 +688,32 @@ public class BattleZone implements ApplicationListener, InputProcessor, Controll
 
     @Override
     public void dispose() {
+        if (simulation != null) {
+            simulation.shutdown();
+        }
+        if (quickSave != null) {
+            try {
+                quickSave.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
         modelBatch.dispose();
+        if (obstacleRenderer != null) {
+            obstacleRenderer.dispose();
+        }
+        hud.dispose();
+        vectors.dispose();
+        background.dispose();
     }
 
     @Override
     public void resize(int width, int height) {
         backGroundCam.setToOrtho(false, width, height);
         backGroundCam.update();
+        if (splitScreen != null) {
+            splitScreen.layout(width, height);
+        }
     }
 
     @Override
@@ -462,7 +731,7 @@ public class BattleZone implements ApplicationListener, InputProcessor, Controll
 
     @Override
     public boolean buttonDown(Controller c, int buttonCode) {
-        playerProjectile.spawnFromPlayer(context);
+        firePlayer();
         return false;
     }
 
@@ -510,261 +779,89 @@ public class BattleZone implements ApplicationListener, InputProcessor, Controll
         return false;
     }
 
-    private void drawHUD(float dt) {
-        float reticleIntensity = 0.6f;
-
-        Gdx.gl.glLineWidth(2);
-        sr.begin(ShapeRenderer.ShapeType.Line);
-        sr.setColor(0f, reticleIntensity, 0f, 1f);
-
-        //reticle
-        final float cx = 640, cy = 480;
-        final float X = 75f;    // half-width
-        final float Y = 75f;    // bar offset from center
-        final float T = 25f;    // tick length
-        final float L = 100f;   // long center segment length
-
-        sr.line(cx, cy - (Y + L), cx, cy - Y);
-        sr.line(cx - X, cy - Y, cx + X, cy - Y);
-        sr.line(cx - X, cy - Y, cx - X, cy - (Y - T));
-        sr.line(cx + X, cy - Y, cx + X, cy - (Y - T));
-        sr.line(cx, cy + Y, cx, cy + (Y + L));
-        sr.line(cx - X, cy + Y, cx + X, cy + Y);
-        sr.line(cx - X, cy + (Y - T), cx - X, cy + Y);
-        sr.line(cx + X, cy + (Y - T), cx + X, cy + Y);
-
-        sr.end();
-        Gdx.gl.glLineWidth(1);
-
-        radarScreen.drawRadar2D(cam, sr, tank, missile, saucer, flyer, obstacles, dt);
-
-        if (context.lives > 0) {
-            sr.begin(ShapeRenderer.ShapeType.Line);
-            sr.setColor(Color.RED);
-            float ox = 800;
-            float oy = SCREEN_HEIGHT - 50;
-            float scale = 1.3f;
-            for (int life = 0; life < context.lives; life++) {
-                for (int[] s : LIFE_ICON_STROKES) {
-                    for (int i = 0; i + 3 < s.length; i += 2) {
-                        float x1 = ox + s[i] * scale, y1 = oy + s[i + 1] * scale;
-                        float x2 = ox + s[i + 2] * scale, y2 = oy + s[i + 3] * scale;
-                        sr.line(x1, y1, x2, y2);
-                    }
-                }
-                ox += 75;
-            }
-            sr.end();
-        }
-
-        if (!context.alive) {
-            Models.drawDeathCracks(sr);
+    /**
+     * Runs the action on whichever thread owns the world.
+     */
+    private void withWorld(Consumer<GameWorld> action) {
+        if (simulation != null) {
+            simulation.request(action);
+        } else {
+            action.accept(world);
         }
-
     }
 
-    private void loadMapObstacles() {
-        obstacles.clear();
-
-        int[][] coords = new int[][]{
-            {2, 96, 96, 0},
-            {3, 128, 64, 16},
-            {2, 128, 256, 32},
-            {3, 64, 256, 64},
-            {2, 256, 256, 24},
-            {0, 256, 64, 40},
-            {1, 256, 128, 48},
-            {0, 64, 128, 56},
-            {1, 80, 48, 64},
-            {3, 192, 104, 72},
-            {2, 137, 60, 80},
-            {0, 184, 64, 88},
-            {1, 168, 244, 96},
-            {3, 236, 116, 104},
-            {2, 232, 152, 112},
-            {0, 152, 156, 120},
-            {1, 16, 228, 128},
-            {3, 8, 180, 136},
-            {2, 64, 204, 144},
-            {0, 92, 196, 152},
-            {1, 84, 140, 160}
-        };
-
-        for (int[] info : coords) {
-            int type = info[0];
-            int xb = info[1] & 0xFF;
-            int zb = info[2] & 0xFF;
-            int face = info[3] & 0xFF;
-
-            int x16 = (xb << 8) & 0xFFFF;
-            int z16 = (zb << 8) & 0xFFFF;
-
-            float x = (float) x16;
-            float z = (float) z16;
-            float y = WORLD_Y;
-            float deg = face * (360f / 256f);
-
-            GameModelInstance inst = Models.getModelInstance(Mesh.values()[type], Color.GREEN, 1f);
-            inst.initialPos.set(x, y, z);
-            inst.transform.setToTranslation(x, y, z);
-            inst.transform.rotate(Vector3.Y, deg);
-
-            obstacles.add(inst);
+    private void quickSave(GameWorld w) {
+        try {
+            quickSaveSlot().save(w);
+        } catch (IOException e) {
+            e.printStackTrace();
         }
     }
 
-    private void drawObstacles(ModelBatch batch) {
-        for (int i = 0, n = obstacles.size(); i < n; i++) {
-            GameModelInstance inst = obstacles.get(i);
-            nearestWrappedPos(inst, cam.position.x, cam.position.z, TMP1);
-
-            if (!cam.frustum.pointInFrustum(TMP1)) {
-                continue;
+    private void quickLoad(GameWorld w) {
+        try {
+            if (!quickSaveSlot().load(w)) {
+                Sounds.play(Sounds.Effect.ERROR);
             }
-
-            inst.transform.val[Matrix4.M03] = TMP1.x; // x
-            inst.transform.val[Matrix4.M13] = TMP1.y; // y
-            inst.transform.val[Matrix4.M23] = TMP1.z; // z
-
-            batch.render(inst, environment);
+        } catch (IOException e) {
+            e.printStackTrace();
         }
     }
 
-    private boolean blockedAt(float x, float z) {
-        if (collidesObstacle(x, z)) {
-            return true;
-        }
-        if (this.tank.alive && touches(this.tank.inst, x, z)) {
-            return true;
+    private QuickSave quickSaveSlot() throws IOException {
+        if (quickSave == null) {
+            quickSave = new QuickSave(QUICK_SAVE_FILE);
         }
-        if (this.missile.active && touches(this.missile.inst, x, z)) {
-            return true;
-        }
-        if (this.saucer.active && touches(this.saucer.inst, x, z)) {
-            return true;
-        }
-        return false;
+        return quickSave;
     }
 
-    private boolean collidesObstacle(float x, float z) {
-        for (GameModelInstance inst : obstacles) {
-            boolean collides = touches(inst, x, z);
-            if (collides) {
-                return true;
-            }
+    private void firePlayer() {
+        if (simulation != null) {
+            simulation.requestFire();
+        } else if (context.alive) {
+            world.firePlayer();
         }
-        return false;
     }
 
-    private boolean hitsObstacle(float x, float z) {
-        for (GameModelInstance inst : obstacles) {
-            if (Mesh.SHORT_BOX.equals(inst.mesh())) {
-                continue;//shoots over the short boxes
-            }
-            boolean hits = touches(inst, x, z);
-            if (hits) {
-                spatter.spawn(to16(x), to16(z));
-                return true;
-            }
+    private void drawScore(int score) {
+        if (score != shownScore) {
+            shownScore = score;
+            scoreText.setLength(0);
+            scoreText.append("SCORE  ").append(shownScore);
+            scoreCache.setText(scoreText, 800, SCREEN_HEIGHT - 80);
         }
-        return false;
-    }
 
-    private boolean hitsEnemy(float x, float z) {
-        if (this.tank.alive && touches(this.tank.inst, x, z)) {
-            this.tank.alive = false;
-            context.playerScore += 1000;
-            explosion.spawn(true, to16(tank.pos.x), to16(tank.pos.z));
-            spatter.spawn(to16(x), to16(z));
-            return true;
-        }
-        if (this.flyer.alive && touches(this.flyer.inst, x, z) && this.flyer.pos.y < 800) {
-            this.flyer.alive = false;
-            context.playerScore += 1000;
-            spatter.spawn(to16(x), to16(z));
-            randomSpawnDistantInView(context, this.flyer.pos, 0);
-            flyer.applyWrappedTransform(context);
-            return true;
-        }
-        if (this.missile.active && touches(this.missile.inst, x, z)) {
-            this.missile.active = false;
-            context.playerScore += 2000;
-            explosion.spawn(false, to16(missile.pos.x), to16(missile.pos.z));
-            spatter.spawn(to16(x), to16(z));
-            return true;
-        }
-        if (this.saucer.active && touches(this.saucer.inst, x, z)) {
-            this.saucer.kill();
-            Sounds.play(Sounds.Effect.SAUCER_HIT);
-            context.playerScore += 5000;
-            spatter.spawn(to16(x), to16(z));
-            return true;
-        }
-        return false;
+        batch.begin();
+        scoreCache.draw(batch);
+        batch.end();
     }
 
-    private void tankSpawn() {
-
-        this.tank = this.tanks.nextTank(context);
-
-        randomSpawn(this.tank.pos, context);
-        tank.applyWrappedTransform(context);
-
-        this.tank.alive = true;
-        this.tank.facing = MathUtils.random(0, 255);
-        this.tank.turnTo = tank.facing;
-        this.tank.moveCounter = 45;
-
-        Sounds.play(Sounds.Effect.SPAWN);
-
-        if (context.playerScore > 10000) {
-            if (MathUtils.random(1, 3) == 1) {
-                randomSpawnDistantInView(context, this.missile.pos, 6000f);
-                missile.spawn(context);
-            }
-        }
-
-        if (MathUtils.random(1, 3) == 1 && !this.flyer.alive) {
-            randomSpawnDistantInView(context, this.flyer.pos, 0);
-            this.flyer.alive = true;
+    private void drawHUD(float dt, RenderSnapshot snapshot) {
+        if (snapshot != null) {
+            hud.draw(backGroundCam.combined, snapshot.lives, snapshot.alive);
+            radarScreen.drawRadar2D(cam, vectors, snapshot, obstacles, dt);
+        } else {
+            hud.draw(backGroundCam.combined, context.lives, context.alive);
+            radarScreen.drawRadar2D(cam, vectors, world.tank, world.missile, world.saucer, world.flyer, obstacles, dt);
         }
     }
 
-    private void playerSpawn() {
-        context.spawnProtected = 0;
-        context.lives--;
-        context.enemyScore++;
-        context.alive = false;
-        Timer.schedule(new Timer.Task() {
-            @Override
-            public void run() {
-                randomSpawn(cam.position, context);
-                cam.position.y = PLAYER_Y;
-                Sounds.play(Sounds.Effect.SPAWN);
-                context.alive = true;
-            }
-        }, 5);
-    }
-
-    private boolean touches(GameModelInstance inst, float x, float z) {
-        nearestWrappedPos(inst, x, z, TMP1);
-        final float dx = x - TMP1.x;
-        final float dz = z - TMP1.z;
-
-        final float[] m = inst.transform.val;
-        float lx = m[Matrix4.M00] * dx + m[Matrix4.M20] * dz;
-        float lz = m[Matrix4.M02] * dx + m[Matrix4.M22] * dz;
+    private void drawObstacles(ModelBatch batch) {
+        for (int i = 0, n = obstacles.size(); i < n; i++) {
+            GameModelInstance inst = obstacles.get(i);
+            nearestWrappedPos(inst, cam.position.x, cam.position.z, TMP1);
 
-        final BoundingBox b = inst.localBounds;
-        final float cx = (b.min.x + b.max.x) * 0.5f;
-        final float cz = (b.min.z + b.max.z) * 0.5f;
-        final float hx = (b.max.x - b.min.x) * 0.5f;
-        final float hz = (b.max.z - b.min.z) * 0.5f;
+            if (!Culling.isVisible(cam, inst, TMP1)) {
+                continue;
+            }
 
-        lx -= cx;
-        lz -= cz;
+            inst.transform.val[Matrix4.M03] = TMP1.x; // x
+            inst.transform.val[Matrix4.M13] = TMP1.y; // y
+            inst.transform.val[Matrix4.M23] = TMP1.z; // z
 
-        return (lx >= -hx && lx <= hx && lz >= -hz && lz <= hz);
+            batch.render(inst);
+            RuntimeMetrics.countDrawn();
+        }
     }
 
     public static void nearestWrappedPos(GameModelInstance inst, float x, float z, Vector3 out) {
@@ -805,34 +902,4 @@ public class BattleZone implements ApplicationListener, InputProcessor, Controll
         return Math.round(v) & 0xFFFF;
     }
 
-    private static void randomSpawn(Vector3 pos, GameContext ctx) {
-
-        for (int i = 0; i < 15; i++) {
-            float r = MathUtils.random(16000, 31000);
-            float x = wrap16f(ctx.playerX + 1 * r);
-            float z = wrap16f(ctx.playerZ + 1 * r);
-
-            if (!ctx.collisionChecker.collides(x, z)) {
-                pos.x = x;
-                pos.y = WORLD_Y;
-                pos.z = z;
-                return;
-            }
-        }
-
-        pos.set(wrap16f(ctx.playerX + 31000), WORLD_Y, wrap16f(ctx.playerZ));
-    }
-
-    private static void randomSpawnDistantInView(GameContext ctx, Vector3 pos, float y) {
-        float HALF_ANGLE_DEG = 30f;
-        float angleDeg = ctx.hdFromCam - HALF_ANGLE_DEG + MathUtils.random(0f, 2f * HALF_ANGLE_DEG);
-        float angleRad = angleDeg * MathUtils.degreesToRadians;
-        float r = MathUtils.random(29000, 31000);
-        float x = wrap16f(ctx.playerX + MathUtils.sin(angleRad) * r);
-        float z = wrap16f(ctx.playerZ + MathUtils.cos(angleRad) * r);
-        pos.x = x;
-        pos.y = y;
-        pos.z = z;
-    }
-
 }
@@ -0,0 +1,339 @@
+package bzone;
+
+import static bzone.BattleZone.PLAYER_Y;
+import static bzone.BattleZone.to16;
+import static bzone.BattleZone.wrap16f;
+import static bzone.BattleZone.wrapDelta16;
+import bzone.Models.Mesh;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector3;
+import java.util.List;
+
+/**
+ * Scripted workloads for comparing engine changes against each other, each
+ * with a fixed seed and length. A scenario sets the world up once and then
+ * steers it before every tick, so the same scenario puts the same load on
+ * the engine every run. Each says what it holds the world to, and the
+ * {@link ScenarioReport} counts the ticks it did not.
+ *
+ * The constants hold no state: {@link #start} returns a {@link Run} that
+ * keeps whatever one run needs, so runs of the same scenario, one after
+ * another, start alike.
+ *
+ * {@link ScenarioRunner} plays them headless; {@link BattleZone} plays one in
+ * the window when given its name on the command line. Both record a
+ * {@link ScenarioReport}.
+ */
+public enum BenchmarkScenario {
+
+    /**
+     * The player stands where the most obstacles are in front of it and
+     * watches them, put back there whenever it respawns.
+     */
+    ALL_OBSTACLES_IN_VIEW(1L, 60) {
+        @Override
+        Run start(GameWorld world) {
+            Run run = new Run() {
+                @Override
+                void beforeTick(GameWorld world, int tick) {
+                    keepPlaced(world);
+                }
+
+                @Override
+                boolean holds(GameWorld world, int tick) {
+                    return !world.context.alive || onSpot(world, 0f);
+                }
+            };
+            faceMostObstacles(world, run);
+            return run;
+        }
+    },
+
+    /**
+     * Tank, flyer, missile and saucer all on the field, the flyer, missile
+     * and saucer coming back as soon as they are gone. The player turns on
+     * the spot without firing.
+     */
+    EVERY_ENEMY_ALIVE(2L, 60) {
+        @Override
+        Run start(GameWorld world) {
+            world.turnLeft = true;
+            return new Run() {
+                @Override
+                void beforeTick(GameWorld world, int tick) {
+                    if (!world.flyer.alive) {
+                        world.spawnFlyer();
+                    }
+                    keepMissileAndSaucer(world);
+                }
+
+                @Override
+                boolean holds(GameWorld world, int tick) {
+                    return world.tank.alive && world.flyer.alive && world.missile.active && world.saucer.active;
+                }
+            };
+        }
+    },
+
+    /**
+     * A missile and a saucer respawned the moment they die, while the player
+     * drives in a circle shooting at whatever is ahead.
+     */
+    MISSILE_AND_SAUCER(3L, 60) {
+        @Override
+        Run start(GameWorld world) {
+            world.moveForward = true;
+            world.turnLeft = true;
+            return new Run() {
+                @Override
+                void beforeTick(GameWorld world, int tick) {
+                    keepMissileAndSaucer(world);
+                    if ((tick & 31) == 0 && world.context.alive) {
+                        world.firePlayer();
+                    }
+                }
+
+                @Override
+                boolean holds(GameWorld world, int tick) {
+                    return world.missile.active && world.saucer.active;
+                }
+            };
+        }
+    },
+
+    /**
+     * The player drives into a tall box and keeps pushing against it,
+     * firing into it as fast as the gun allows. It starts again from the
+     * same spot whenever it respawns.
+     */
+    PINNED_AGAINST_TALL_BOX(4L, 60) {
+        @Override
+        Run start(GameWorld world) {
+            Run run = new Run() {
+                @Override
+                void beforeTick(GameWorld world, int tick) {
+                    keepPlaced(world);
+                    if (world.context.alive) {
+                        world.firePlayer();
+                    }
+                }
+
+                @Override
+                boolean holds(GameWorld world, int tick) {
+                    // on the way to the box or stopped against it, never past it
+                    return !world.context.alive || onSpot(world, BOX_APPROACH);
+                }
+            };
+            List<GameModelInstance> obstacles = world.obstacles;
+            for (int i = 0, n = obstacles.size(); i < n; i++) {
+                GameModelInstance inst = obstacles.get(i);
+                if (Mesh.TALL_BOX.equals(inst.mesh())) {
+                    // just south of it, facing north into it
+                    run.hold(world, inst.initialPos.x, inst.initialPos.z + BOX_APPROACH, 0f);
+                    break;
+                }
+            }
+            world.moveForward = true;
+            return run;
+        }
+    },
+
+    /**
+     * A tank explosion goes off ahead of the player every second.
+     */
+    EXPLOSION_EVERY_SECOND(5L, 60) {
+        @Override
+        Run start(GameWorld world) {
+            world.turnLeft = true;
+            return new Run() {
+                @Override
+                void beforeTick(GameWorld world, int tick) {
+                    if (tick % 60 == 0) {
+                        float x = world.playerPos.x + world.playerDir.x * 4000f;
+                        float z = world.playerPos.z + world.playerDir.z * 4000f;
+                        world.explosion.spawn(true, to16(x), to16(z));
+                    }
+                }
+
+                @Override
+                boolean holds(GameWorld world, int tick) {
+                    return tick % 60 != 0 || world.explosion.activePieces() > 0;
+                }
+            };
+        }
+    },
+
+    /**
+     * The {@link Autopilot} plays, hunting enemies and steering around
+     * obstacles through the player's own controls.
+     */
+    AUTOPILOT(6L, 120) {
+        @Override
+        Run start(GameWorld world) {
+            Autopilot pilot = new Autopilot();
+            return new Run() {
+                @Override
+                void beforeTick(GameWorld world, int tick) {
+                    pilot.drive(world);
+                }
+            };
+        }
+    };
+
+    /**
+     * One run of a scenario on one world: steers it tick by tick and keeps
+     * the spot the player is held to, if any.
+     */
+    abstract static class Run {
+
+        private float spotX, spotZ, spotHeading;
+        private boolean down;
+
+        /**
+         * Steers the world before its tick number {@code tick}, counted from
+         * 0.
+         */
+        abstract void beforeTick(GameWorld world, int tick);
+
+        /**
+         * Whether the world is as the scenario means it to be once
+         * {@link #beforeTick} has steered it for tick {@code tick}.
+         */
+        boolean holds(GameWorld world, int tick) {
+            return true;
+        }
+
+        /**
+         * Places the player and remembers the spot for {@link #keepPlaced}.
+         */
+        void hold(GameWorld world, float x, float z, float headingDeg) {
+            spotX = wrap16f(x);
+            spotZ = wrap16f(z);
+            spotHeading = headingDeg;
+            down = false;
+            place(world, spotX, spotZ, spotHeading);
+        }
+
+        /**
+         * Puts the player back on its spot once it has respawned somewhere
+         * else.
+         */
+        void keepPlaced(GameWorld world) {
+            if (!world.context.alive) {
+                down = true;
+            } else if (down) {
+                down = false;
+                place(world, spotX, spotZ, spotHeading);
+            }
+        }
+
+        /**
+         * Whether the player is on its spot, facing the same way, or up to
+         * {@code ahead} units straight ahead of it.
+         */
+        boolean onSpot(GameWorld world, float ahead) {
+            if (world.headingDeg != spotHeading) {
+                return false;
+            }
+            float dx = wrapDelta16(to16(world.playerPos.x) - to16(spotX));
+            float dz = wrapDelta16(to16(world.playerPos.z) - to16(spotZ));
+            float along = dx * world.playerDir.x + dz * world.playerDir.z;
+            float across = dx * world.playerDir.z - dz * world.playerDir.x;
+            return Math.abs(across) < 1f && along > -1f && along <= ahead + 1f;
+        }
+    }
+
+    private static final float HALF_VIEW_DEG = 40f;
+
+    /**
+     * How far south of the tall box the player starts.
+     */
+    private static final float BOX_APPROACH = 1500f;
+
+    public final long seed;
+    public final int seconds;
+
+    BenchmarkScenario(long seed, int seconds) {
+        this.seed = seed;
+        this.seconds = seconds;
+    }
+
+    public int ticks() {
+        return seconds * 60;
+    }
+
+    /**
+     * Seeds the random number generator for a world about to be built for
+     * this scenario.
+     */
+    public void seed() {
+        MathUtils.random.setSeed(seed);
+    }
+
+    /**
+     * Sets a new world up for this scenario.
+     *
+     * @return the run that steers it from here on
+     */
+    abstract Run start(GameWorld world);
+
+    private static void keepMissileAndSaucer(GameWorld world) {
+        if (!world.missile.active) {
+            world.spawnMissile();
+        }
+        if (!world.saucer.active) {
+            world.spawnSaucer();
+        }
+    }
+
+    private static void place(GameWorld world, float x, float z, float headingDeg) {
+        world.playerPos.set(wrap16f(x), PLAYER_Y, wrap16f(z));
+        world.playerDir.set(0, 0, -1).rotate(Vector3.Y, headingDeg);
+        world.headingDeg = headingDeg;
+        world.context.playerX = world.playerPos.x;
+        world.context.playerZ = world.playerPos.z;
+    }
+
+    /**
+     * Tries a grid of free spots and headings and places the player at the
+     * one with the most obstacles within the view's width.
+     */
+    private static void faceMostObstacles(GameWorld world, Run run) {
+        List<GameModelInstance> obstacles = world.obstacles;
+        float cos = MathUtils.cosDeg(HALF_VIEW_DEG);
+        int best = -1;
+        float bestX = 0f, bestZ = 0f, bestHeading = 0f;
+
+        for (int gx = 0; gx < 16; gx++) {
+            for (int gz = 0; gz < 16; gz++) {
+                float x = gx * 4096f;
+                float z = gz * 4096f;
+                if (world.blockedAt(x, z)) {
+                    continue;
+                }
+                for (int h = 0; h < 360; h += 5) {
+                    // the direction a heading of h turns (0, 0, -1) to
+                    float fx = -MathUtils.sinDeg(h);
+                    float fz = -MathUtils.cosDeg(h);
+                    int seen = 0;
+                    for (int i = 0, n = obstacles.size(); i < n; i++) {
+                        GameModelInstance inst = obstacles.get(i);
+                        float dx = wrapDelta16(to16(inst.initialPos.x) - to16(x));
+                        float dz = wrapDelta16(to16(inst.initialPos.z) - to16(z));
+                        float d = (float) Math.sqrt(dx * dx + dz * dz);
+                        if (d > 0f && (dx * fx + dz * fz) / d >= cos) {
+                            seen++;
+                        }
+                    }
+                    if (seen > best) {
+                        best = seen;
+                        bestX = x;
+                        bestZ = z;
+                        bestHeading = h;
+                    }
+                }
+            }
+        }
+        run.hold(world, bestX, bestZ, bestHeading);
+    }
+}
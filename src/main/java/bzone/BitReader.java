@@ -0,0 +1,46 @@
+package bzone;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads back what a {@link BitWriter} packed. Reading past the end of the
+ * buffer yields zero bits rather than failing, so a truncated packet decodes
+ * to garbage that {@link #overrun()} reports.
+ */
+final class BitReader {
+
+    private ByteBuffer in;
+    private long acc;
+    private int bits;
+    private boolean overrun;
+
+    void begin(ByteBuffer in) {
+        this.in = in;
+        this.acc = 0;
+        this.bits = 0;
+        this.overrun = false;
+    }
+
+    int read(int width) {
+        while (bits < width) {
+            int b = 0;
+            if (in.hasRemaining()) {
+                b = in.get() & 0xFF;
+            } else {
+                overrun = true;
+            }
+            acc = (acc << 8) | b;
+            bits += 8;
+        }
+        bits -= width;
+        return (int) ((acc >>> bits) & ((1L << width) - 1));
+    }
+
+    boolean readBit() {
+        return read(1) != 0;
+    }
+
+    boolean overrun() {
+        return overrun;
+    }
+}
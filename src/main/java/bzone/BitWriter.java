@@ -0,0 +1,42 @@
+package bzone;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Packs values of any width up to 32 bits, most significant bit first, onto
+ * a {@link ByteBuffer}. Bits are gathered in a long and spilled a byte at a
+ * time; {@link #end} writes the last partial byte.
+ */
+final class BitWriter {
+
+    private ByteBuffer out;
+    private long acc;
+    private int bits;
+
+    void begin(ByteBuffer out) {
+        this.out = out;
+        this.acc = 0;
+        this.bits = 0;
+    }
+
+    void write(int value, int width) {
+        acc = (acc << width) | (value & ((1L << width) - 1));
+        bits += width;
+        while (bits >= 8) {
+            bits -= 8;
+            out.put((byte) (acc >>> bits));
+        }
+    }
+
+    void writeBit(boolean bit) {
+        write(bit ? 1 : 0, 1);
+    }
+
+    void end() {
+        if (bits > 0) {
+            out.put((byte) (acc << (8 - bits)));
+            bits = 0;
+        }
+        out = null;
+    }
+}
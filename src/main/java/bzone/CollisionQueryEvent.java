@@ -0,0 +1,58 @@
+package bzone;
+
+import java.util.Optional;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event emitted for each collision query against obstacles or enemies.
+ *
+ * The calling method is resolved with a {@link StackWalker} only while the
+ * event is enabled; the queries themselves go through the
+ * {@link GameContext} queries, so the caller is not otherwise known.
+ */
+@Name("bzone.CollisionQuery")
+@Label("Collision Query")
+@Category("Battle Zone")
+@StackTrace(false)
+public class CollisionQueryEvent extends Event {
+
+    static final EventType TYPE = EventType.getEventType(CollisionQueryEvent.class);
+
+    private static final StackWalker WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    @Label("Query")
+    String query;
+
+    @Label("Caller")
+    String caller;
+
+    @Label("Candidates")
+    int candidates;
+
+    @Label("Hit")
+    boolean hit;
+
+    static void emit(String query, int candidates, boolean hit) {
+        if (!TYPE.isEnabled()) {
+            return;
+        }
+        CollisionQueryEvent e = new CollisionQueryEvent();
+        e.query = query;
+        e.caller = callerOf(query);
+        e.candidates = candidates;
+        e.hit = hit;
+        e.commit();
+    }
+
+    private static String callerOf(String query) {
+        Optional<StackWalker.StackFrame> frame = WALKER.walk(frames -> frames
+                .filter(f -> f.getDeclaringClass() != CollisionQueryEvent.class && !f.getMethodName().equals(query))
+                .findFirst());
+        return frame.map(f -> f.getDeclaringClass().getSimpleName() + "." + f.getMethodName()).orElse("?");
+    }
+}
@@ -0,0 +1,86 @@
+package bzone;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector3;
+
+/**
+ * Visibility test shared by every 3D render site.
+ *
+ * An instance is drawn when its bounding sphere touches the view frustum and,
+ * for perspective cameras, its projected radius is at least
+ * {@link #MIN_SCREEN_RADIUS_PX} pixels. Every call counts as one tested
+ * instance; rejected ones are counted as culled.
+ *
+ * Visible instances also get their level of detail picked from the same
+ * projected radius, see {@link #LOD_RADIUS_PX}.
+ */
+public final class Culling {
+
+    /**
+     * Objects whose bounding sphere projects smaller than this are skipped.
+     * Zero disables the screen-size test.
+     */
+    public static float MIN_SCREEN_RADIUS_PX = 1f;
+
+    /**
+     * Projected radius in pixels below which each coarser level of detail is
+     * used: index 0 switches to LOD 1, index 1 to LOD 2.
+     */
+    public static final float[] LOD_RADIUS_PX = {60f, 25f};
+
+    private static float cachedFov = Float.NaN;
+    private static float cachedViewportHeight = Float.NaN;
+    private static float focalPx;
+
+    private Culling() {
+    }
+
+    /**
+     * @param pos world position of the instance, already wrapped to the image
+     * nearest the camera
+     */
+    public static boolean isVisible(Camera cam, GameModelInstance inst, Vector3 pos) {
+        RuntimeMetrics.countTested();
+
+        float radius = inst.boundingRadius;
+        if (!cam.frustum.sphereInFrustum(pos, radius)) {
+            RuntimeMetrics.countCulled();
+            return false;
+        }
+
+        if (!(cam instanceof PerspectiveCamera)) {
+            inst.setLod(0);
+            return true;
+        }
+
+        float dist = cam.position.dst(pos);
+        if (dist <= radius) {
+            inst.setLod(0);
+            return true;
+        }
+
+        float projectedPx = radius * focalPx((PerspectiveCamera) cam) / dist;
+        if (projectedPx < MIN_SCREEN_RADIUS_PX) {
+            RuntimeMetrics.countCulled();
+            return false;
+        }
+
+        int lod = 0;
+        while (lod < LOD_RADIUS_PX.length && projectedPx < LOD_RADIUS_PX[lod]) {
+            lod++;
+        }
+        inst.setLod(lod);
+        return true;
+    }
+
+    private static float focalPx(PerspectiveCamera cam) {
+        if (cam.fieldOfView != cachedFov || cam.viewportHeight != cachedViewportHeight) {
+            cachedFov = cam.fieldOfView;
+            cachedViewportHeight = cam.viewportHeight;
+            focalPx = (cam.viewportHeight * 0.5f) / (float) Math.tan(cam.fieldOfView * 0.5f * MathUtils.degreesToRadians);
+        }
+        return focalPx;
+    }
+}
@@ -8,6 +8,7 @@ public class EngineSound {
 
     private static final int SAMPLE_RATE = 44100;
     private static final int FRAME_SAMPLES = 2048;
+    private static final long FRAME_NANOS = FRAME_SAMPLES * 1_000_000_000L / SAMPLE_RATE;
 
     private static final float F0_IDLE_HZ = 33.5f;
     private static final float F0_CRUISE_HZ = 59.0f;
@@ -42,6 +43,9 @@ public class EngineSound {
 
     private final float[] buf = new float[FRAME_SAMPLES];
 
+    // estimated wall-clock time at which the device runs out of queued samples
+    private long queuedUntilNanos;
+
     public void start() {
         if (device == null) {
             device = Gdx.audio.newAudioDevice(SAMPLE_RATE, true);
@@ -51,6 +55,7 @@ public class EngineSound {
         }
         lpState = 0f;
         lpCutZ = LP_IDLE_HZ;
+        queuedUntilNanos = 0L;
         playing = true;
     }
 
@@ -122,6 +127,12 @@ public class EngineSound {
             sum2 += s * s;
         }
 
+        long now = System.nanoTime();
+        if (queuedUntilNanos != 0L && now > queuedUntilNanos) {
+            RuntimeMetrics.countAudioUnderrun();
+        }
+        queuedUntilNanos = Math.max(now, queuedUntilNanos) + FRAME_NANOS;
+
         device.writeSamples(buf, 0, buf.length);
 
     }
@@ -0,0 +1,58 @@
+package bzone;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event spanning one {@link BattleZone#render()} call, with the time spent
+ * in each phase of the frame.
+ */
+@Name("bzone.Frame")
+@Label("Frame")
+@Category("Battle Zone")
+@StackTrace(false)
+public class FrameEvent extends Event {
+
+    static final EventType TYPE = EventType.getEventType(FrameEvent.class);
+
+    @Label("Frame Number")
+    long frame;
+
+    @Label("Input")
+    @Timespan(Timespan.NANOSECONDS)
+    long input;
+
+    @Label("Simulation")
+    @Timespan(Timespan.NANOSECONDS)
+    long simulation;
+
+    @Label("Render 3D")
+    @Timespan(Timespan.NANOSECONDS)
+    long render3d;
+
+    @Label("Render 2D")
+    @Timespan(Timespan.NANOSECONDS)
+    long render2d;
+
+    @Label("HUD")
+    @Timespan(Timespan.NANOSECONDS)
+    long hud;
+
+    /**
+     * Returns a started event, or null when no recording has the event
+     * enabled, so a disabled frame costs a single check and no allocation.
+     */
+    static FrameEvent start() {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        FrameEvent e = new FrameEvent();
+        e.begin();
+        return e;
+    }
+}
@@ -14,11 +14,15 @@ public class GameContext {
     public int inactivityCount = 0;
     public int saucer_ttl = 0;
 
+    /**
+     * Queries against the world. They never change it; hits and spawns are
+     * pushed to {@link #events} and resolved once every entity has updated.
+     */
     public CollisionChecker collisionChecker = (x, z) -> false;
-    public HitChecker hitsEnemy = (x, z) -> false;
+    public EnemyFinder enemyAt = (x, z) -> GameEvents.NONE;
     public HitChecker hitsObstacle = (x, z) -> false;
-    public TankSpawn tankSpawn = () -> {/* */ };
-    public PlayerSpawn playerSpawn = () -> {/* */ };
+
+    public final GameEvents events = new GameEvents();
 
     public boolean isSuperTank() {
         return this.missileCount >= 5;
@@ -34,18 +38,12 @@ public class GameContext {
         boolean hits(float x, float z);
     }
 
-    public interface PlayerSpawn {
-
-        void spawn();
-    }
-
-    public interface TankSpawn {
-
-        void spawn();
-    }
-
-    public interface SpatterSpawn {
+    public interface EnemyFinder {
 
-        void spawn(float x, float z);
+        /**
+         * @return the {@link GameEvents} enemy at the position, or
+         * {@link GameEvents#NONE}
+         */
+        int find(float x, float z);
     }
 }
@@ -0,0 +1,96 @@
+package bzone;
+
+import java.util.Arrays;
+
+/**
+ * Hits and spawns raised while the entities update, resolved afterwards in
+ * one place by {@link GameWorld}.
+ *
+ * Entity updates only query the world and push events here, so nothing one
+ * entity does changes another in the middle of its update. Events are kept
+ * in parallel arrays, preallocated and only grown if a single tick ever
+ * raises more than they hold.
+ */
+public final class GameEvents {
+
+    /**
+     * A player shot hit the enemy given as target.
+     */
+    public static final int ENEMY_HIT = 0;
+
+    /**
+     * A shot hit an obstacle.
+     */
+    public static final int OBSTACLE_HIT = 1;
+
+    /**
+     * The player was shot or rammed.
+     */
+    public static final int PLAYER_HIT = 2;
+
+    /**
+     * A tank explosion settled and the next tank is due.
+     */
+    public static final int TANK_SPAWN = 3;
+
+    public static final int NONE = -1;
+    public static final int TANK = 0;
+    public static final int FLYER = 1;
+    public static final int MISSILE = 2;
+    public static final int SAUCER = 3;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] types = new int[INITIAL_CAPACITY];
+    private int[] targets = new int[INITIAL_CAPACITY];
+    private float[] xs = new float[INITIAL_CAPACITY];
+    private float[] zs = new float[INITIAL_CAPACITY];
+    private int size;
+
+    public void push(int type) {
+        push(type, NONE, 0f, 0f);
+    }
+
+    public void push(int type, int target, float x, float z) {
+        if (size == types.length) {
+            grow();
+        }
+        types[size] = type;
+        targets[size] = target;
+        xs[size] = x;
+        zs[size] = z;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int type(int i) {
+        return types[i];
+    }
+
+    public int target(int i) {
+        return targets[i];
+    }
+
+    public float x(int i) {
+        return xs[i];
+    }
+
+    public float z(int i) {
+        return zs[i];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    private void grow() {
+        int n = types.length * 2;
+        types = Arrays.copyOf(types, n);
+        targets = Arrays.copyOf(targets, n);
+        xs = Arrays.copyOf(xs, n);
+        zs = Arrays.copyOf(zs, n);
+    }
+}
@@ -3,9 +3,11 @@ package bzone;
 import bzone.Models.Mesh;
 import com.badlogic.gdx.graphics.g3d.Model;
 import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.model.NodePart;
 import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.Array;
 
 public class GameModelInstance extends ModelInstance {
 
@@ -13,10 +15,85 @@ public class GameModelInstance extends ModelInstance {
     public final BoundingBox localBounds = new BoundingBox();
     public final Vector3 initialPos = new Vector3();
 
+    /**
+     * Radius around the local origin enclosing the whole model, whatever its
+     * rotation; used for culling.
+     */
+    public final float boundingRadius;
+
+    /**
+     * Node parts holding each level of detail, finest first. Empty when the
+     * model has a single edge set.
+     */
+    private final NodePart[] lodParts;
+    private int lod = -1;
+
     public GameModelInstance(Mesh mesh, Model model) {
         super(model);
         this.mesh = mesh;
         this.calculateBoundingBox(localBounds);
+        this.boundingRadius = radiusAroundOrigin(localBounds);
+        this.lodParts = findLodParts();
+        setLod(0);
+    }
+
+    /**
+     * Shows only the given level of detail, clamped to the levels the model
+     * actually has.
+     */
+    public void setLod(int level) {
+        if (lodParts.length == 0) {
+            return;
+        }
+        level = Math.max(0, Math.min(lodParts.length - 1, level));
+        if (level == lod) {
+            return;
+        }
+        lod = level;
+        for (int i = 0; i < lodParts.length; i++) {
+            lodParts[i].enabled = i == level;
+        }
+    }
+
+    /**
+     * Level of detail shown, or -1 when the model has a single edge set.
+     */
+    public int lod() {
+        return lod;
+    }
+
+    public int lodCount() {
+        return Math.max(1, lodParts.length);
+    }
+
+    private NodePart[] findLodParts() {
+        if (nodes.size == 0) {
+            return new NodePart[0];
+        }
+        Array<NodePart> parts = nodes.get(0).parts;
+        NodePart[] found = new NodePart[Models.LOD_LEVELS];
+        int n = 0;
+        for (int level = 0; level < Models.LOD_LEVELS; level++) {
+            for (int i = 0; i < parts.size; i++) {
+                if (parts.get(i).meshPart.id.endsWith(Models.LOD_PART_SUFFIX[level])) {
+                    found[n++] = parts.get(i);
+                    break;
+                }
+            }
+        }
+        if (n < 2) {
+            return new NodePart[0];
+        }
+        NodePart[] out = new NodePart[n];
+        System.arraycopy(found, 0, out, 0, n);
+        return out;
+    }
+
+    private static float radiusAroundOrigin(BoundingBox b) {
+        float x = Math.max(Math.abs(b.min.x), Math.abs(b.max.x));
+        float y = Math.max(Math.abs(b.min.y), Math.abs(b.max.y));
+        float z = Math.max(Math.abs(b.min.z), Math.abs(b.max.z));
+        return (float) Math.sqrt(x * x + y * y + z * z);
     }
 
     public Mesh mesh() {
@@ -0,0 +1,760 @@
+package bzone;
+
+import static bzone.BattleZone.PLAYER_Y;
+import static bzone.BattleZone.WORLD_Y;
+import static bzone.BattleZone.to16;
+import static bzone.BattleZone.wrap16f;
+import static bzone.BattleZone.wrapDelta16;
+import bzone.Models.Mesh;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g3d.Model;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The game simulation: player movement, enemies, projectiles, the collision
+ * queries wired into the {@link GameContext} and the resolution of the
+ * {@link GameEvents} raised during each tick.
+ *
+ * Nothing in here issues GL calls, so a world can be ticked without a window
+ * (see {@link Headless}). {@link BattleZone} owns one world and draws it.
+ */
+public class GameWorld {
+
+    public static final float YAW_SPEED_DEG = 30f;
+    public static final float MOVE_SPEED = 3200f;
+    public static final int MAX_INACTIVITY = 900;
+    public static final float RESPAWN_SECONDS = 5f;
+
+    /**
+     * Runs the enemy updates of each tick in parallel on the common
+     * {@link ForkJoinPool}. Each enemy draws from its own random number
+     * stream and queues its sounds, which are played in
+     * {@link #resolveEvents}, so parallel ticks play out as serial ones do.
+     */
+    public static boolean PARALLEL_ENTITIES = false;
+
+    private static final Mesh[] OBSTACLE_MESHES = {Mesh.NARROW_PYRAMID, Mesh.TALL_BOX, Mesh.WIDE_PYRAMID, Mesh.SHORT_BOX};
+
+    private static final int[][] OBSTACLE_COORDS = {
+        {2, 96, 96, 0},
+        {3, 128, 64, 16},
+        {2, 128, 256, 32},
+        {3, 64, 256, 64},
+        {2, 256, 256, 24},
+        {0, 256, 64, 40},
+        {1, 256, 128, 48},
+        {0, 64, 128, 56},
+        {1, 80, 48, 64},
+        {3, 192, 104, 72},
+        {2, 137, 60, 80},
+        {0, 184, 64, 88},
+        {1, 168, 244, 96},
+        {3, 236, 116, 104},
+        {2, 232, 152, 112},
+        {0, 152, 156, 120},
+        {1, 16, 228, 128},
+        {3, 8, 180, 136},
+        {2, 64, 204, 144},
+        {0, 92, 196, 152},
+        {1, 84, 140, 160}
+    };
+
+    public static final int OBSTACLE_COUNT = OBSTACLE_COORDS.length;
+
+    public final GameContext context = new GameContext();
+
+    /**
+     * This world's random number generator, for spawns and spatter. Each
+     * enemy and the explosion draw from streams of their own, seeded from
+     * this one by {@link #seed}, so worlds never share a generator and can
+     * tick on different threads at once.
+     */
+    private final RandomXS128 random = new RandomXS128(MathUtils.random.nextLong());
+
+    final List<GameModelInstance> obstacles = new ArrayList<>(OBSTACLE_COORDS.length);
+
+    final Tanks tanks;
+    BaseTank tank;
+    final BaseTank flyer;
+    final Missile missile;
+    final Saucer saucer;
+    final Projectile tankProjectile, flyerProjectile, playerProjectile;
+    final TankExplosion explosion;
+    final Spatter spatter = new Spatter(random);
+
+    /**
+     * Player position (x/z wrapped to the 16-bit world, y at eye height) and
+     * facing. The direction starts looking down -Z like a fresh camera.
+     */
+    public final Vector3 playerPos = new Vector3();
+    public final Vector3 playerDir = new Vector3(0, 0, -1);
+    public float headingDeg = 0f;
+
+    /**
+     * Player controls for the next tick.
+     */
+    public boolean turnLeft, turnRight, moveForward, moveBackward;
+
+    /**
+     * Plays none of this world's sounds, whatever {@link Sounds#MUTE} says,
+     * for worlds stepped away from the game, several at once.
+     */
+    public boolean muted;
+
+    private boolean blocked;
+    private int nmiCount = 0;
+    float respawnTimer;
+
+    private final GameContext.CollisionChecker blocker = this::blockedAt;
+
+    /**
+     * Collision queries since the last {@link #resolveEvents}, counted from
+     * whichever threads the enemies update on and handed to
+     * {@link RuntimeMetrics} there.
+     */
+    private final AtomicInteger collisionQueries = new AtomicInteger();
+
+    private float enemyDt;
+    private final ForkJoinTask<?>[] enemyTasks = {
+        ForkJoinTask.adapt(() -> this.tank.update(this.context, this.enemyDt)),
+        ForkJoinTask.adapt(() -> this.flyer.update(this.context, this.enemyDt)),
+        ForkJoinTask.adapt(() -> this.missile.update(this.context, this.enemyDt)),
+        ForkJoinTask.adapt(() -> this.saucer.update(this.context, this.enemyDt))
+    };
+
+    public GameWorld() {
+
+        GameModelInstance tankProj = Models.getModelInstance(Mesh.PROJECTILE, Color.RED, 1);
+        tankProjectile = new Projectile(tankProj);
+
+        GameModelInstance playerProj = Models.getModelInstance(Mesh.PROJECTILE, Color.YELLOW, 1);
+        playerProjectile = new Projectile(playerProj);
+
+        GameModelInstance flyerProj = Models.getModelInstance(Mesh.ROCKET, Color.BLUE, 1);
+        flyerProjectile = new Projectile(flyerProj);
+
+        GameModelInstance mm = Models.getModelInstance(Mesh.MISSILE, Color.GREEN, 1);
+        GameModelInstance sm = Models.getModelInstance(Mesh.SAUCER, Color.GREEN, 1);
+
+        this.tanks = new Tanks(tankProjectile);
+        this.tank = this.tanks.nextTank(context);
+        this.tank.alive = true;
+
+        this.flyer = new Skimmer(flyerProjectile);
+        this.missile = new Missile(mm);
+        this.saucer = new Saucer(sm);
+
+        this.explosion = new TankExplosion(Color.GREEN);
+
+        context.collisionChecker = this::collidesObstacle;
+        context.enemyAt = this::enemyAt;
+        context.hitsObstacle = this::hitsObstacle;
+        context.saucer_ttl = random(12, 15) * 100;
+
+        randomSpawn(playerPos);
+        context.playerX = playerPos.x;
+        context.playerZ = playerPos.z;
+
+        randomSpawn(this.tank.pos);
+
+        playerPos.y = PLAYER_Y;
+        headingDeg = 0;//0 is facing the moon
+
+        loadMapObstacles();
+    }
+
+    /**
+     * One full simulation step: player controls followed by every entity.
+     */
+    public void tick(float dt) {
+        movePlayer(dt);
+        update(dt);
+    }
+
+    public void movePlayer(float dt) {
+        int controls = 0;
+        if (turnLeft) {
+            controls |= PlayerMotion.TURN_LEFT;
+        }
+        if (turnRight) {
+            controls |= PlayerMotion.TURN_RIGHT;
+        }
+        if (moveForward) {
+            controls |= PlayerMotion.FORWARD;
+        }
+        if (moveBackward) {
+            controls |= PlayerMotion.BACKWARD;
+        }
+
+        headingDeg = PlayerMotion.turn(playerDir, headingDeg, controls, dt);
+
+        switch (PlayerMotion.move(playerPos, playerDir, controls, dt, blocker)) {
+            case PlayerMotion.MOVED:
+                blocked = false;
+                stopSound(Sounds.Effect.ERROR);
+                break;
+            case PlayerMotion.BLOCKED:
+                if (!blocked) {
+                    playSound(Sounds.Effect.BUMP);
+                    playSound(Sounds.Effect.ERROR);
+                }
+                blocked = true;
+                break;
+            default:
+                break;
+        }
+    }
+
+    public void update(float dt) {
+        context.playerX = playerPos.x;
+        context.playerZ = playerPos.z;
+        context.nmiCount = ++this.nmiCount;
+        context.saucer_ttl--;
+        if (context.inactivityCount != MAX_INACTIVITY) {
+            context.inactivityCount = Math.min(MAX_INACTIVITY, context.inactivityCount + 1);
+        }
+
+        context.hdFromCam = (MathUtils.atan2(playerDir.x, playerDir.z) * MathUtils.radiansToDegrees + 360f) % 360f;
+
+        if (tank.alive) {
+            BaseTank.countSpawnProtection(context);
+        }
+        if (flyer.alive) {
+            BaseTank.countSpawnProtection(context);
+        }
+
+        // enemies only read the player, the obstacles and themselves, and the
+        // player was fixed above, so they can all update at once; only the
+        // missile raises events here
+        if (PARALLEL_ENTITIES) {
+            updateEnemiesInParallel(dt);
+        } else {
+            tank.update(context, dt);
+            flyer.update(context, dt);
+            missile.update(context, dt);
+            saucer.update(context, dt);
+        }
+
+        // projectiles hit-test the enemies where they have just moved to
+        tankProjectile.update(context, obstacles, dt, false);
+        flyerProjectile.update(context, obstacles, dt, false);
+        playerProjectile.update(context, obstacles, dt, true);
+        explosion.update(dt, context.events);
+        spatter.update(dt);
+
+        resolveEvents();
+
+        if (!context.alive && respawnTimer > 0f) {
+            respawnTimer -= dt;
+            if (respawnTimer <= 0f) {
+                respawnPlayer();
+            }
+        }
+
+        if (context.inactivityCount == MAX_INACTIVITY) {
+            spawnMissile();
+            context.inactivityCount = 0;
+        }
+        if (context.saucer_ttl == 0) {
+            context.saucer_ttl = random(12, 15) * 100;
+            spawnSaucer();
+        }
+    }
+
+    private void updateEnemiesInParallel(float dt) {
+        enemyDt = dt;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        for (int i = 1; i < enemyTasks.length; i++) {
+            enemyTasks[i].reinitialize();
+            pool.execute(enemyTasks[i]);
+        }
+        enemyTasks[0].reinitialize();
+        enemyTasks[0].invoke();
+        for (int i = 1; i < enemyTasks.length; i++) {
+            enemyTasks[i].join();
+        }
+    }
+
+    /**
+     * Writes the full world state for a {@link QuickSave}: player, context,
+     * random number generators and every entity. Call between ticks, when no
+     * events are pending.
+     */
+    void writeState(ByteBuffer out) {
+        QuickSave.putVector(out, playerPos);
+        QuickSave.putVector(out, playerDir);
+        out.putFloat(headingDeg);
+        QuickSave.putBoolean(out, blocked);
+        out.putInt(nmiCount).putFloat(respawnTimer);
+
+        out.putFloat(context.hdFromCam).putFloat(context.playerX).putFloat(context.playerZ);
+        out.putInt(context.spawnProtected).putInt(context.enemyScore).putInt(context.playerScore);
+        out.putLong(context.nmiCount).putInt(context.lives);
+        QuickSave.putBoolean(out, context.alive);
+        out.putInt(context.missileCount).putInt(context.inactivityCount).putInt(context.saucer_ttl);
+
+        out.putLong(random.getState(0)).putLong(random.getState(1));
+
+        tanks.writeState(out, tank);
+        flyer.writeState(out);
+        missile.writeState(out);
+        saucer.writeState(out);
+        tankProjectile.writeState(out);
+        flyerProjectile.writeState(out);
+        playerProjectile.writeState(out);
+        explosion.writeState(out);
+        spatter.writeState(out);
+    }
+
+    void readState(ByteBuffer in) {
+        QuickSave.getVector(in, playerPos);
+        QuickSave.getVector(in, playerDir);
+        headingDeg = in.getFloat();
+        blocked = QuickSave.getBoolean(in);
+        nmiCount = in.getInt();
+        respawnTimer = in.getFloat();
+
+        context.hdFromCam = in.getFloat();
+        context.playerX = in.getFloat();
+        context.playerZ = in.getFloat();
+        context.spawnProtected = in.getInt();
+        context.enemyScore = in.getInt();
+        context.playerScore = in.getInt();
+        context.nmiCount = in.getLong();
+        context.lives = in.getInt();
+        context.alive = QuickSave.getBoolean(in);
+        context.missileCount = in.getInt();
+        context.inactivityCount = in.getInt();
+        context.saucer_ttl = in.getInt();
+
+        random.setState(in.getLong(), in.getLong());
+
+        tank = tanks.readState(in);
+        flyer.readState(in);
+        missile.readState(in);
+        saucer.readState(in);
+        tankProjectile.readState(in);
+        flyerProjectile.readState(in);
+        playerProjectile.readState(in);
+        explosion.readState(in);
+        spatter.readState(in);
+
+        context.events.clear();
+    }
+
+    /**
+     * Starts a new game from a state written by {@link #writeState} when the
+     * world was new, with the player and the first tank spawned at fresh
+     * random places. This world's generator carries on rather than going
+     * back to the saved one, and the entities' streams are seeded afresh
+     * from it, so every restart plays differently.
+     */
+    void restart(ByteBuffer initial) {
+        long s0 = random.getState(0);
+        long s1 = random.getState(1);
+        initial.rewind();
+        readState(initial);
+        random.setState(s0, s1);
+        seedStreams();
+
+        randomSpawn(playerPos);
+        playerPos.y = PLAYER_Y;
+        context.playerX = playerPos.x;
+        context.playerZ = playerPos.z;
+
+        randomSpawn(tank.pos);
+        tank.applyWrappedTransform(context);
+        context.saucer_ttl = random(12, 15) * 100;
+    }
+
+    /**
+     * Seeds this world's generator, and from it every entity's own stream.
+     * A world is seeded from the global generator when built.
+     */
+    public void seed(long seed) {
+        random.setSeed(seed);
+        seedStreams();
+    }
+
+    private void seedStreams() {
+        tanks.seed(random);
+        flyer.random.setSeed(random.nextLong());
+        saucer.random.setSeed(random.nextLong());
+        explosion.random.setSeed(random.nextLong());
+    }
+
+    /**
+     * A random number from start to end, both inclusive.
+     */
+    private int random(int start, int end) {
+        return start + random.nextInt(end - start + 1);
+    }
+
+    public void firePlayer() {
+        playerProjectile.spawnFromPlayer(context);
+    }
+
+    /**
+     * Heading in degrees normalised to [0, 360), as used by the background.
+     */
+    public float heading() {
+        return (headingDeg % 360f + 360f) % 360f;
+    }
+
+    public int liveEnemies() {
+        int n = 0;
+        if (tank.alive) {
+            n++;
+        }
+        if (flyer.alive) {
+            n++;
+        }
+        if (missile.active) {
+            n++;
+        }
+        if (saucer.active) {
+            n++;
+        }
+        return n;
+    }
+
+    public int activeProjectiles() {
+        int n = 0;
+        if (tankProjectile.active) {
+            n++;
+        }
+        if (flyerProjectile.active) {
+            n++;
+        }
+        if (playerProjectile.active) {
+            n++;
+        }
+        return n;
+    }
+
+    private void loadMapObstacles() {
+        obstacles.clear();
+
+        // one model per mesh type, shared by every obstacle of that type
+        Model[] models = new Model[OBSTACLE_MESHES.length];
+
+        for (int[] info : OBSTACLE_COORDS) {
+            int type = info[0];
+            int xb = info[1] & 0xFF;
+            int zb = info[2] & 0xFF;
+            int face = info[3] & 0xFF;
+
+            int x16 = (xb << 8) & 0xFFFF;
+            int z16 = (zb << 8) & 0xFFFF;
+
+            float x = (float) x16;
+            float z = (float) z16;
+            float y = WORLD_Y;
+            float deg = face * (360f / 256f);
+
+            if (models[type] == null) {
+                models[type] = Models.getModelInstance(OBSTACLE_MESHES[type], Color.GREEN, 1f).model;
+            }
+            GameModelInstance inst = new GameModelInstance(OBSTACLE_MESHES[type], models[type]);
+            inst.initialPos.set(x, y, z);
+            inst.transform.setToTranslation(x, y, z);
+            inst.transform.rotate(Vector3.Y, deg);
+
+            obstacles.add(inst);
+        }
+    }
+
+    boolean blockedAt(float x, float z) {
+        if (collidesObstacle(x, z)) {
+            return true;
+        }
+        if (this.tank.alive && touches(this.tank.inst, x, z)) {
+            return true;
+        }
+        if (this.missile.active && touches(this.missile.inst, x, z)) {
+            return true;
+        }
+        if (this.saucer.active && touches(this.saucer.inst, x, z)) {
+            return true;
+        }
+        return false;
+    }
+
+    private boolean collidesObstacle(float x, float z) {
+        collisionQueries.incrementAndGet();
+        int candidates = 0;
+        for (int i = 0, n = obstacles.size(); i < n; i++) {
+            candidates++;
+            boolean collides = touches(obstacles.get(i), x, z);
+            if (collides) {
+                CollisionQueryEvent.emit("collidesObstacle", candidates, true);
+                return true;
+            }
+        }
+        CollisionQueryEvent.emit("collidesObstacle", candidates, false);
+        return false;
+    }
+
+    private boolean hitsObstacle(float x, float z) {
+        collisionQueries.incrementAndGet();
+        int candidates = 0;
+        for (int i = 0, n = obstacles.size(); i < n; i++) {
+            GameModelInstance inst = obstacles.get(i);
+            if (Mesh.SHORT_BOX.equals(inst.mesh())) {
+                continue;//shoots over the short boxes
+            }
+            candidates++;
+            boolean hits = touches(inst, x, z);
+            if (hits) {
+                CollisionQueryEvent.emit("hitsObstacle", candidates, true);
+                return true;
+            }
+        }
+        CollisionQueryEvent.emit("hitsObstacle", candidates, false);
+        return false;
+    }
+
+    private int enemyAt(float x, float z) {
+        collisionQueries.incrementAndGet();
+        int candidates = 0;
+        int found = GameEvents.NONE;
+        if (this.tank.alive) {
+            candidates++;
+            if (touches(this.tank.inst, x, z)) {
+                found = GameEvents.TANK;
+            }
+        }
+        if (found == GameEvents.NONE && this.flyer.alive) {
+            candidates++;
+            if (touches(this.flyer.inst, x, z) && this.flyer.pos.y < 800) {
+                found = GameEvents.FLYER;
+            }
+        }
+        if (found == GameEvents.NONE && this.missile.active) {
+            candidates++;
+            if (touches(this.missile.inst, x, z)) {
+                found = GameEvents.MISSILE;
+            }
+        }
+        if (found == GameEvents.NONE && this.saucer.active) {
+            candidates++;
+            if (touches(this.saucer.inst, x, z)) {
+                found = GameEvents.SAUCER;
+            }
+        }
+        CollisionQueryEvent.emit("hitsEnemy", candidates, found != GameEvents.NONE);
+        return found;
+    }
+
+    /**
+     * Applies the hits and spawns queued during this tick, in the order they
+     * were raised. An enemy already dead by the time its hit comes up, hit
+     * twice in the same tick, only scores once, and a player already down
+     * cannot be hit again. Then plays the sounds the
+     * entities queued and counts the tick's collision queries.
+     */
+    void resolveEvents() {
+        GameEvents events = context.events;
+        for (int i = 0; i < events.size(); i++) {
+            switch (events.type(i)) {
+                case GameEvents.ENEMY_HIT:
+                    enemyHit(events.target(i), events.x(i), events.z(i));
+                    break;
+                case GameEvents.OBSTACLE_HIT:
+                    spatter.spawn(to16(events.x(i)), to16(events.z(i)));
+                    break;
+                case GameEvents.PLAYER_HIT:
+                    if (context.alive) {
+                        playerSpawn();
+                    }
+                    break;
+                case GameEvents.TANK_SPAWN:
+                    tankSpawn();
+                    break;
+                default:
+                    break;
+            }
+        }
+        events.clear();
+
+        tankProjectile.sounds.flush(muted);
+        flyerProjectile.sounds.flush(muted);
+        playerProjectile.sounds.flush(muted);
+        missile.sounds.flush(muted);
+        saucer.sounds.flush(muted);
+        RuntimeMetrics.countCollisionQueries(collisionQueries.getAndSet(0));
+    }
+
+    private void enemyHit(int enemy, float x, float z) {
+        switch (enemy) {
+            case GameEvents.TANK:
+                if (this.tank.alive) {
+                    this.tank.alive = false;
+                    context.playerScore += 1000;
+                    explosion.spawn(true, to16(tank.pos.x), to16(tank.pos.z));
+                }
+                break;
+            case GameEvents.FLYER:
+                if (this.flyer.alive) {
+                    this.flyer.alive = false;
+                    context.playerScore += 1000;
+                    randomSpawnDistantInView(this.flyer.pos, 0);
+                    flyer.applyWrappedTransform(context);
+                }
+                break;
+            case GameEvents.MISSILE:
+                if (this.missile.active) {
+                    this.missile.active = false;
+                    context.playerScore += 2000;
+                    explosion.spawn(false, to16(missile.pos.x), to16(missile.pos.z));
+                }
+                break;
+            case GameEvents.SAUCER:
+                if (this.saucer.active) {
+                    this.saucer.kill();
+                    playSound(Sounds.Effect.SAUCER_HIT);
+                    context.playerScore += 5000;
+                }
+                break;
+            default:
+                return;
+        }
+        spatter.spawn(to16(x), to16(z));
+    }
+
+    void spawnMissile() {
+        randomSpawnDistantInView(this.missile.pos, 6000f);
+        missile.spawn(context);
+        SpawnEvent.emit("MISSILE", missile.pos.x, missile.pos.z, context);
+    }
+
+    void spawnSaucer() {
+        randomSpawnDistantInView(this.saucer.pos, WORLD_Y);
+        saucer.spawn();
+        SpawnEvent.emit("SAUCER", saucer.pos.x, saucer.pos.z, context);
+    }
+
+    void spawnFlyer() {
+        randomSpawnDistantInView(this.flyer.pos, 0);
+        this.flyer.alive = true;
+        SpawnEvent.emit("FLYER", flyer.pos.x, flyer.pos.z, context);
+    }
+
+    private void tankSpawn() {
+
+        this.tank = this.tanks.nextTank(context);
+
+        randomSpawn(this.tank.pos);
+        tank.applyWrappedTransform(context);
+
+        this.tank.alive = true;
+        this.tank.facing = random(0, 255);
+        this.tank.turnTo = tank.facing;
+        this.tank.moveCounter = 45;
+
+        playSound(Sounds.Effect.SPAWN);
+        SpawnEvent.emit(this.tank.getClass().getSimpleName(), tank.pos.x, tank.pos.z, context);
+
+        if (context.playerScore > 10000) {
+            if (random(1, 3) == 1) {
+                spawnMissile();
+            }
+        }
+
+        if (random(1, 3) == 1 && !this.flyer.alive) {
+            spawnFlyer();
+        }
+    }
+
+    private void playerSpawn() {
+        context.spawnProtected = 0;
+        context.lives--;
+        context.enemyScore++;
+        context.alive = false;
+        respawnTimer = RESPAWN_SECONDS;
+    }
+
+    private void respawnPlayer() {
+        randomSpawn(playerPos);
+        playerPos.y = PLAYER_Y;
+        playSound(Sounds.Effect.SPAWN);
+        context.alive = true;
+        SpawnEvent.emit("PLAYER", playerPos.x, playerPos.z, context);
+    }
+
+    private void playSound(Sounds.Effect effect) {
+        if (!muted) {
+            Sounds.play(effect);
+        }
+    }
+
+    private void stopSound(Sounds.Effect effect) {
+        if (!muted) {
+            Sounds.stop(effect);
+        }
+    }
+
+    private boolean touches(GameModelInstance inst, float x, float z) {
+        // offset from the instance's nearest wrapped image, without scratch
+        // state so enemies can query in parallel
+        final float dx = -wrapDelta16(inst.getX() - to16(x));
+        final float dz = -wrapDelta16(inst.getZ() - to16(z));
+
+        final float[] m = inst.transform.val;
+        float lx = m[Matrix4.M00] * dx + m[Matrix4.M20] * dz;
+        float lz = m[Matrix4.M02] * dx + m[Matrix4.M22] * dz;
+
+        final BoundingBox b = inst.localBounds;
+        final float cx = (b.min.x + b.max.x) * 0.5f;
+        final float cz = (b.min.z + b.max.z) * 0.5f;
+        final float hx = (b.max.x - b.min.x) * 0.5f;
+        final float hz = (b.max.z - b.min.z) * 0.5f;
+
+        lx -= cx;
+        lz -= cz;
+
+        return (lx >= -hx && lx <= hx && lz >= -hz && lz <= hz);
+    }
+
+    void randomSpawn(Vector3 pos) {
+        GameContext ctx = context;
+
+        for (int i = 0; i < 15; i++) {
+            float r = random(16000, 31000);
+            float x = wrap16f(ctx.playerX + 1 * r);
+            float z = wrap16f(ctx.playerZ + 1 * r);
+
+            if (!ctx.collisionChecker.collides(x, z)) {
+                pos.x = x;
+                pos.y = WORLD_Y;
+                pos.z = z;
+                return;
+            }
+        }
+
+        pos.set(wrap16f(ctx.playerX + 31000), WORLD_Y, wrap16f(ctx.playerZ));
+    }
+
+    private void randomSpawnDistantInView(Vector3 pos, float y) {
+        GameContext ctx = context;
+        float HALF_ANGLE_DEG = 30f;
+        float angleDeg = ctx.hdFromCam - HALF_ANGLE_DEG + random.nextFloat() * 2f * HALF_ANGLE_DEG;
+        float angleRad = angleDeg * MathUtils.degreesToRadians;
+        float r = random(29000, 31000);
+        float x = wrap16f(ctx.playerX + MathUtils.sin(angleRad) * r);
+        float z = wrap16f(ctx.playerZ + MathUtils.cos(angleRad) * r);
+        pos.x = x;
+        pos.y = y;
+        pos.z = z;
+    }
+}
@@ -0,0 +1,56 @@
+package bzone;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import java.lang.reflect.Proxy;
+
+/**
+ * Boots libGDX without a window so a {@link GameWorld} can be built and ticked
+ * from tests, benchmarks or server code.
+ *
+ * The headless backend provides files and mock audio but no GL, and
+ * {@link Models} still uploads meshes while loading, so a no-op GL20 is
+ * installed that answers every call with zero / false / null.
+ */
+public final class Headless {
+
+    private static HeadlessApplication app;
+
+    private Headless() {
+    }
+
+    public static synchronized void init() {
+        if (app != null) {
+            return;
+        }
+
+        HeadlessApplicationConfiguration cfg = new HeadlessApplicationConfiguration();
+        cfg.updatesPerSecond = -1; // no render loop, callers drive the world themselves
+        app = new HeadlessApplication(new ApplicationAdapter() {
+        }, cfg);
+
+        GL20 gl = (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[]{GL20.class},
+                (proxy, method, args) -> defaultValue(method.getReturnType()));
+        Gdx.gl = gl;
+        Gdx.gl20 = gl;
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == float.class) {
+            return 0f;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
@@ -1,8 +1,6 @@
 package bzone;
 
-import static bzone.BattleZone.to16;
-import static bzone.BattleZone.wrapDelta16;
-import com.badlogic.gdx.math.MathUtils;
+import java.nio.ByteBuffer;
 
 /**
  * HeavyTank — ROM-inspired "heavy" ground unit.
@@ -30,6 +28,7 @@ public class HeavyTank extends BaseTank {
     private enum Plan {
         AIM, APPROACH, ADJUST, STRAFE, RETREAT
     }
+    private static final Plan[] PLANS = Plan.values();
     private Plan plan = Plan.AIM;
 
     // Rotate gating to feel heavier: skip turning every other frame
@@ -37,12 +36,24 @@ public class HeavyTank extends BaseTank {
 
     public HeavyTank(GameModelInstance tankModel, Projectile projectile) {
         super(tankModel, null, projectile);
-        this.facing = MathUtils.random(0, ANGLE_STEPS - 1);
+        this.facing = random(0, ANGLE_STEPS - 1);
         this.radarFacing = this.facing;
         this.turnTo = this.facing;
         this.moveCounter = 1; // trigger immediate plan choice
     }
 
+    @Override
+    protected void writeTankState(ByteBuffer out) {
+        out.putInt(plan.ordinal());
+        QuickSave.putBoolean(out, turnGate);
+    }
+
+    @Override
+    protected void readTankState(ByteBuffer in) {
+        plan = PLANS[in.getInt()];
+        turnGate = QuickSave.getBoolean(in);
+    }
+
     @Override
     protected void updateTank(GameContext ctx, float dt) {
 
@@ -73,15 +84,14 @@ public class HeavyTank extends BaseTank {
 
         if (this.moveCounter == 0) {
             chooseHeavyPlan(ctx);
+            planChanged(ctx, plan.name());
         }
 
         steerToward(this.turnTo, dt, /*slowTurn=*/ true);
 
         tryShootPlayer(ctx);
 
-        float dx16 = wrapDelta16(to16(ctx.playerX) - to16(this.pos.x));
-        float dz16 = wrapDelta16(to16(ctx.playerZ) - to16(this.pos.z));
-        float dist = (float) Math.sqrt(dx16 * dx16 + dz16 * dz16);
+        float dist = distanceToPlayer(ctx);
 
         boolean nearlyAligned = Math.abs(signed8(calcAngleToPlayer(ctx) - this.facing)) <= 4;
         if (dist >= FWD_START_DISTANCE_FAR || (nearlyAligned && dist >= FWD_START_DISTANCE_NEAR)) {
@@ -119,28 +129,26 @@ public class HeavyTank extends BaseTank {
 
         int angToPlayer = calcAngleToPlayer(ctx);
 
-        float dx16 = wrapDelta16(to16(ctx.playerX) - to16(this.pos.x));
-        float dz16 = wrapDelta16(to16(ctx.playerZ) - to16(this.pos.z));
-        float dist = (float) Math.sqrt(dx16 * dx16 + dz16 * dz16);
+        float dist = distanceToPlayer(ctx);
 
         // Too close? Deliberate retreat phase using the reverse flags
         if (dist < RETREAT_TRIGGER_DIST) {
             plan = Plan.RETREAT;
             // pick left/right oblique away
-            boolean left = MathUtils.randomBoolean();
+            boolean left = randomBoolean();
             this.reverseFlags |= 0x01 | (left ? 0x02 : 0x00);
             this.moveCounter = REVERSE_TIME_FRAMES + RJIT;
             return;
         }
 
-        int roll = MathUtils.random(0, 255);
+        int roll = random(0, 255);
 
         if (dist > 11000f) {
             // Very far: approach, small wobble
             plan = Plan.APPROACH;
             if (roll < 32) {
-                int off = MathUtils.random(0, MICRO_ADJUST_MAX_STEPS);
-                this.turnTo = u8(angToPlayer + (MathUtils.randomBoolean() ? +off : -off));
+                int off = random(0, MICRO_ADJUST_MAX_STEPS);
+                this.turnTo = u8(angToPlayer + (randomBoolean() ? +off : -off));
             } else {
                 this.turnTo = angToPlayer;
             }
@@ -152,15 +160,15 @@ public class HeavyTank extends BaseTank {
         if (roll < 192) {
             plan = Plan.AIM;
             this.turnTo = angToPlayer;
-            this.moveCounter = MathUtils.random(AIM_WINDOW_MIN, AIM_WINDOW_MAX) + JIT;
+            this.moveCounter = random(AIM_WINDOW_MIN, AIM_WINDOW_MAX) + JIT;
         } else if (roll < 232) {
             plan = Plan.ADJUST; // p0/p4 flavour
-            int off = MathUtils.random(0, MICRO_ADJUST_MAX_STEPS);
-            this.turnTo = u8(this.facing + (MathUtils.randomBoolean() ? +off : -off));
+            int off = random(0, MICRO_ADJUST_MAX_STEPS);
+            this.turnTo = u8(this.facing + (randomBoolean() ? +off : -off));
             this.moveCounter = NEW_HEADING_FRAMES + JIT;
         } else {
             plan = Plan.STRAFE; // rare for heavies
-            boolean right = MathUtils.randomBoolean();
+            boolean right = randomBoolean();
             this.turnTo = u8(angToPlayer + (right ? +STRAFE_90_STEPS : -STRAFE_90_STEPS));
             this.moveCounter = NEW_HEADING_FRAMES + JIT;
         }
@@ -1,17 +1,25 @@
 package bzone;
 
-import static bzone.BattleZone.to16;
-import static bzone.BattleZone.wrapDelta16;
-import com.badlogic.gdx.math.MathUtils;
+import java.nio.ByteBuffer;
 
 public class HoverCraft extends BaseTank {
 
-    private final int bobSeed = MathUtils.random(0, 0xFF);
+    private int bobSeed = random(0, 0xFF);
 
     public HoverCraft(GameModelInstance inst, Projectile projectile) {
         super(inst, null, projectile);
     }
 
+    @Override
+    protected void writeTankState(ByteBuffer out) {
+        out.putInt(bobSeed);
+    }
+
+    @Override
+    protected void readTankState(ByteBuffer in) {
+        bobSeed = in.getInt();
+    }
+
     @Override
     protected void updateTank(GameContext ctx, float dt) {
 
@@ -70,9 +78,7 @@ public class HoverCraft extends BaseTank {
 
         tryShootPlayer(ctx);
 
-        float dx16 = wrapDelta16(to16(ctx.playerX) - to16(this.pos.x));
-        float dz16 = wrapDelta16(to16(ctx.playerZ) - to16(this.pos.z));
-        float dist = (float) Math.sqrt(dx16 * dx16 + dz16 * dz16);
+        float dist = distanceToPlayer(ctx);
 
         final float forwardStart = FWD_START_DISTANCE_SUPER_TANK;
 
@@ -88,6 +94,7 @@ public class HoverCraft extends BaseTank {
         this.turnTo = calcAngleToPlayer(ctx);
         this.reverseFlags &= ~0x01;
         this.moveCounter = NEW_HEADING_FRAMES + JIT;
+        planChanged(ctx, "PURSUE");
     }
 
 }
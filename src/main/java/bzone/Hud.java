@@ -0,0 +1,158 @@
+package bzone;
+
+import static bzone.BattleZone.SCREEN_HEIGHT;
+import static bzone.BattleZone.SCREEN_WIDTH;
+import static bzone.Models.DEATH_CRACK_LINES;
+import static bzone.Models.LIFE_ICON_STROKES;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+
+/**
+ * Static HUD line work (reticle, life icons and the death cracks) baked into
+ * vertex buffers once. Only the life icons are ever rebuilt, and only when the
+ * number of lives changes; each part is then a single draw call using the
+ * {@link VectorBatch} line shader.
+ */
+public class Hud {
+
+    private static final int FLOATS_PER_VERTEX = 3; // x, y, packed colour
+
+    private static final float RETICLE_INTENSITY = 0.6f;
+    private static final float LIFE_ICON_X = 800;
+    private static final float LIFE_ICON_Y = SCREEN_HEIGHT - 50;
+    private static final float LIFE_ICON_SCALE = 1.3f;
+    private static final float LIFE_ICON_SPACING = 75;
+    private static final int MAX_LIFE_ICONS = (int) ((SCREEN_WIDTH - LIFE_ICON_X) / LIFE_ICON_SPACING);
+
+    private final ShaderProgram shader;
+    private final Mesh reticle;
+    private final Mesh lives;
+    private final Mesh cracks;
+    private final float[] livesVertices;
+    private int livesShown = -1;
+
+    public Hud() {
+        shader = VectorBatch.createShader();
+
+        float[] v = reticleVertices();
+        reticle = newMesh(true, v.length);
+        reticle.setVertices(v);
+
+        v = crackVertices();
+        cracks = newMesh(true, v.length);
+        cracks.setVertices(v);
+
+        livesVertices = new float[MAX_LIFE_ICONS * lifeIconSegments() * 2 * FLOATS_PER_VERTEX];
+        lives = newMesh(false, livesVertices.length);
+    }
+
+    public void draw(Matrix4 projection, int livesCount, boolean alive) {
+        int icons = Math.max(0, Math.min(MAX_LIFE_ICONS, livesCount));
+        if (icons != livesShown) {
+            livesShown = icons;
+            int n = lifeIconVertices(livesVertices, icons);
+            lives.setVertices(livesVertices, 0, n);
+        }
+
+        shader.bind();
+        shader.setUniformMatrix("u_projTrans", projection);
+
+        Gdx.gl.glLineWidth(2);
+        reticle.render(shader, GL20.GL_LINES);
+        Gdx.gl.glLineWidth(1);
+
+        if (icons > 0) {
+            lives.render(shader, GL20.GL_LINES);
+        }
+
+        if (!alive) {
+            Gdx.gl.glLineWidth(3);
+            cracks.render(shader, GL20.GL_LINES);
+            Gdx.gl.glLineWidth(1);
+        }
+    }
+
+    public void dispose() {
+        reticle.dispose();
+        lives.dispose();
+        cracks.dispose();
+        shader.dispose();
+    }
+
+    private static Mesh newMesh(boolean isStatic, int floats) {
+        return new Mesh(isStatic, floats / FLOATS_PER_VERTEX, 0,
+                new VertexAttribute(VertexAttributes.Usage.Position, 2, ShaderProgram.POSITION_ATTRIBUTE),
+                new VertexAttribute(VertexAttributes.Usage.ColorPacked, 4, ShaderProgram.COLOR_ATTRIBUTE));
+    }
+
+    private static float[] reticleVertices() {
+        final float cx = 640, cy = 480;
+        final float X = 75f;    // half-width
+        final float Y = 75f;    // bar offset from center
+        final float T = 25f;    // tick length
+        final float L = 100f;   // long center segment length
+
+        float[][] lines = {
+            {cx, cy - (Y + L), cx, cy - Y},
+            {cx - X, cy - Y, cx + X, cy - Y},
+            {cx - X, cy - Y, cx - X, cy - (Y - T)},
+            {cx + X, cy - Y, cx + X, cy - (Y - T)},
+            {cx, cy + Y, cx, cy + (Y + L)},
+            {cx - X, cy + Y, cx + X, cy + Y},
+            {cx - X, cy + (Y - T), cx - X, cy + Y},
+            {cx + X, cy + (Y - T), cx + X, cy + Y}
+        };
+        return lineVertices(lines, Color.toFloatBits(0f, RETICLE_INTENSITY, 0f, 1f));
+    }
+
+    private static float[] crackVertices() {
+        return lineVertices(DEATH_CRACK_LINES, Color.GREEN.toFloatBits());
+    }
+
+    private static float[] lineVertices(float[][] lines, float color) {
+        float[] v = new float[lines.length * 2 * FLOATS_PER_VERTEX];
+        int o = 0;
+        for (float[] l : lines) {
+            o = vertex(v, o, l[0], l[1], color);
+            o = vertex(v, o, l[2], l[3], color);
+        }
+        return v;
+    }
+
+    private static int lifeIconSegments() {
+        int n = 0;
+        for (int[] s : LIFE_ICON_STROKES) {
+            n += s.length / 2 - 1;
+        }
+        return n;
+    }
+
+    private static int lifeIconVertices(float[] v, int icons) {
+        final float color = Color.RED.toFloatBits();
+        int o = 0;
+        float ox = LIFE_ICON_X;
+        for (int life = 0; life < icons; life++) {
+            for (int[] s : LIFE_ICON_STROKES) {
+                for (int i = 0; i + 3 < s.length; i += 2) {
+                    o = vertex(v, o, ox + s[i] * LIFE_ICON_SCALE, LIFE_ICON_Y + s[i + 1] * LIFE_ICON_SCALE, color);
+                    o = vertex(v, o, ox + s[i + 2] * LIFE_ICON_SCALE, LIFE_ICON_Y + s[i + 3] * LIFE_ICON_SCALE, color);
+                }
+            }
+            ox += LIFE_ICON_SPACING;
+        }
+        return o;
+    }
+
+    private static int vertex(float[] v, int o, float x, float y, float color) {
+        v[o] = x;
+        v[o + 1] = y;
+        v[o + 2] = color;
+        return o + FLOATS_PER_VERTEX;
+    }
+}
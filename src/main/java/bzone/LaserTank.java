@@ -4,9 +4,6 @@
  */
 package bzone;
 
-import static bzone.BattleZone.to16;
-import static bzone.BattleZone.wrapDelta16;
-import com.badlogic.gdx.math.MathUtils;
 
 /**
  * LaserTank — mobile ground unit that behaves like a class-1 "ground mover"
@@ -31,9 +28,9 @@ public class LaserTank extends BaseTank {
 
     public LaserTank(GameModelInstance laserTank, Projectile projectile) {
         super(laserTank, null, projectile);
-        this.facing = MathUtils.random(0, ANGLE_STEPS - 1);
+        this.facing = random(0, ANGLE_STEPS - 1);
         this.radarFacing = this.facing;
-        this.moveCounter = NEW_HEADING_FRAMES + (int) (MathUtils.random(0, 7));
+        this.moveCounter = NEW_HEADING_FRAMES + (int) (random(0, 7));
     }
 
     @Override
@@ -67,6 +64,7 @@ public class LaserTank extends BaseTank {
         // If no active plan, choose a new heading "plan"
         if (this.moveCounter == 0) {
             setLaserTurnTo(ctx);
+            planChanged(ctx, "TURN");
         }
 
         // Rotate toward current target heading
@@ -85,9 +83,7 @@ public class LaserTank extends BaseTank {
         laserTryShoot(ctx);      // permissive near-aligned shots while maneuvering
 
         // Distance-based advance
-        float dx16 = wrapDelta16(to16(ctx.playerX) - to16(this.pos.x));
-        float dz16 = wrapDelta16(to16(ctx.playerZ) - to16(this.pos.z));
-        float dist = (float) Math.sqrt(dx16 * dx16 + dz16 * dz16);
+        float dist = distanceToPlayer(ctx);
 
         if (dist >= FWD_START_DISTANCE_LASER_TANK) {
             forward(ctx, LASER_SPEED_MULT, dt);
@@ -103,7 +99,7 @@ public class LaserTank extends BaseTank {
 
         // Occasionally reverse (like tanks do)
         if ((ctx.nmiCount & 7L) == 0L) {
-            this.reverseFlags |= 0x01 | (MathUtils.randomBoolean() ? 0x02 : 0x00);
+            this.reverseFlags |= 0x01 | (randomBoolean() ? 0x02 : 0x00);
             this.moveCounter = REVERSE_TIME_FRAMES + RJIT;
             return;
         }
@@ -111,12 +107,10 @@ public class LaserTank extends BaseTank {
         int angToPlayer = calcAngleToPlayer(ctx);
 
         // Distance-informed pattern choice
-        float dx16 = wrapDelta16(to16(ctx.playerX) - to16(this.pos.x));
-        float dz16 = wrapDelta16(to16(ctx.playerZ) - to16(this.pos.z));
-        float dist = (float) Math.sqrt(dx16 * dx16 + dz16 * dz16);
+        float dist = distanceToPlayer(ctx);
 
         // Heuristic probabilities (roughly: more strafing at mid range)
-        int roll = MathUtils.random(0, 255);
+        int roll = random(0, 255);
         if (dist > 6000f) {
             // Far: mostly chase, with some wobble
             if (roll < 200) {
@@ -124,7 +118,7 @@ public class LaserTank extends BaseTank {
                 this.turnTo = angToPlayer;
             } else {
                 // WOBBLE
-                int off = MathUtils.random(0, WOBBLE_MAX_OFFSET_STEPS);
+                int off = random(0, WOBBLE_MAX_OFFSET_STEPS);
                 boolean neg = ((ctx.nmiCount & 1L) == 0L);
                 this.turnTo = u8(neg ? angToPlayer - off : angToPlayer + off);
             }
@@ -140,8 +134,8 @@ public class LaserTank extends BaseTank {
                 this.turnTo = angToPlayer;
             } else {
                 // WOBBLE
-                int off = MathUtils.random(0, WOBBLE_MAX_OFFSET_STEPS);
-                boolean neg = MathUtils.randomBoolean();
+                int off = random(0, WOBBLE_MAX_OFFSET_STEPS);
+                boolean neg = randomBoolean();
                 this.turnTo = u8(neg ? this.facing - off : this.facing + off);
             }
         } else {
@@ -151,7 +145,7 @@ public class LaserTank extends BaseTank {
                 this.turnTo = angToPlayer;
             } else {
                 // micro WOBBLE around current heading
-                int off = MathUtils.random(0, 15);
+                int off = random(0, 15);
                 boolean neg = ((ctx.nmiCount & 1L) == 0L);
                 this.turnTo = u8(neg ? this.facing - off : this.facing + off);
             }
@@ -173,9 +167,7 @@ public class LaserTank extends BaseTank {
             return;
         }
 
-        float dx16 = wrapDelta16(to16(ctx.playerX) - to16(this.pos.x));
-        float dz16 = wrapDelta16(to16(ctx.playerZ) - to16(this.pos.z));
-        float dist = (float) Math.sqrt(dx16 * dx16 + dz16 * dz16);
+        float dist = distanceToPlayer(ctx);
 
         int diffSteps = Math.abs(signed8(calcAngleToPlayer(ctx) - this.facing));
 
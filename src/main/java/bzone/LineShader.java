@@ -0,0 +1,135 @@
+package bzone;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.g3d.Attribute;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.Shader;
+import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
+import com.badlogic.gdx.graphics.g3d.utils.DefaultShaderProvider;
+import com.badlogic.gdx.graphics.g3d.utils.RenderContext;
+import com.badlogic.gdx.graphics.g3d.utils.RenderableSorter;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+
+/**
+ * Unlit shader for the wireframe models: transforms positions and fills every
+ * line with the material's emissive colour. No lights, normals, textures or
+ * environment are looked at, and the mesh stays bound while consecutive
+ * renderables share it.
+ */
+public class LineShader implements Shader {
+
+    private static final String VERTEX_SHADER
+            = "attribute vec3 " + ShaderProgram.POSITION_ATTRIBUTE + ";\n"
+            + "uniform mat4 u_projViewTrans;\n"
+            + "uniform mat4 u_worldTrans;\n"
+            + "void main() {\n"
+            + "    gl_Position = u_projViewTrans * u_worldTrans * vec4(" + ShaderProgram.POSITION_ATTRIBUTE + ", 1.0);\n"
+            + "}\n";
+
+    private static final String FRAGMENT_SHADER
+            = "#ifdef GL_ES\n"
+            + "precision mediump float;\n"
+            + "#endif\n"
+            + "uniform vec4 u_color;\n"
+            + "void main() {\n"
+            + "    gl_FragColor = u_color;\n"
+            + "}\n";
+
+    private ShaderProgram program;
+    private int uProjViewTrans, uWorldTrans, uColor;
+    private Mesh currentMesh;
+
+    @Override
+    public void init() {
+        program = new ShaderProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        if (!program.isCompiled()) {
+            throw new IllegalStateException("line shader: " + program.getLog());
+        }
+        uProjViewTrans = program.fetchUniformLocation("u_projViewTrans", true);
+        uWorldTrans = program.fetchUniformLocation("u_worldTrans", true);
+        uColor = program.fetchUniformLocation("u_color", true);
+    }
+
+    @Override
+    public int compareTo(Shader other) {
+        return 0;
+    }
+
+    @Override
+    public boolean canRender(Renderable renderable) {
+        return renderable.meshPart.primitiveType == GL20.GL_LINES;
+    }
+
+    @Override
+    public void begin(Camera camera, RenderContext context) {
+        program.bind();
+        program.setUniformMatrix(uProjViewTrans, camera.combined);
+        context.setDepthTest(GL20.GL_LEQUAL);
+        context.setDepthMask(true);
+        context.setBlending(false, GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+    }
+
+    @Override
+    public void render(Renderable renderable) {
+        Attribute emissive = renderable.material.get(ColorAttribute.Emissive);
+        Color c = emissive != null ? ((ColorAttribute) emissive).color : Color.GREEN;
+        program.setUniformf(uColor, c.r, c.g, c.b, c.a);
+        program.setUniformMatrix(uWorldTrans, renderable.worldTransform);
+
+        Mesh mesh = renderable.meshPart.mesh;
+        if (mesh != currentMesh) {
+            if (currentMesh != null) {
+                currentMesh.unbind(program);
+            }
+            currentMesh = mesh;
+            mesh.bind(program);
+        }
+        mesh.render(program, renderable.meshPart.primitiveType, renderable.meshPart.offset, renderable.meshPart.size, false);
+        RuntimeMetrics.countLineDraw();
+    }
+
+    @Override
+    public void end() {
+        if (currentMesh != null) {
+            currentMesh.unbind(program);
+            currentMesh = null;
+        }
+    }
+
+    @Override
+    public void dispose() {
+        program.dispose();
+    }
+
+    /**
+     * Hands line meshes to {@link LineShader}, or to {@link BatchedLineShader}
+     * when batching; anything else (the tube-built title logos) still gets a
+     * default shader.
+     */
+    public static class Provider extends DefaultShaderProvider {
+
+        private final boolean batched;
+
+        public Provider(boolean batched) {
+            this.batched = batched;
+        }
+
+        @Override
+        protected Shader createShader(Renderable renderable) {
+            if (renderable.meshPart.primitiveType == GL20.GL_LINES) {
+                return batched ? new BatchedLineShader() : new LineShader();
+            }
+            return super.createShader(renderable);
+        }
+    }
+
+    /**
+     * Keeps submission order. Everything is opaque lines with depth testing,
+     * so sorting by distance buys nothing.
+     */
+    public static final RenderableSorter UNSORTED = (camera, renderables) -> {
+    };
+}
@@ -1,15 +1,14 @@
 package bzone;
 
-import static bzone.BattleZone.nearestWrappedPos;
 import static bzone.BattleZone.to16;
 import static bzone.BattleZone.wrapDelta16;
 import static bzone.Tank.ANGLE_STEPS;
 import com.badlogic.gdx.graphics.Camera;
-import com.badlogic.gdx.graphics.g3d.Environment;
 import com.badlogic.gdx.graphics.g3d.ModelBatch;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Vector3;
+import java.nio.ByteBuffer;
 
 public class Missile {
 
@@ -40,6 +39,8 @@ public class Missile {
 
     public final Vector3 pos = new Vector3();
     private static final Vector3 TMP1 = new Vector3();
+    private final PlayerRelative toPlayer = new PlayerRelative();
+    final SoundQueue sounds = new SoundQueue();
     
     private int facing;
     private float speed = BASE_SPEED;
@@ -82,20 +83,48 @@ public class Missile {
 
         applyWrappedTransform(ctx);
 
-        Sounds.play(Sounds.Effect.MISSILE_MAX);
+        sounds.play(Sounds.Effect.MISSILE_MAX);
     }
 
-    public void render(Camera cam, ModelBatch modelBatch, Environment environment) {
+    void writeState(ByteBuffer out) {
+        QuickSave.putVector(out, pos);
+        QuickSave.putBoolean(out, active);
+        out.putInt(facing).putFloat(speed).putFloat(verticalVelocity);
+        QuickSave.putBoolean(out, hopping);
+        QuickSave.putBoolean(out, falling);
+        out.putFloat(hopPhase).putFloat(hopCooldown);
+        QuickSave.putBoolean(out, zigActive);
+        out.putInt(zigFlipsDone);
+        QuickSave.putMatrix(out, inst.transform);
+    }
+
+    void readState(ByteBuffer in) {
+        QuickSave.getVector(in, pos);
+        active = QuickSave.getBoolean(in);
+        facing = in.getInt();
+        speed = in.getFloat();
+        verticalVelocity = in.getFloat();
+        hopping = QuickSave.getBoolean(in);
+        falling = QuickSave.getBoolean(in);
+        hopPhase = in.getFloat();
+        hopCooldown = in.getFloat();
+        zigActive = QuickSave.getBoolean(in);
+        zigFlipsDone = in.getInt();
+        QuickSave.getMatrix(in, inst.transform);
+    }
+
+    public void render(Camera cam, ModelBatch modelBatch) {
         if (!active) {
             return;
         }
 
-        nearestWrappedPos(this.inst, cam.position.x, cam.position.z, TMP1);
-        if (cam.frustum.pointInFrustum(TMP1)) {
+        toPlayer(cam.position.x, cam.position.z).nearestImage(this.inst.getY(), TMP1);
+        if (Culling.isVisible(cam, this.inst, TMP1)) {
             this.inst.transform.val[Matrix4.M03] = TMP1.x;
             this.inst.transform.val[Matrix4.M13] = TMP1.y;
             this.inst.transform.val[Matrix4.M23] = TMP1.z;
-            modelBatch.render(this.inst, environment);
+            modelBatch.render(this.inst);
+            RuntimeMetrics.countDrawn();
         }
     }
 
@@ -208,11 +237,10 @@ public class Missile {
         }
 
         // Proximity kill vs player
-        float dx16 = BattleZone.wrapDelta16(BattleZone.to16(this.pos.x) - BattleZone.to16(ctx.playerX));
-        float dz16 = BattleZone.wrapDelta16(BattleZone.to16(this.pos.z) - BattleZone.to16(ctx.playerZ));
-        if (dx16 * dx16 + dz16 * dz16 <= MISSILE_RADIUS * MISSILE_RADIUS) {
+        PlayerRelative rel = toPlayer(ctx.playerX, ctx.playerZ);
+        if (rel.dx16() * rel.dx16() + rel.dz16() * rel.dz16() <= MISSILE_RADIUS * MISSILE_RADIUS) {
             kill();
-            ctx.playerSpawn.spawn();
+            ctx.events.push(GameEvents.PLAYER_HIT);
             return;
         }
 
@@ -222,14 +250,19 @@ public class Missile {
     public void kill() {
         active = false;
         speed = BASE_SPEED;
-        Sounds.play(Sounds.Effect.EXPLOSION);
+        sounds.play(Sounds.Effect.EXPLOSION);
+    }
+
+    /**
+     * Offset to the player at the given position, cached until the missile or
+     * the player moves.
+     */
+    public PlayerRelative toPlayer(float playerX, float playerZ) {
+        return toPlayer.update(this.pos.x, this.pos.z, playerX, playerZ);
     }
 
     private int calcAngleToPlayer(GameContext ctx) {
-        float dx16 = wrapDelta16(to16(ctx.playerX) - to16(this.pos.x));
-        float dz16 = wrapDelta16(to16(ctx.playerZ) - to16(this.pos.z));
-        float a = MathUtils.atan2((float) dx16, (float) dz16);
-        return ((int) Math.round((a / MathUtils.PI2) * ANGLE_STEPS)) & 0xFF;
+        return toPlayer(ctx.playerX, ctx.playerZ).bearing();
     }
 
     private static int u8(int v) {
@@ -13,18 +13,20 @@ import com.badlogic.gdx.graphics.g3d.attributes.BlendingAttribute;
 import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
 import com.badlogic.gdx.graphics.g3d.attributes.IntAttribute;
 import com.badlogic.gdx.graphics.g3d.utils.MeshPartBuilder;
-import com.badlogic.gdx.graphics.g3d.utils.MeshPartBuilder.VertexInfo;
 import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Quaternion;
 import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class Models {
 
@@ -121,29 +123,37 @@ public class Models {
     private static final Quaternion TMP_Q = new Quaternion();
     private static final Matrix4 TMP_MAT = new Matrix4();
 
-    public static List<ModelInstance> loadBackgroundObjects(String fname, float scale) {
-        try {
-            ObjData data = parseObj(fname);
+    /**
+     * Indexed 2D line list: xy holds (x, y) pairs, indices pairs of vertex
+     * numbers, one pair per line.
+     */
+    public static final class LineSet {
 
-            final Material greenMat = new Material(
-                    ColorAttribute.createDiffuse(Color.GREEN),
-                    ColorAttribute.createEmissive(Color.GREEN),
-                    IntAttribute.createCullFace(GL20.GL_NONE)
-            );
+        public final float[] xy;
+        public final short[] indices;
 
-            final VertexAttributes edgeVA = new VertexAttributes(
-                    new VertexAttribute(VertexAttributes.Usage.Position, 3, ShaderProgram.POSITION_ATTRIBUTE),
-                    new VertexAttribute(VertexAttributes.Usage.ColorUnpacked, 4, ShaderProgram.COLOR_ATTRIBUTE)
-            );
+        LineSet(float[] xy, short[] indices) {
+            this.xy = xy;
+            this.indices = indices;
+        }
 
-            List<ModelInstance> out = new ArrayList<>();
+        public int vertexCount() {
+            return xy.length / 2;
+        }
+    }
 
-            for (ObjObject obj : data.objects) {
-                ModelBuilder mb = new ModelBuilder();
-                mb.begin();
+    /**
+     * Loads each object of a background OBJ as an indexed line set in
+     * landscape units, with shared edges removed and shared endpoints stored
+     * once.
+     */
+    public static List<LineSet> loadBackgroundEdges(String fname) {
+        try {
+            ObjData data = parseObj(fname);
 
-                MeshPartBuilder edges = mb.part(obj.name + "_edges", GL20.GL_LINES, edgeVA, greenMat);
+            List<LineSet> out = new ArrayList<>();
 
+            for (ObjObject obj : data.objects) {
                 final HashSet<Long> edgeSet = new HashSet<>();
 
                 for (int[] chain : obj.lines) {
@@ -152,17 +162,26 @@ public class Models {
                     }
                 }
 
+                Map<Integer, Short> emitted = new HashMap<>();
+                float[] xy = new float[edgeSet.size() * 4];
+                short[] indices = new short[edgeSet.size() * 2];
+                int o = 0;
                 for (long key : edgeSet) {
-                    int i0 = (int) (key >>> 32), i1 = (int) key;
-                    Vector3 p0 = data.vertices.get(i0), p1 = data.vertices.get(i1);
-                    short s0 = edges.vertex(new VertexInfo().setPos(p0).setCol(Color.GREEN));
-                    short s1 = edges.vertex(new VertexInfo().setPos(p1).setCol(Color.GREEN));
-                    edges.line(s0, s1);
+                    for (int vi : new int[]{(int) (key >>> 32), (int) key}) {
+                        Short index = emitted.get(vi);
+                        if (index == null) {
+                            index = (short) emitted.size();
+                            emitted.put(vi, index);
+                            Vector3 p = data.vertices.get(vi);
+                            xy[index * 2] = p.x;
+                            xy[index * 2 + 1] = p.y;
+                        }
+                        indices[o++] = index;
+                    }
                 }
-
-                Model model = mb.end();
-                ModelInstance inst = new ModelInstance(model);
-                out.add(inst);
+                float[] packed = new float[emitted.size() * 2];
+                System.arraycopy(xy, 0, packed, 0, packed.length);
+                out.add(new LineSet(packed, indices));
             }
 
             return out;
@@ -171,6 +190,23 @@ public class Models {
         }
     }
 
+    /**
+     * Number of edge sets built per line model; level 0 is the full model.
+     */
+    public static final int LOD_LEVELS = 3;
+
+    /**
+     * Node part id suffix of each level of detail.
+     */
+    public static final String[] LOD_PART_SUFFIX = {"_edges", "_lod1", "_lod2"};
+
+    /**
+     * Edges shorter than this fraction of the model's largest extent are
+     * dropped from each level.
+     */
+    private static final float[] LOD_MIN_EDGE_FRACTION = {0f, 0.08f, 0.2f};
+    private static final float COLLINEAR_COS = 0.995f;
+
     public static Model loadModel(String fname, String name, Color color, float scale) throws Exception {
 
         ObjData data = parseObj(fname);
@@ -181,9 +217,9 @@ public class Models {
                 IntAttribute.createCullFace(GL20.GL_NONE)
         );
 
+        // colour comes from the material, so the lines only need positions
         final VertexAttributes edgeVA = new VertexAttributes(
-                new VertexAttribute(VertexAttributes.Usage.Position, 3, ShaderProgram.POSITION_ATTRIBUTE),
-                new VertexAttribute(VertexAttributes.Usage.ColorUnpacked, 4, ShaderProgram.COLOR_ATTRIBUTE)
+                new VertexAttribute(VertexAttributes.Usage.Position, 3, ShaderProgram.POSITION_ATTRIBUTE)
         );
 
         for (ObjObject obj : data.objects) {
@@ -205,8 +241,6 @@ public class Models {
             ModelBuilder mb = new ModelBuilder();
             mb.begin();
 
-            MeshPartBuilder edges = mb.part(obj.name + "_edges", GL20.GL_LINES, edgeVA, material);
-
             final HashSet<Long> edgeSet = new HashSet<>();
             for (int[] chain : obj.lines) {
                 for (int i = 0; i < chain.length - 1; i++) {
@@ -214,16 +248,21 @@ public class Models {
                 }
             }
 
-            Vector3 tmp0 = new Vector3();
-            Vector3 tmp1 = new Vector3();
+            MeshPartBuilder edges = mb.part(obj.name + LOD_PART_SUFFIX[0], GL20.GL_LINES, edgeVA, material);
+            addEdges(edges, edgeSet, data.vertices, yOffset);
 
-            for (long key : edgeSet) {
-                int i0 = (int) (key >>> 32), i1 = (int) key;
-                Vector3 p0 = tmp0.set(data.vertices.get(i0)).add(0f, yOffset, 0f);
-                Vector3 p1 = tmp1.set(data.vertices.get(i1)).add(0f, yOffset, 0f);
-                short s0 = edges.vertex(new VertexInfo().setPos(p0).setCol(Color.GREEN));
-                short s1 = edges.vertex(new VertexInfo().setPos(p1).setCol(Color.GREEN));
-                edges.line(s0, s1);
+            // simplified edge sets for distant instances, see GameModelInstance.setLod
+            List<Long> merged = mergeCollinear(edgeSet, data.vertices);
+            float extent = maxExtent(edgeSet, data.vertices);
+            int previous = edgeSet.size();
+            for (int lod = 1; lod < LOD_LEVELS; lod++) {
+                List<Long> kept = dropShort(merged, data.vertices, extent * LOD_MIN_EDGE_FRACTION[lod]);
+                if (kept.size() >= previous) {
+                    continue;
+                }
+                MeshPartBuilder lodEdges = mb.part(obj.name + LOD_PART_SUFFIX[lod], GL20.GL_LINES, edgeVA, material);
+                addEdges(lodEdges, kept, data.vertices, yOffset);
+                previous = kept.size();
             }
 
             Model model = mb.end();
@@ -369,6 +408,94 @@ public class Models {
         set.add(key);
     }
 
+    private static long edgeKey(int a, int b) {
+        int i0 = Math.min(a, b);
+        int i1 = Math.max(a, b);
+        return ((long) i0 << 32) | (i1 & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Adds the edges as indexed lines; each OBJ vertex is emitted once per
+     * part however many edges share it.
+     */
+    private static void addEdges(MeshPartBuilder b, Iterable<Long> edgeKeys, List<Vector3> vertices, float yOffset) {
+        Map<Integer, Short> emitted = new HashMap<>();
+        Vector3 tmp = new Vector3();
+        for (long key : edgeKeys) {
+            int i0 = (int) (key >>> 32), i1 = (int) key;
+            short s0 = sharedVertex(b, emitted, i0, tmp.set(vertices.get(i0)).add(0f, yOffset, 0f));
+            short s1 = sharedVertex(b, emitted, i1, tmp.set(vertices.get(i1)).add(0f, yOffset, 0f));
+            b.line(s0, s1);
+        }
+    }
+
+    private static short sharedVertex(MeshPartBuilder b, Map<Integer, Short> emitted, int objIndex, Vector3 pos) {
+        Short index = emitted.get(objIndex);
+        if (index == null) {
+            index = b.vertex(pos, null, null, null);
+            emitted.put(objIndex, index);
+        }
+        return index;
+    }
+
+    /**
+     * Joins pairs of edges that meet at a vertex used by nothing else and
+     * continue in (almost) the same direction, so a chain of collinear
+     * segments becomes one edge.
+     */
+    private static List<Long> mergeCollinear(Set<Long> edgeSet, List<Vector3> vertices) {
+        Set<Long> edges = new HashSet<>(edgeSet);
+        Map<Integer, List<Integer>> adjacent = new HashMap<>();
+        for (long key : edges) {
+            int i0 = (int) (key >>> 32), i1 = (int) key;
+            adjacent.computeIfAbsent(i0, k -> new ArrayList<>()).add(i1);
+            adjacent.computeIfAbsent(i1, k -> new ArrayList<>()).add(i0);
+        }
+
+        Vector3 d0 = new Vector3();
+        Vector3 d1 = new Vector3();
+        for (Map.Entry<Integer, List<Integer>> e : adjacent.entrySet()) {
+            List<Integer> n = e.getValue();
+            if (n.size() != 2) {
+                continue;
+            }
+            int v = e.getKey(), a = n.get(0), b = n.get(1);
+            d0.set(vertices.get(v)).sub(vertices.get(a)).nor();
+            d1.set(vertices.get(b)).sub(vertices.get(v)).nor();
+            if (d0.dot(d1) < COLLINEAR_COS || a == b || edges.contains(edgeKey(a, b))) {
+                continue;
+            }
+            edges.remove(edgeKey(a, v));
+            edges.remove(edgeKey(v, b));
+            edges.add(edgeKey(a, b));
+            adjacent.get(a).set(adjacent.get(a).indexOf(v), b);
+            adjacent.get(b).set(adjacent.get(b).indexOf(v), a);
+            n.clear();
+        }
+        return new ArrayList<>(edges);
+    }
+
+    private static List<Long> dropShort(List<Long> edges, List<Vector3> vertices, float minLength) {
+        List<Long> kept = new ArrayList<>(edges.size());
+        for (long key : edges) {
+            int i0 = (int) (key >>> 32), i1 = (int) key;
+            if (vertices.get(i0).dst(vertices.get(i1)) >= minLength) {
+                kept.add(key);
+            }
+        }
+        return kept.isEmpty() ? edges : kept;
+    }
+
+    private static float maxExtent(Set<Long> edges, List<Vector3> vertices) {
+        BoundingBox b = new BoundingBox();
+        b.inf();
+        for (long key : edges) {
+            b.ext(vertices.get((int) (key >>> 32)));
+            b.ext(vertices.get((int) key));
+        }
+        return Math.max(b.getWidth(), Math.max(b.getHeight(), b.getDepth()));
+    }
+
     private static void addTube(MeshPartBuilder b, Vector3 a, Vector3 c, float radius, int divs) {
         // Build a cylinder centered on the segment, oriented along it.
         TMP_MID.set(a).add(c).scl(0.5f);
@@ -587,17 +714,4 @@ public class Models {
         {735, 277, 762, 206},
         {762, 206, 641, -103},};
 
-    public static void drawDeathCracks(ShapeRenderer sr) {
-        Gdx.gl.glLineWidth(3);
-        sr.begin(ShapeRenderer.ShapeType.Line);
-        sr.setColor(Color.GREEN);
-
-        for (float[] vert : DEATH_CRACK_LINES) {
-            sr.line(vert[0], vert[1], vert[2], vert[3]);
-        }
-
-        sr.end();
-        Gdx.gl.glLineWidth(1);
-    }
-
 }
@@ -0,0 +1,208 @@
+package bzone;
+
+import static bzone.BattleZone.PLAYER_Y;
+import com.badlogic.gdx.math.Vector3;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * Client side of a {@link MultiplayerServer}. The server owns the world; the
+ * client sends its controls once per tick, keeps the latest
+ * {@link NetSnapshot} for rendering and predicts its own tank.
+ *
+ * Controls are applied to the predicted tank as soon as they are sent, with
+ * the same {@link PlayerMotion} the server uses. When a snapshot arrives the
+ * tank is put back where the server has it and the inputs the server has not
+ * applied yet are replayed on top. Prediction only collides with the
+ * obstacles, so bumping into an enemy is corrected by the next snapshot.
+ *
+ * The join goes to the server's listening port; the welcome names the port
+ * of the channel the server keeps for this player, and the client connects
+ * to that for everything else until it leaves.
+ *
+ * Not thread safe; call everything from the thread that renders.
+ */
+public final class MultiplayerClient implements AutoCloseable {
+
+    /**
+     * Inputs kept for replay. Inputs more than this far ahead of the server
+     * are not replayed.
+     */
+    private static final int PENDING = 64;
+
+    private final InetSocketAddress server;
+    private final DatagramChannel channel;
+    private final PacketPool pool = new PacketPool(1);
+    private final GameContext.CollisionChecker obstacles;
+    private final NetSnapshot snapshot = new NetSnapshot();
+    private final SnapshotDecoder decoder = new SnapshotDecoder();
+
+    private final int[] pending = new int[PENDING];
+    private int seq;
+    private int playerId = -1;
+    private boolean full;
+
+    /**
+     * The predicted player tank.
+     */
+    public final Vector3 pos = new Vector3();
+    public final Vector3 dir = new Vector3(0, 0, -1);
+    public float headingDeg;
+    public boolean alive;
+
+    /**
+     * @param obstacles collision used for prediction, usually the
+     * {@link GameContext#collisionChecker} of a local world
+     */
+    public MultiplayerClient(InetSocketAddress server, GameContext.CollisionChecker obstacles) throws IOException {
+        this.server = server;
+        this.obstacles = obstacles;
+        this.channel = DatagramChannel.open();
+        this.channel.configureBlocking(false);
+        this.channel.connect(server);
+    }
+
+    /**
+     * Asks to join; may be repeated until {@link #playerId()} is set, in
+     * case the request or the answer was lost.
+     */
+    public void join() throws IOException {
+        sendMessage(NetProtocol.JOIN);
+    }
+
+    public void leave() throws IOException {
+        sendMessage(NetProtocol.LEAVE);
+        playerId = -1;
+        alive = false;
+        connect(server.getPort());
+    }
+
+    /**
+     * @return this client's player and entity id, or -1 before the server
+     * has welcomed it
+     */
+    public int playerId() {
+        return playerId;
+    }
+
+    /**
+     * @return true when the server turned the join down because every slot
+     * was taken
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    public NetSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Sends the {@link PlayerMotion} controls for this tick and applies them
+     * to the predicted tank. Does nothing before joining.
+     */
+    public void sendInput(int controls) throws IOException {
+        if (playerId < 0) {
+            return;
+        }
+        seq++;
+        pending[seq % PENDING] = controls;
+        if (alive) {
+            predict(controls);
+        }
+
+        ByteBuffer out = pool.acquire();
+        try {
+            NetProtocol.putInput(out, snapshot.tick, seq, snapshot.ackedSeq, pending);
+            out.flip();
+            channel.write(out);
+        } finally {
+            pool.release(out);
+        }
+    }
+
+    /**
+     * Reads every packet waiting.
+     *
+     * @return true when a newer snapshot arrived
+     */
+    public boolean poll() throws IOException {
+        boolean updated = false;
+        ByteBuffer in = pool.acquire();
+        try {
+            while (true) {
+                in.clear();
+                if (channel.read(in) <= 0) {
+                    break;
+                }
+                in.flip();
+                int type = NetProtocol.readHeader(in);
+                if (type == NetProtocol.WELCOME && in.remaining() >= 3) {
+                    playerId = in.get();
+                    full = false;
+                    connect(in.getShort() & 0xFFFF);
+                } else if (type == NetProtocol.FULL) {
+                    full = true;
+                } else if (type == NetProtocol.SNAPSHOT && decoder.decode(in, snapshot)) {
+                    updated = true;
+                }
+            }
+        } finally {
+            pool.release(in);
+        }
+        if (updated && playerId >= 0) {
+            reconcile();
+        }
+        return updated;
+    }
+
+    private void reconcile() {
+        int i = snapshot.indexOf(playerId);
+        alive = i >= 0;
+        if (!alive) {
+            return;
+        }
+        pos.set(snapshot.x[i], PLAYER_Y, snapshot.z[i]);
+        headingDeg = snapshot.yaw[i];
+        dir.set(0, 0, -1).rotate(Vector3.Y, headingDeg);
+
+        int from = Math.max(snapshot.ackedSeq + 1, seq - PENDING + 1);
+        for (int s = from; s <= seq; s++) {
+            predict(pending[s % PENDING]);
+        }
+    }
+
+    private void predict(int controls) {
+        headingDeg = PlayerMotion.turn(dir, headingDeg, controls, SimulationThread.TICK_SECONDS);
+        PlayerMotion.move(pos, dir, controls, SimulationThread.TICK_SECONDS, obstacles);
+    }
+
+    /**
+     * Points the channel at another port of the server, keeping its own.
+     */
+    private void connect(int port) throws IOException {
+        if (((InetSocketAddress) channel.getRemoteAddress()).getPort() == port) {
+            return;
+        }
+        channel.disconnect();
+        channel.connect(new InetSocketAddress(server.getAddress(), port));
+    }
+
+    private void sendMessage(int type) throws IOException {
+        ByteBuffer out = pool.acquire();
+        try {
+            NetProtocol.putHeader(out, type);
+            out.flip();
+            channel.write(out);
+        } finally {
+            pool.release(out);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
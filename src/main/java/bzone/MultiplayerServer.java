@@ -0,0 +1,281 @@
+package bzone;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Authoritative server for a {@link MultiplayerWorld}: reads client inputs
+ * from a non-blocking UDP channel, ticks the world at the fixed
+ * {@link SimulationThread#TICK_SECONDS} and sends every player a snapshot
+ * after each tick, delta-encoded against the last one it acknowledged (see
+ * {@link SnapshotEncoder}). Clients only render the snapshots and predict
+ * their own tank (see {@link MultiplayerClient}).
+ *
+ * Joins arrive on the listening channel. Each player then gets a channel of
+ * their own, connected to their address, whose port the welcome names; the
+ * client sends everything after that there. Reading a connected channel
+ * needs no sender address, where receiving on one channel shared by several
+ * clients allocates a new one whenever the sender changes, so steady-state
+ * networking allocates nothing however many players there are.
+ *
+ * A tick reads at most {@link #MAX_PACKETS_PER_PLAYER} datagrams from each
+ * player and {@link #MAX_PACKETS_PER_TICK} from the listening channel, so a
+ * flood of packets delays inputs rather than the tick, and sends one
+ * snapshot per player. Packets go through a {@link PacketPool}; everything
+ * else the server needs is sized for {@link MultiplayerWorld#MAX_PLAYERS} up
+ * front.
+ *
+ * Runs headless: {@code java -cp ... bzone.MultiplayerServer [port]}.
+ */
+public final class MultiplayerServer implements AutoCloseable {
+
+    private static final long TICK_NANOS = 1_000_000_000L / 60;
+
+    static final int MAX_PACKETS_PER_PLAYER = 8;
+    static final int MAX_PACKETS_PER_TICK = MAX_PACKETS_PER_PLAYER * MultiplayerWorld.MAX_PLAYERS;
+
+    private final MultiplayerWorld world = new MultiplayerWorld();
+    private final DatagramChannel channel;
+
+    /**
+     * Each player's own channel, by player id, or null for a free slot.
+     */
+    private final DatagramChannel[] playerChannels = new DatagramChannel[MultiplayerWorld.MAX_PLAYERS];
+    private final PacketPool pool = new PacketPool(2);
+    private volatile boolean running = true;
+
+    /**
+     * @param port UDP port to listen on, 0 for any free one
+     */
+    public MultiplayerServer(int port) throws IOException {
+        this.channel = DatagramChannel.open();
+        this.channel.configureBlocking(false);
+        this.channel.bind(new InetSocketAddress(port));
+    }
+
+    public int port() throws IOException {
+        return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+    }
+
+    public MultiplayerWorld world() {
+        return world;
+    }
+
+    /**
+     * One server tick: pending inputs, the simulation, then the snapshots.
+     */
+    public void step() throws IOException {
+        receive();
+        world.tick(SimulationThread.TICK_SECONDS);
+        closeLeftChannels();
+        sendSnapshots();
+    }
+
+    /**
+     * Steps at the fixed tick rate until {@link #close}d, catching up with
+     * back-to-back ticks when one runs late, up to
+     * {@link SimulationThread#MAX_CATCH_UP_TICKS}, before giving up on the
+     * lost time.
+     */
+    public void run() {
+        long next = System.nanoTime();
+        while (running) {
+            long now = System.nanoTime();
+            if (now < next) {
+                LockSupport.parkNanos(next - now);
+                continue;
+            }
+            if (now - next > SimulationThread.MAX_CATCH_UP_TICKS * TICK_NANOS) {
+                next = now;
+            }
+            try {
+                step();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            next += TICK_NANOS;
+        }
+    }
+
+    private void receive() throws IOException {
+        ByteBuffer in = pool.acquire();
+        try {
+            for (int i = 0; i < MAX_PACKETS_PER_TICK; i++) {
+                in.clear();
+                SocketAddress from = channel.receive(in);
+                if (from == null) {
+                    break;
+                }
+                in.flip();
+                handle(in, from);
+            }
+            for (int id = 0; id < playerChannels.length; id++) {
+                DatagramChannel own = playerChannels[id];
+                for (int i = 0; own != null && i < MAX_PACKETS_PER_PLAYER; i++) {
+                    in.clear();
+                    if (!read(own, in)) {
+                        break;
+                    }
+                    in.flip();
+                    handle(in, world.player(id));
+                }
+            }
+        } finally {
+            pool.release(in);
+        }
+    }
+
+    /**
+     * @return false when nothing is waiting, or the client has gone and the
+     * system says so; it times out like any silent player
+     */
+    private static boolean read(DatagramChannel own, ByteBuffer in) {
+        try {
+            return own.read(in) > 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * A datagram on the listening channel: a join, or a packet a client sent
+     * before the welcome moved it to its own channel.
+     */
+    private void handle(ByteBuffer in, SocketAddress from) throws IOException {
+        int type = NetProtocol.readHeader(in);
+        if (type == NetProtocol.JOIN) {
+            NetPlayer p = world.join(from);
+            ByteBuffer out = pool.acquire();
+            try {
+                if (p != null) {
+                    NetProtocol.putWelcome(out, p.id, openChannel(p));
+                } else {
+                    NetProtocol.putHeader(out, NetProtocol.FULL);
+                }
+                out.flip();
+                channel.send(out, from);
+            } finally {
+                pool.release(out);
+            }
+            return;
+        }
+
+        NetPlayer p = world.find(from);
+        if (p != null) {
+            handle(type, in, p);
+        }
+    }
+
+    /**
+     * A datagram on a player's own channel.
+     */
+    private void handle(ByteBuffer in, NetPlayer p) throws IOException {
+        int type = NetProtocol.readHeader(in);
+        if (type == NetProtocol.JOIN) {
+            // the welcome was lost; send it again where the client now is
+            p.lastHeardTick = world.tick();
+            ByteBuffer out = pool.acquire();
+            try {
+                NetProtocol.putWelcome(out, p.id, localPort(playerChannels[p.id]));
+                out.flip();
+                playerChannels[p.id].write(out);
+            } finally {
+                pool.release(out);
+            }
+            return;
+        }
+        handle(type, in, p);
+    }
+
+    private void handle(int type, ByteBuffer in, NetPlayer p) {
+        p.lastHeardTick = world.tick();
+        if (type == NetProtocol.INPUT) {
+            NetProtocol.readInput(in, p);
+        } else if (type == NetProtocol.LEAVE) {
+            world.leave(p);
+        }
+    }
+
+    /**
+     * Opens the player's own channel, connected to their address, unless
+     * they already have one.
+     *
+     * @return its port
+     */
+    private int openChannel(NetPlayer p) throws IOException {
+        DatagramChannel own = playerChannels[p.id];
+        if (own != null && p.address.equals(own.getRemoteAddress())) {
+            return localPort(own);
+        }
+        if (own != null) {
+            own.close();
+        }
+        own = DatagramChannel.open();
+        own.configureBlocking(false);
+        own.bind(new InetSocketAddress(0));
+        own.connect(p.address);
+        playerChannels[p.id] = own;
+        return localPort(own);
+    }
+
+    /**
+     * Closes the channels of players who have left or timed out.
+     */
+    private void closeLeftChannels() throws IOException {
+        for (int id = 0; id < playerChannels.length; id++) {
+            if (playerChannels[id] != null && !world.player(id).connected) {
+                playerChannels[id].close();
+                playerChannels[id] = null;
+            }
+        }
+    }
+
+    private static int localPort(DatagramChannel c) throws IOException {
+        return ((InetSocketAddress) c.getLocalAddress()).getPort();
+    }
+
+    private void sendSnapshots() throws IOException {
+        ByteBuffer out = pool.acquire();
+        try {
+            for (NetPlayer p : world.players) {
+                if (!p.connected || p.address == null) {
+                    continue;
+                }
+                out.clear();
+                p.snapshots.encode(out, world, p, p.ackedSnapshot);
+                out.flip();
+                DatagramChannel own = playerChannels[p.id];
+                if (own != null) {
+                    own.write(out);
+                }
+            }
+        } finally {
+            pool.release(out);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        for (int id = 0; id < playerChannels.length; id++) {
+            if (playerChannels[id] != null) {
+                playerChannels[id].close();
+                playerChannels[id] = null;
+            }
+        }
+        channel.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Headless.init();
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : NetProtocol.DEFAULT_PORT;
+        try (MultiplayerServer server = new MultiplayerServer(port)) {
+            System.out.println("Battle Zone server listening on UDP port " + server.port());
+            server.run();
+        }
+    }
+}
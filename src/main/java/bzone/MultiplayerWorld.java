@@ -0,0 +1,202 @@
+package bzone;
+
+import static bzone.BattleZone.PLAYER_Y;
+import static bzone.BattleZone.wrapDelta16;
+import java.net.SocketAddress;
+
+/**
+ * A {@link GameWorld} shared by several player tanks, the simulation behind
+ * {@link MultiplayerServer}.
+ *
+ * Players are cooperative: their shots hit the enemies, which are shared, and
+ * they share the score. Each has lives of their own, and one who has lost
+ * them all sits out until they join again. The enemies still see a single
+ * player, so before each tick the world's own player is moved onto the live
+ * player nearest the tank; that player is the one the enemies chase and shoot
+ * at and the one who dies when they hit. While no one is alive the world's
+ * player is down too, so the enemies hold fire and nothing they shoot can
+ * hit. Everything is sized for
+ * {@link #MAX_PLAYERS} up front, so a tick does a bounded amount of work and
+ * allocates nothing however many players come and go.
+ */
+public final class MultiplayerWorld {
+
+    public static final int MAX_PLAYERS = 16;
+
+    /**
+     * Ticks without hearing from a client before its player is dropped.
+     */
+    public static final int TIMEOUT_TICKS = 5 * 60;
+
+    public final GameWorld world;
+
+    final NetPlayer[] players = new NetPlayer[MAX_PLAYERS];
+
+    private final GameContext.CollisionChecker blocker;
+    private NetPlayer target;
+    private long tick;
+
+    public MultiplayerWorld() {
+        this.world = new GameWorld();
+        this.blocker = world::blockedAt;
+        for (int i = 0; i < MAX_PLAYERS; i++) {
+            players[i] = new NetPlayer(i);
+        }
+    }
+
+    public long tick() {
+        return tick;
+    }
+
+    public NetPlayer player(int id) {
+        return players[id];
+    }
+
+    public int playerCount() {
+        int n = 0;
+        for (NetPlayer p : players) {
+            if (p.connected) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * @return the player already joined from the address, or a new one
+     * spawning on the next tick, or null when every slot is taken
+     */
+    public NetPlayer join(SocketAddress address) {
+        NetPlayer existing = find(address);
+        if (existing != null) {
+            existing.lastHeardTick = tick;
+            return existing;
+        }
+        for (NetPlayer p : players) {
+            if (!p.connected) {
+                p.reset(address, tick);
+                return p;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Joins a player sharing the machine, as in {@link SplitScreen}, driven
+     * directly rather than over the network; it never times out.
+     *
+     * @return the new player, or null when every slot is taken
+     */
+    public NetPlayer joinLocal() {
+        for (NetPlayer p : players) {
+            if (!p.connected) {
+                p.reset(null, tick);
+                return p;
+            }
+        }
+        return null;
+    }
+
+    NetPlayer find(SocketAddress address) {
+        for (NetPlayer p : players) {
+            if (p.connected && address.equals(p.address)) {
+                return p;
+            }
+        }
+        return null;
+    }
+
+    void leave(NetPlayer p) {
+        p.connected = false;
+        p.alive = false;
+        p.projectile.active = false;
+        p.address = null;
+        if (target == p) {
+            target = null;
+        }
+    }
+
+    public void tick(float dt) {
+        tick++;
+        GameContext ctx = world.context;
+
+        for (NetPlayer p : players) {
+            if (!p.connected) {
+                continue;
+            }
+            if (p.address != null && tick - p.lastHeardTick > TIMEOUT_TICKS) {
+                leave(p);
+                continue;
+            }
+            int controls = p.nextControls();
+            if (!p.alive) {
+                if (p.lives <= 0) {
+                    continue;
+                }
+                p.respawnTimer -= dt;
+                if (p.respawnTimer <= 0f) {
+                    world.randomSpawn(p.pos);
+                    p.spawnAt(p.pos.x, p.pos.z);
+                }
+                continue;
+            }
+            p.headingDeg = PlayerMotion.turn(p.dir, p.headingDeg, controls, dt);
+            PlayerMotion.move(p.pos, p.dir, controls, dt, blocker);
+            if ((controls & PlayerMotion.FIRE) != 0) {
+                p.projectile.spawnFrom(p.pos.x, p.pos.z, p.dir, ctx);
+            }
+        }
+
+        target = nearestTo(world.tank.pos.x, world.tank.pos.z);
+        ctx.alive = target != null;
+        if (target == null) {
+            // as after a death, the enemies hold fire until spawn protection
+            // has counted up again once someone is back
+            ctx.spawnProtected = 0;
+        } else {
+            world.playerPos.set(target.pos.x, PLAYER_Y, target.pos.z);
+            world.playerDir.set(target.dir);
+            world.headingDeg = target.headingDeg;
+        }
+
+        world.update(dt);
+
+        // player shots hit-test the enemies where they have just moved to,
+        // as the local player's shot does
+        for (NetPlayer p : players) {
+            if (p.connected) {
+                p.projectile.update(ctx, world.obstacles, dt, true);
+            }
+        }
+        world.resolveEvents();
+        for (NetPlayer p : players) {
+            p.projectile.sounds.flush(world.muted);
+        }
+
+        if (target != null && !ctx.alive) {
+            target.alive = false;
+            target.lives--;
+            target.respawnTimer = GameWorld.RESPAWN_SECONDS;
+            // players respawn on their own timers, not the world's
+            world.respawnTimer = 0f;
+        }
+    }
+
+    private NetPlayer nearestTo(float x, float z) {
+        NetPlayer nearest = null;
+        float best = Float.MAX_VALUE;
+        for (NetPlayer p : players) {
+            if (!p.connected || !p.alive) {
+                continue;
+            }
+            float dx = wrapDelta16(p.pos.x - x);
+            float dz = wrapDelta16(p.pos.z - z);
+            float d2 = dx * dx + dz * dz;
+            if (d2 < best) {
+                best = d2;
+                nearest = p;
+            }
+        }
+        return nearest;
+    }
+}
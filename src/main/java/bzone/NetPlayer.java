@@ -0,0 +1,130 @@
+package bzone;
+
+import static bzone.BattleZone.PLAYER_Y;
+import bzone.Models.Mesh;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.Vector3;
+import java.net.SocketAddress;
+
+/**
+ * One player tank of a {@link MultiplayerWorld}, driven by the controls a
+ * client sends.
+ *
+ * Each input message carries the controls for one client tick. They are
+ * queued and one is applied per server tick, so the client can replay the
+ * ones the server has not applied yet on top of each snapshot and land where
+ * the server will. When the queue runs dry the last controls are held,
+ * without firing.
+ */
+public final class NetPlayer {
+
+    /**
+     * Inputs held per player; more arriving before they are applied are
+     * dropped.
+     */
+    static final int INPUT_QUEUE = 8;
+
+    /**
+     * Lives a player joins with.
+     */
+    static final int LIVES = 3;
+
+    public final int id;
+
+    SocketAddress address;
+    boolean connected;
+    long lastHeardTick;
+
+    public final Vector3 pos = new Vector3();
+    public final Vector3 dir = new Vector3(0, 0, -1);
+    public float headingDeg;
+    public boolean alive;
+    public int lives;
+    float respawnTimer;
+
+    final Projectile projectile;
+
+    private final int[] inputs = new int[INPUT_QUEUE];
+    private final int[] inputSeqs = new int[INPUT_QUEUE];
+    private int inputHead, inputCount;
+    private int controls;
+    private int lastQueuedSeq;
+
+    /**
+     * Sequence number of the last input applied, acknowledged to the client
+     * in each snapshot.
+     */
+    int appliedSeq;
+
+    final SnapshotEncoder snapshots = new SnapshotEncoder();
+
+    /**
+     * Tick of the newest snapshot the client has decoded, the baseline for
+     * the next one, or -1 for none.
+     */
+    long ackedSnapshot = -1;
+
+    NetPlayer(int id) {
+        this.id = id;
+        this.projectile = new Projectile(Models.getModelInstance(Mesh.PROJECTILE, Color.YELLOW, 1));
+    }
+
+    void reset(SocketAddress address, long tick) {
+        this.address = address;
+        this.connected = true;
+        this.lastHeardTick = tick;
+        this.dir.set(0, 0, -1);
+        this.headingDeg = 0f;
+        this.alive = false;
+        this.lives = LIVES;
+        this.respawnTimer = 0f;
+        this.projectile.active = false;
+        this.inputHead = 0;
+        this.inputCount = 0;
+        this.controls = 0;
+        this.lastQueuedSeq = 0;
+        this.appliedSeq = 0;
+        this.ackedSnapshot = -1;
+        this.snapshots.reset();
+    }
+
+    void acknowledge(long snapshotTick) {
+        if (snapshotTick > ackedSnapshot) {
+            ackedSnapshot = snapshotTick;
+        }
+    }
+
+    /**
+     * Queues the controls of one client tick. Duplicates and inputs older
+     * than the last one queued are ignored.
+     */
+    void queueInput(int seq, int controls) {
+        if (seq - lastQueuedSeq <= 0 || inputCount == INPUT_QUEUE) {
+            return;
+        }
+        int i = (inputHead + inputCount) % INPUT_QUEUE;
+        inputs[i] = controls;
+        inputSeqs[i] = seq;
+        inputCount++;
+        lastQueuedSeq = seq;
+    }
+
+    /**
+     * @return the controls to apply this tick
+     */
+    int nextControls() {
+        if (inputCount == 0) {
+            return controls & ~PlayerMotion.FIRE;
+        }
+        controls = inputs[inputHead];
+        appliedSeq = inputSeqs[inputHead];
+        inputHead = (inputHead + 1) % INPUT_QUEUE;
+        inputCount--;
+        return controls;
+    }
+
+    void spawnAt(float x, float z) {
+        pos.set(x, PLAYER_Y, z);
+        alive = true;
+    }
+}
@@ -0,0 +1,118 @@
+package bzone;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Datagram layout between {@link MultiplayerServer} and
+ * {@link MultiplayerClient}.
+ *
+ * Every packet starts with {@link #PROTOCOL} and a message type. Clients send
+ * {@link #JOIN}, {@link #INPUT} and {@link #LEAVE}; the server answers a join
+ * with {@link #WELCOME} or {@link #FULL} and sends each player a
+ * {@link #SNAPSHOT} after every tick, laid out by {@link SnapshotEncoder}.
+ * The welcome names the port of a channel the server keeps for that player
+ * alone, and the client sends everything after it there.
+ * An input message acknowledges the newest snapshot the client has and
+ * repeats the last few unacknowledged inputs, so a lost datagram costs
+ * nothing as long as one of the next few arrives.
+ *
+ * Encoding and decoding only put and get primitives on the given buffer and
+ * allocate nothing.
+ */
+public final class NetProtocol {
+
+    public static final int DEFAULT_PORT = 7780;
+
+    /**
+     * Large enough for a snapshot of every entity against no baseline, small
+     * enough not to fragment on a typical network.
+     */
+    public static final int PACKET_BYTES = 1200;
+
+    static final short PROTOCOL = 0x425A; // "BZ"
+
+    /**
+     * Protocol id and message type, ahead of every message body.
+     */
+    public static final int HEADER_BYTES = 3;
+
+    static final int JOIN = 1;
+    static final int WELCOME = 2;
+    static final int FULL = 3;
+    static final int INPUT = 4;
+    static final int SNAPSHOT = 5;
+    static final int LEAVE = 6;
+
+    /**
+     * Inputs repeated in each input message.
+     */
+    static final int REDUNDANT_INPUTS = 3;
+
+    /**
+     * Entity ids: players, then their shots, then the enemies and their shots.
+     */
+    public static final int PLAYER_SHOT = MultiplayerWorld.MAX_PLAYERS;
+    public static final int TANK = 2 * MultiplayerWorld.MAX_PLAYERS;
+    public static final int FLYER = TANK + 1;
+    public static final int MISSILE = TANK + 2;
+    public static final int SAUCER = TANK + 3;
+    public static final int TANK_SHOT = TANK + 4;
+    public static final int FLYER_SHOT = TANK + 5;
+    public static final int MAX_ENTITIES = TANK + 6;
+
+    private NetProtocol() {
+    }
+
+    static void putHeader(ByteBuffer out, int type) {
+        out.putShort(PROTOCOL).put((byte) type);
+    }
+
+    /**
+     * @return the message type, or -1 when the packet is not one of ours
+     */
+    static int readHeader(ByteBuffer in) {
+        if (in.remaining() < HEADER_BYTES || in.getShort() != PROTOCOL) {
+            return -1;
+        }
+        return in.get();
+    }
+
+    static void putWelcome(ByteBuffer out, int playerId, int port) {
+        putHeader(out, WELCOME);
+        out.put((byte) playerId);
+        out.putShort((short) port);
+    }
+
+    /**
+     * Puts up to {@link #REDUNDANT_INPUTS} inputs ending with {@code seq},
+     * oldest first, skipping any the server has already acknowledged, after
+     * the tick of the newest snapshot decoded.
+     *
+     * @param controls ring of controls indexed by sequence number
+     */
+    static void putInput(ByteBuffer out, long snapshotTick, int seq, int ackedSeq, int[] controls) {
+        int first = Math.max(seq - REDUNDANT_INPUTS + 1, ackedSeq + 1);
+        putHeader(out, INPUT);
+        out.putLong(snapshotTick);
+        out.put((byte) (seq - first + 1));
+        for (int s = first; s <= seq; s++) {
+            out.putInt(s).put((byte) controls[s % controls.length]);
+        }
+    }
+
+    /**
+     * Queues the inputs of an input message on the player and takes note of
+     * the snapshot acknowledged.
+     */
+    static void readInput(ByteBuffer in, NetPlayer player) {
+        if (in.remaining() < 9) {
+            return;
+        }
+        player.acknowledge(in.getLong());
+        int n = in.get();
+        for (int i = 0; i < n && in.remaining() >= 5; i++) {
+            int seq = in.getInt();
+            player.queueInput(seq, in.get() & 0xFF);
+        }
+    }
+}
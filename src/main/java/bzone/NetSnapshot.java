@@ -0,0 +1,39 @@
+package bzone;
+
+/**
+ * A world snapshot as a {@link MultiplayerClient} receives it: the entities
+ * in play, each as an id, a mesh and a position and yaw, plus the receiving
+ * player's acknowledged input and lives and the shared score.
+ *
+ * Decoded in place by a {@link SnapshotDecoder} into arrays sized for every
+ * entity the server can send. Positions and facings are quantised, except
+ * for the receiving player's own tank.
+ */
+public final class NetSnapshot {
+
+    public long tick = -1;
+    public int ackedSeq;
+    public int playerId = -1;
+    public int score;
+    public int lives;
+
+    public int count;
+    public final int[] id = new int[NetProtocol.MAX_ENTITIES];
+    public final int[] mesh = new int[NetProtocol.MAX_ENTITIES];
+    public final float[] x = new float[NetProtocol.MAX_ENTITIES];
+    public final float[] y = new float[NetProtocol.MAX_ENTITIES];
+    public final float[] z = new float[NetProtocol.MAX_ENTITIES];
+    public final float[] yaw = new float[NetProtocol.MAX_ENTITIES];
+
+    /**
+     * @return the index of the entity, or -1 when it is not in this snapshot
+     */
+    public int indexOf(int entityId) {
+        for (int i = 0; i < count; i++) {
+            if (id[i] == entityId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,205 @@
+package bzone;
+
+import static bzone.BattleZone.nearestWrappedPos;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.g3d.model.MeshPart;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import java.util.List;
+
+/**
+ * Hardware-instanced obstacle drawing: obstacles are grouped by mesh type and
+ * each group is one instanced draw, with the wrapped position and yaw of every
+ * visible obstacle uploaded as per-instance data. Needs a GL 3.0 context; see
+ * {@link #isSupported()}. Obstacles are always drawn at full detail here.
+ */
+public class ObstacleRenderer {
+
+    private static final String VERTEX_SHADER
+            = "#version 330\n"
+            + "in vec3 " + ShaderProgram.POSITION_ATTRIBUTE + ";\n"
+            + "in vec4 a_instance;\n" // wrapped x, y, z and yaw in radians
+            + "uniform mat4 u_projViewTrans;\n"
+            + "void main() {\n"
+            + "    float c = cos(a_instance.w);\n"
+            + "    float s = sin(a_instance.w);\n"
+            + "    vec3 p = " + ShaderProgram.POSITION_ATTRIBUTE + ";\n"
+            + "    vec3 world = vec3(c * p.x + s * p.z, p.y, -s * p.x + c * p.z) + a_instance.xyz;\n"
+            + "    gl_Position = u_projViewTrans * vec4(world, 1.0);\n"
+            + "}\n";
+
+    private static final String FRAGMENT_SHADER
+            = "#version 330\n"
+            + "uniform vec4 u_color;\n"
+            + "out vec4 fragColor;\n"
+            + "void main() {\n"
+            + "    fragColor = u_color;\n"
+            + "}\n";
+
+    private static final int FLOATS_PER_INSTANCE = 4;
+
+    private final Vector3 tmp = new Vector3();
+
+    private final ShaderProgram shader;
+    private final Mesh[] meshes;
+    private final float[][] instanceData;
+    private final int[] instanceCounts;
+
+    // per obstacle, in obstacle list order
+    private final int[] typeOf;
+    private final float[] yaw;
+
+    public static boolean isSupported() {
+        return Gdx.gl30 != null;
+    }
+
+    public ObstacleRenderer(List<GameModelInstance> obstacles) {
+        shader = new ShaderProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        if (!shader.isCompiled()) {
+            throw new IllegalStateException("obstacle shader: " + shader.getLog());
+        }
+
+        Models.Mesh[] found = new Models.Mesh[obstacles.size()];
+        GameModelInstance[] sample = new GameModelInstance[obstacles.size()];
+        int typeCount = 0;
+
+        typeOf = new int[obstacles.size()];
+        yaw = new float[obstacles.size()];
+        for (int i = 0; i < obstacles.size(); i++) {
+            GameModelInstance inst = obstacles.get(i);
+            int t = 0;
+            while (t < typeCount && found[t] != inst.mesh) {
+                t++;
+            }
+            if (t == typeCount) {
+                found[t] = inst.mesh;
+                sample[t] = inst;
+                typeCount++;
+            }
+            typeOf[i] = t;
+            float[] m = inst.transform.val;
+            yaw[i] = (float) Math.atan2(m[Matrix4.M02], m[Matrix4.M00]);
+        }
+
+        meshes = new Mesh[typeCount];
+        instanceData = new float[typeCount][];
+        instanceCounts = new int[typeCount];
+        for (int t = 0; t < typeCount; t++) {
+            meshes[t] = instancedCopy(sample[t], obstacles.size());
+            instanceData[t] = new float[obstacles.size() * FLOATS_PER_INSTANCE];
+        }
+    }
+
+    /**
+     * Copies the full-detail edges of a model into a mesh of its own with a
+     * per-instance attribute attached.
+     */
+    private static Mesh instancedCopy(GameModelInstance inst, int maxInstances) {
+        MeshPart part = inst.nodes.get(0).parts.get(0).meshPart;
+        Mesh src = part.mesh;
+
+        int stride = src.getVertexSize() / 4;
+        int offset = src.getVertexAttribute(VertexAttributes.Usage.Position).offset / 4;
+        float[] raw = new float[src.getNumVertices() * stride];
+        src.getVertices(raw);
+        float[] positions = new float[src.getNumVertices() * 3];
+        for (int v = 0; v < src.getNumVertices(); v++) {
+            System.arraycopy(raw, v * stride + offset, positions, v * 3, 3);
+        }
+
+        short[] allIndices = new short[src.getNumIndices()];
+        src.getIndices(allIndices);
+        short[] indices = new short[part.size];
+        System.arraycopy(allIndices, part.offset, indices, 0, part.size);
+
+        Mesh mesh = new Mesh(true, src.getNumVertices(), indices.length,
+                new VertexAttribute(VertexAttributes.Usage.Position, 3, ShaderProgram.POSITION_ATTRIBUTE));
+        mesh.setVertices(positions);
+        mesh.setIndices(indices);
+        mesh.enableInstancedRendering(false, maxInstances,
+                new VertexAttribute(VertexAttributes.Usage.Generic, FLOATS_PER_INSTANCE, "a_instance"));
+        return mesh;
+    }
+
+    public void render(Camera cam, List<GameModelInstance> obstacles) {
+        for (int t = 0; t < meshes.length; t++) {
+            instanceCounts[t] = 0;
+        }
+
+        for (int i = 0, n = obstacles.size(); i < n; i++) {
+            GameModelInstance inst = obstacles.get(i);
+            nearestWrappedPos(inst, cam.position.x, cam.position.z, tmp);
+            if (!Culling.isVisible(cam, inst, tmp)) {
+                continue;
+            }
+            int t = typeOf[i];
+            float[] data = instanceData[t];
+            int o = instanceCounts[t]++ * FLOATS_PER_INSTANCE;
+            data[o] = tmp.x;
+            data[o + 1] = tmp.y;
+            data[o + 2] = tmp.z;
+            data[o + 3] = yaw[i];
+            RuntimeMetrics.countDrawn();
+        }
+
+        draw(cam);
+    }
+
+    /**
+     * Draws obstacles already culled for the camera, as {@link SharedCulling}
+     * lists them: their indexes in the obstacle list and the wrapped
+     * positions, three floats each.
+     */
+    public void render(Camera cam, int[] visible, float[] positions, int count) {
+        for (int t = 0; t < meshes.length; t++) {
+            instanceCounts[t] = 0;
+        }
+
+        for (int k = 0; k < count; k++) {
+            int i = visible[k];
+            int t = typeOf[i];
+            float[] data = instanceData[t];
+            int o = instanceCounts[t]++ * FLOATS_PER_INSTANCE;
+            data[o] = positions[k * 3];
+            data[o + 1] = positions[k * 3 + 1];
+            data[o + 2] = positions[k * 3 + 2];
+            data[o + 3] = yaw[i];
+            RuntimeMetrics.countDrawn();
+        }
+
+        draw(cam);
+    }
+
+    private void draw(Camera cam) {
+        Gdx.gl.glEnable(GL20.GL_DEPTH_TEST);
+        Gdx.gl.glDepthFunc(GL20.GL_LEQUAL);
+
+        shader.bind();
+        shader.setUniformMatrix("u_projViewTrans", cam.combined);
+        shader.setUniformf("u_color", Color.GREEN);
+        for (int t = 0; t < meshes.length; t++) {
+            if (instanceCounts[t] == 0) {
+                continue;
+            }
+            meshes[t].setInstanceData(instanceData[t], 0, instanceCounts[t] * FLOATS_PER_INSTANCE);
+            meshes[t].render(shader, GL20.GL_LINES);
+            RuntimeMetrics.countLineDraw();
+        }
+
+        Gdx.gl.glDisable(GL20.GL_DEPTH_TEST);
+    }
+
+    public void dispose() {
+        for (Mesh m : meshes) {
+            m.dispose();
+        }
+        shader.dispose();
+    }
+}
@@ -0,0 +1,39 @@
+package bzone;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Direct buffers of {@link NetProtocol#PACKET_BYTES} for sending and
+ * receiving datagrams, allocated once and recycled so no packet allocates.
+ *
+ * Not thread safe: each pool belongs to the thread doing the networking.
+ */
+public final class PacketPool {
+
+    private final ByteBuffer[] free;
+    private int count;
+
+    public PacketPool(int buffers) {
+        this.free = new ByteBuffer[buffers];
+        for (int i = 0; i < buffers; i++) {
+            free[i] = ByteBuffer.allocateDirect(NetProtocol.PACKET_BYTES);
+        }
+        this.count = buffers;
+    }
+
+    /**
+     * @return a cleared buffer, to be given back with {@link #release}
+     */
+    public ByteBuffer acquire() {
+        if (count == 0) {
+            throw new IllegalStateException("All " + free.length + " packet buffers are in use");
+        }
+        ByteBuffer b = free[--count];
+        b.clear();
+        return b;
+    }
+
+    public void release(ByteBuffer b) {
+        free[count++] = b;
+    }
+}
@@ -0,0 +1,56 @@
+package bzone;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event emitted each time an enemy picks a new movement plan.
+ */
+@Name("bzone.PlanChange")
+@Label("Enemy Plan Change")
+@Category("Battle Zone")
+@StackTrace(false)
+public class PlanChangeEvent extends Event {
+
+    static final EventType TYPE = EventType.getEventType(PlanChangeEvent.class);
+
+    @Label("Enemy")
+    String enemy;
+
+    @Label("Plan")
+    String plan;
+
+    @Label("Reversing")
+    boolean reversing;
+
+    @Label("Facing")
+    int facing;
+
+    @Label("Turn To")
+    int turnTo;
+
+    @Label("Move Counter")
+    int moveCounter;
+
+    @Label("Frame Number")
+    long frame;
+
+    static void emit(BaseTank tank, String plan, long frame) {
+        if (!TYPE.isEnabled()) {
+            return;
+        }
+        PlanChangeEvent e = new PlanChangeEvent();
+        e.enemy = tank.getClass().getSimpleName();
+        e.plan = plan;
+        e.reversing = (tank.reverseFlags & 0x01) != 0;
+        e.facing = tank.facing;
+        e.turnTo = tank.turnTo;
+        e.moveCounter = tank.moveCounter;
+        e.frame = frame;
+        e.commit();
+    }
+}
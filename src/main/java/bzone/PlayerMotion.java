@@ -0,0 +1,82 @@
+package bzone;
+
+import static bzone.BattleZone.wrap16f;
+import static bzone.GameWorld.MOVE_SPEED;
+import static bzone.GameWorld.YAW_SPEED_DEG;
+import com.badlogic.gdx.math.Vector3;
+
+/**
+ * How a player tank turns and drives, shared by the local player, the
+ * multiplayer server and the client-side prediction so all three move a tank
+ * the same way for the same controls.
+ *
+ * Controls are packed as bits so they can be sent and queued as one int.
+ */
+public final class PlayerMotion {
+
+    public static final int TURN_LEFT = 1;
+    public static final int TURN_RIGHT = 2;
+    public static final int FORWARD = 4;
+    public static final int BACKWARD = 8;
+    public static final int FIRE = 16;
+
+    /**
+     * Results of {@link #move}.
+     */
+    static final int STILL = 0;
+    static final int MOVED = 1;
+    static final int BLOCKED = 2;
+
+    private PlayerMotion() {
+    }
+
+    /**
+     * Rotates the direction for the turn controls.
+     *
+     * @return the new heading
+     */
+    static float turn(Vector3 dir, float headingDeg, int controls, float dt) {
+        float yaw = 0f;
+        if ((controls & TURN_LEFT) != 0) {
+            yaw += YAW_SPEED_DEG * dt;
+        }
+        if ((controls & TURN_RIGHT) != 0) {
+            yaw -= YAW_SPEED_DEG * dt;
+        }
+        if (yaw != 0f) {
+            dir.rotate(Vector3.Y, yaw);
+            headingDeg = (headingDeg + yaw) % 360f;
+        }
+        return headingDeg;
+    }
+
+    /**
+     * Drives along the direction for the move controls, unless the new
+     * position is blocked.
+     *
+     * @return {@link #STILL}, {@link #MOVED} or {@link #BLOCKED}
+     */
+    static int move(Vector3 pos, Vector3 dir, int controls, float dt, GameContext.CollisionChecker blocked) {
+        float move = 0f;
+        if ((controls & FORWARD) != 0) {
+            move += MOVE_SPEED * dt;
+        }
+        if ((controls & BACKWARD) != 0) {
+            move -= MOVE_SPEED * dt;
+        }
+        if (move == 0f) {
+            return STILL;
+        }
+
+        float len2 = dir.x * dir.x + dir.z * dir.z;
+        float scale = len2 == 0f || len2 == 1f ? move : move / (float) Math.sqrt(len2);
+        float nx = wrap16f(pos.x + dir.x * scale);
+        float nz = wrap16f(pos.z + dir.z * scale);
+        if (blocked.collides(nx, nz)) {
+            return BLOCKED;
+        }
+        pos.x = nx;
+        pos.z = nz;
+        return MOVED;
+    }
+}
@@ -0,0 +1,78 @@
+package bzone;
+
+import static bzone.BattleZone.to16;
+import static bzone.BattleZone.wrapDelta16;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector3;
+
+/**
+ * Wrapped offset, distance and bearing from one entity to the player.
+ *
+ * Each entity owns one of these. {@link #update} is cheap when neither the
+ * entity nor the player has moved since the last call, so the AI, radar and
+ * rendering can all ask for it within a tick and share one computation.
+ * Distance and bearing are only worked out when first asked for.
+ */
+public final class PlayerRelative {
+
+    private float x = Float.NaN, z, playerX, playerZ;
+
+    /**
+     * Player minus entity, in 16-bit world units wrapped to the nearest image.
+     */
+    private float dx16, dz16;
+
+    private float distance;
+    private int bearing;
+    private boolean distanceValid, bearingValid;
+
+    public PlayerRelative update(float x, float z, float playerX, float playerZ) {
+        if (x == this.x && z == this.z && playerX == this.playerX && playerZ == this.playerZ) {
+            return this;
+        }
+        this.x = x;
+        this.z = z;
+        this.playerX = playerX;
+        this.playerZ = playerZ;
+        dx16 = wrapDelta16(to16(playerX) - to16(x));
+        dz16 = wrapDelta16(to16(playerZ) - to16(z));
+        distanceValid = false;
+        bearingValid = false;
+        return this;
+    }
+
+    public float dx16() {
+        return dx16;
+    }
+
+    public float dz16() {
+        return dz16;
+    }
+
+    /**
+     * The entity's wrapped image nearest the player, at height {@code y}.
+     */
+    public Vector3 nearestImage(float y, Vector3 out) {
+        return out.set(playerX - dx16, y, playerZ - dz16);
+    }
+
+    public float distance() {
+        if (!distanceValid) {
+            distance = (float) Math.sqrt(dx16 * dx16 + dz16 * dz16);
+            distanceValid = true;
+        }
+        return distance;
+    }
+
+    /**
+     * Direction to the player in 256 angle steps, +Z being "north".
+     */
+    public int bearing() {
+        if (!bearingValid) {
+            float a = MathUtils.atan2(dx16, dz16);
+            bearing = ((int) Math.round((a / MathUtils.PI2) * BaseTank.ANGLE_STEPS)) & 0xFF;
+            bearingValid = true;
+        }
+        return bearing;
+    }
+}
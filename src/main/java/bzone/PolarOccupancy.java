@@ -0,0 +1,174 @@
+package bzone;
+
+import static bzone.BattleZone.to16;
+import static bzone.BattleZone.wrapDelta16;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The world around the player binned into a polar grid, as the {@link Radar}
+ * sees it: bearing sectors relative to the player's heading by range rings,
+ * with one layer each for obstacles, enemies and projectiles. Offsets use the
+ * radar's wrapped 16-bit deltas and 256-step bearings.
+ *
+ * Each cell counts what is in it. The grid is kept up to date rather than
+ * rebuilt: every tracked object remembers its cell, and an update moves only
+ * the objects whose cell has changed from one count to the other. Objects
+ * that have not moved keep their cell without any work while the player
+ * stands still; once the player moves or turns every bearing changes, so all
+ * are re-binned, still touching the grid only where a cell changed.
+ *
+ * {@link #grid} is laid out layer by layer, ring by ring, sector by sector,
+ * in a direct buffer of native byte order that is the same for the life of
+ * the encoder, so native inference code can read it in place without a
+ * copy. Updating allocates nothing.
+ */
+public final class PolarOccupancy {
+
+    public static final int OBSTACLES = 0;
+    public static final int ENEMIES = 1;
+    public static final int SHOTS = 2;
+    public static final int LAYERS = 3;
+
+    private static final int TANK = 0, FLYER = 1, MISSILE = 2, SAUCER = 3,
+            PLAYER_SHOT = 4, TANK_SHOT = 5, FLYER_SHOT = 6;
+    private static final int MOVING = 7;
+
+    public final int sectors;
+    public final int rings;
+    public final float range;
+
+    /**
+     * Counts by layer, ring and sector. Sector 0 is centred on the heading
+     * and they follow the bearing from +Z towards +X; ring 0 is nearest.
+     */
+    public final FloatBuffer grid;
+
+    private final int[] cell;
+    private final boolean[] present;
+    private final float[] lastX, lastZ;
+    private final int obstacleCount;
+
+    private float playerX = Float.NaN, playerZ;
+    private int playerHeading8;
+
+    /**
+     * @param sectors bearing sectors, up to 256
+     * @param rings range rings, evenly spaced
+     * @param range distance covered by the outer ring, in world units;
+     * anything further away is left out
+     */
+    public PolarOccupancy(int sectors, int rings, float range) {
+        this.sectors = sectors;
+        this.rings = rings;
+        this.range = range;
+        this.grid = ByteBuffer.allocateDirect(LAYERS * rings * sectors * Float.BYTES)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+        this.obstacleCount = GameWorld.OBSTACLE_COUNT;
+        this.cell = new int[MOVING + obstacleCount];
+        this.present = new boolean[MOVING + obstacleCount];
+        this.lastX = new float[MOVING + obstacleCount];
+        this.lastZ = new float[MOVING + obstacleCount];
+        Arrays.fill(cell, -1);
+    }
+
+    /**
+     * A grid reaching as far as the radar does, across the whole world.
+     */
+    public PolarOccupancy(int sectors, int rings) {
+        this(sectors, rings, Radar.RADAR_RANGE_UNITS);
+    }
+
+    public float at(int layer, int ring, int sector) {
+        return grid.get((layer * rings + ring) * sectors + sector);
+    }
+
+    /**
+     * Brings the grid up to the world as it is after its last tick.
+     */
+    public void update(GameWorld world) {
+        float px = to16(world.playerPos.x);
+        float pz = to16(world.playerPos.z);
+        int heading8 = Radar.angle256(world.playerDir.x * 32767f, world.playerDir.z * 32767f);
+        boolean moved = px != playerX || pz != playerZ || heading8 != playerHeading8;
+        playerX = px;
+        playerZ = pz;
+        playerHeading8 = heading8;
+
+        track(TANK, ENEMIES, world.tank.alive, world.tank.pos.x, world.tank.pos.z, moved);
+        track(FLYER, ENEMIES, world.flyer.alive, world.flyer.pos.x, world.flyer.pos.z, moved);
+        track(MISSILE, ENEMIES, world.missile.active, world.missile.pos.x, world.missile.pos.z, moved);
+        track(SAUCER, ENEMIES, world.saucer.active, world.saucer.pos.x, world.saucer.pos.z, moved);
+        track(PLAYER_SHOT, world.playerProjectile, moved);
+        track(TANK_SHOT, world.tankProjectile, moved);
+        track(FLYER_SHOT, world.flyerProjectile, moved);
+
+        if (moved) {
+            List<GameModelInstance> obstacles = world.obstacles;
+            for (int i = 0; i < obstacleCount; i++) {
+                GameModelInstance inst = obstacles.get(i);
+                track(MOVING + i, OBSTACLES, true, inst.initialPos.x, inst.initialPos.z, true);
+            }
+        }
+    }
+
+    /**
+     * Empties the grid, for a world that has been restarted or replaced.
+     */
+    public void clear() {
+        for (int i = 0, n = grid.capacity(); i < n; i++) {
+            grid.put(i, 0f);
+        }
+        Arrays.fill(cell, -1);
+        Arrays.fill(present, false);
+        playerX = Float.NaN;
+    }
+
+    private void track(int object, Projectile p, boolean moved) {
+        track(object, SHOTS, p.active, p.inst.getX(), p.inst.getZ(), moved);
+    }
+
+    private void track(int object, int layer, boolean there, float x, float z, boolean moved) {
+        if (!moved && there == present[object] && x == lastX[object] && z == lastZ[object]) {
+            return;
+        }
+        present[object] = there;
+        lastX[object] = x;
+        lastZ[object] = z;
+
+        int next = there ? cellOf(layer, x, z) : -1;
+        int prev = cell[object];
+        if (next == prev) {
+            return;
+        }
+        if (prev >= 0) {
+            grid.put(prev, grid.get(prev) - 1f);
+        }
+        if (next >= 0) {
+            grid.put(next, grid.get(next) + 1f);
+        }
+        cell[object] = next;
+    }
+
+    /**
+     * @return the grid index the position falls in, or -1 when out of range
+     */
+    private int cellOf(int layer, float x, float z) {
+        float dx16 = wrapDelta16(to16(x) - playerX);
+        float dz16 = wrapDelta16(to16(z) - playerZ);
+        float dist = (float) Math.sqrt(dx16 * dx16 + dz16 * dz16);
+        if (dist >= range) {
+            return -1;
+        }
+        int ring = (int) (dist * rings / range);
+
+        int rel8 = (Radar.angle256(dx16, dz16) - playerHeading8) & 0xFF;
+        // centre sector 0 on the heading
+        int sector = ((rel8 * sectors + 128) >> 8) % sectors;
+
+        return (layer * rings + ring) * sectors + sector;
+    }
+}
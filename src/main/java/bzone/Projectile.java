@@ -4,6 +4,7 @@ import static bzone.BattleZone.PLAYER_Y;
 import static bzone.BattleZone.wrap16f;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector3;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 public class Projectile {
@@ -20,6 +21,12 @@ public class Projectile {
     private float x, z;
     private float dx, dz;
 
+    /**
+     * Fire and hit sounds, played by the world once the tick's updates are
+     * done.
+     */
+    final SoundQueue sounds = new SoundQueue();
+
     public Projectile(GameModelInstance inst) {
         this.inst = inst;
     }
@@ -45,7 +52,7 @@ public class Projectile {
         active = true;
 
         applyTransform();
-        Sounds.play(Sounds.Effect.FIRE);
+        sounds.play(Sounds.Effect.FIRE);
     }
 
     public void spawnFromPlayer(GameContext ctx) {
@@ -59,6 +66,20 @@ public class Projectile {
         spawn(wrap16f(ctx.playerX), wrap16f(ctx.playerZ), yawRad);
     }
 
+    /**
+     * Fires from a tank other than the context's player, such as a networked
+     * player in {@link MultiplayerWorld}.
+     */
+    void spawnFrom(float px, float pz, Vector3 dir, GameContext ctx) {
+        if (active) {
+            return;
+        }
+
+        ctx.inactivityCount = 0;
+
+        spawn(wrap16f(px), wrap16f(pz), MathUtils.atan2(dir.x, dir.z));
+    }
+
     public void spawnFromTank(BaseTank tank, GameContext ctx) {
         if (active) {
             return;
@@ -92,23 +113,42 @@ public class Projectile {
         applyTransform();
 
         if (ctx.hitsObstacle.hits(x, z)) {
+            ctx.events.push(GameEvents.OBSTACLE_HIT, GameEvents.NONE, x, z);
             kill(null);
             return;
         }
 
-        if (fromPlayer && ctx.hitsEnemy.hits(x, z)) {
+        int enemy = fromPlayer ? ctx.enemyAt.find(x, z) : GameEvents.NONE;
+        if (enemy != GameEvents.NONE) {
+            ctx.events.push(GameEvents.ENEMY_HIT, enemy, x, z);
             kill(Sounds.Effect.EXPLOSION);
             return;
         }
 
         if (!fromPlayer && hitsPlayer(ctx, x, z, PLAYER_HIT_RADIUS)) {
             kill(Sounds.Effect.EXPLOSION);
-            ctx.playerSpawn.spawn();
+            ctx.events.push(GameEvents.PLAYER_HIT);
             return;
         }
 
     }
 
+    void writeState(ByteBuffer out) {
+        QuickSave.putBoolean(out, active);
+        out.putFloat(timeToLive).putFloat(x).putFloat(z).putFloat(dx).putFloat(dz);
+        QuickSave.putMatrix(out, inst.transform);
+    }
+
+    void readState(ByteBuffer in) {
+        active = QuickSave.getBoolean(in);
+        timeToLive = in.getFloat();
+        x = in.getFloat();
+        z = in.getFloat();
+        dx = in.getFloat();
+        dz = in.getFloat();
+        QuickSave.getMatrix(in, inst.transform);
+    }
+
     private static boolean hitsPlayer(GameContext ctx, float projX, float projZ, float radius) {
         float dx = projX - ctx.playerX;
         float dz = projZ - ctx.playerZ;
@@ -124,7 +164,7 @@ public class Projectile {
     private void kill(Sounds.Effect sfx) {
         active = false;
         if (sfx != null) {
-            Sounds.play(sfx);
+            sounds.play(sfx);
         }
     }
 }
@@ -1,8 +1,6 @@
 package bzone;
 
-import static bzone.BattleZone.to16;
-import static bzone.BattleZone.wrapDelta16;
-import com.badlogic.gdx.math.MathUtils;
+import java.nio.ByteBuffer;
 
 /**
  * Prowler — mobile tank with a “prowl/orbit → dart in/out” behavior adapted
@@ -30,17 +28,29 @@ public class Prowler extends BaseTank {
     private enum Plan {
         ORBIT, CHARGE, BREAK, STRAFE, HOLD
     }
+    private static final Plan[] PLANS = Plan.values();
     private Plan plan = Plan.ORBIT;
-    private int orbitDir = MathUtils.randomBoolean() ? +1 : -1;   // +left or -right in step-space
+    private int orbitDir = randomBoolean() ? +1 : -1;   // +left or -right in step-space
 
     public Prowler(GameModelInstance tankModel, Projectile projectile) {
         super(tankModel, null, projectile);
-        this.facing = MathUtils.random(0, ANGLE_STEPS - 1);
+        this.facing = random(0, ANGLE_STEPS - 1);
         this.radarFacing = this.facing;
         this.turnTo = this.facing;
         this.moveCounter = 1; // trigger immediate plan selection on first update
     }
 
+    @Override
+    protected void writeTankState(ByteBuffer out) {
+        out.putInt(plan.ordinal()).putInt(orbitDir);
+    }
+
+    @Override
+    protected void readTankState(ByteBuffer in) {
+        plan = PLANS[in.getInt()];
+        orbitDir = in.getInt();
+    }
+
     @Override
     protected void updateTank(GameContext ctx, float dt) {
 
@@ -72,6 +82,7 @@ public class Prowler extends BaseTank {
         // Re-plan when the current heading timer expires
         if (this.moveCounter == 0) {
             chooseProwlerPlan(ctx);
+            planChanged(ctx, plan.name());
         }
 
         // Turn toward the current heading
@@ -102,9 +113,7 @@ public class Prowler extends BaseTank {
         tryShootPlayer(ctx);
 
         // Distance-gated forward motion with a prowler bias: moves more often
-        float dx16 = wrapDelta16(to16(ctx.playerX) - to16(this.pos.x));
-        float dz16 = wrapDelta16(to16(ctx.playerZ) - to16(this.pos.z));
-        float dist = (float) Math.sqrt(dx16 * dx16 + dz16 * dz16);
+        float dist = distanceToPlayer(ctx);
 
         boolean advance;
         switch (plan) {
@@ -132,23 +141,21 @@ public class Prowler extends BaseTank {
 
         // Occasionally perform a reverse like the base tank
         if ((ctx.nmiCount & 7L) == 0L) {
-            this.reverseFlags |= 0x01 | (MathUtils.randomBoolean() ? 0x02 : 0x00);
+            this.reverseFlags |= 0x01 | (randomBoolean() ? 0x02 : 0x00);
             this.moveCounter = REVERSE_TIME_FRAMES + RJIT;
             return;
         }
 
         int angToPlayer = calcAngleToPlayer(ctx);
 
-        float dx16 = wrapDelta16(to16(ctx.playerX) - to16(this.pos.x));
-        float dz16 = wrapDelta16(to16(ctx.playerZ) - to16(this.pos.z));
-        float dist = (float) Math.sqrt(dx16 * dx16 + dz16 * dz16);
+        float dist = distanceToPlayer(ctx);
 
         // Flip orbit side now and then
         if ((ctx.nmiCount & 0x1FL) == 0L) {
             orbitDir = -orbitDir;
         }
 
-        int roll = MathUtils.random(0, 255);
+        int roll = random(0, 255);
 
         if (dist > RAD_FAR) {
             // Very far: mostly charge, sometimes strafe to avoid long straight lines
@@ -177,9 +184,9 @@ public class Prowler extends BaseTank {
         // Around the preferred radius: orbit with micro-wobble, mixed with strafes
         if (roll < 160) {
             plan = Plan.ORBIT;
-            int wobble = MathUtils.random(0, MICRO_WOBBLE_MAX);
+            int wobble = random(0, MICRO_WOBBLE_MAX);
             int base = u8(angToPlayer + orbitDir * STRAFE_90_STEPS);
-            boolean neg = MathUtils.randomBoolean();
+            boolean neg = randomBoolean();
             this.turnTo = u8(neg ? base - wobble : base + wobble);
             this.moveCounter = NEW_HEADING_FRAMES + JIT;
         } else if (roll < 208) {
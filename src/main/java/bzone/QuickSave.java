@@ -0,0 +1,162 @@
+package bzone;
+
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Quick save slot holding the full state of a {@link GameWorld} in a
+ * memory-mapped file.
+ *
+ * The file is mapped once when the slot is opened, so saving and loading
+ * only copy primitives in and out of the mapping and allocate nothing. The
+ * layout is a header (magic, format version, payload length) followed by the
+ * fields of the world in the order {@link GameWorld#writeState} puts them.
+ * Any change to that order must bump {@link #VERSION}. A load checks the
+ * payload length against what the file held when it was opened, so a
+ * truncated save is refused rather than read past its end. The world's own
+ * state is kept aside while a save is read into it and put back if the save
+ * turns out not to fit the layout, so a bad save leaves the game as it was.
+ *
+ * Saves and loads must run on the thread that ticks the world, between ticks.
+ */
+public final class QuickSave implements AutoCloseable {
+
+    static final int MAGIC = 0x425A5356; // "BZSV"
+    static final int VERSION = 3;
+
+    private static final int HEADER_BYTES = 12;
+    private static final int SIZE = 16 * 1024;
+
+    /**
+     * Room left for the world state after the header.
+     */
+    static final int MAX_STATE_BYTES = SIZE - HEADER_BYTES;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    /**
+     * The loading world's state from before the load, put back if the save
+     * cannot be read.
+     */
+    private final ByteBuffer backup = ByteBuffer.allocateDirect(MAX_STATE_BYTES);
+
+    /**
+     * Bytes of the file that hold a save, the file's size when opened until
+     * the first save; mapping the slot zero-fills the file up to its size.
+     */
+    private long savedBytes;
+
+    public QuickSave(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.savedBytes = channel.size();
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, SIZE);
+    }
+
+    /**
+     * @throws IOException when the world's state does not fit in
+     * {@link #MAX_STATE_BYTES}; the slot is left empty
+     */
+    public void save(GameWorld world) throws IOException {
+        buffer.clear();
+        buffer.position(HEADER_BYTES);
+        try {
+            world.writeState(buffer);
+        } catch (BufferOverflowException e) {
+            buffer.putInt(0, 0);
+            buffer.force();
+            savedBytes = 0;
+            throw new IOException("World state does not fit in the " + MAX_STATE_BYTES + " bytes of a quick save", e);
+        }
+        int length = buffer.position() - HEADER_BYTES;
+
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, length);
+        buffer.force();
+        savedBytes = HEADER_BYTES + length;
+    }
+
+    /**
+     * @return false when the slot holds no save yet
+     * @throws IOException when the save was written by another format version,
+     * is shorter than its header says or does not hold a world's state; the
+     * world is left as it was
+     */
+    public boolean load(GameWorld world) throws IOException {
+        if (buffer.getInt(0) != MAGIC) {
+            return false;
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported quick save version " + version + ", expected " + VERSION);
+        }
+        int length = buffer.getInt(8);
+        if (length < 0 || length > MAX_STATE_BYTES || HEADER_BYTES + length > savedBytes) {
+            throw new IOException("Truncated quick save: " + length + " bytes of state in a " + savedBytes + " byte file");
+        }
+        buffer.clear();
+        buffer.position(HEADER_BYTES);
+        buffer.limit(HEADER_BYTES + length);
+
+        backup.clear();
+        world.writeState(backup);
+        try {
+            world.readState(buffer);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            restore(world);
+            throw new IOException("Quick save holds " + length + " bytes that are not a world's state", e);
+        }
+        if (buffer.hasRemaining()) {
+            restore(world);
+            throw new IOException("Quick save holds " + length + " bytes, more than a world's state");
+        }
+        return true;
+    }
+
+    private void restore(GameWorld world) {
+        backup.flip();
+        world.readState(backup);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    static void putBoolean(ByteBuffer out, boolean v) {
+        out.put(v ? (byte) 1 : (byte) 0);
+    }
+
+    static boolean getBoolean(ByteBuffer in) {
+        return in.get() != 0;
+    }
+
+    static void putVector(ByteBuffer out, Vector3 v) {
+        out.putFloat(v.x).putFloat(v.y).putFloat(v.z);
+    }
+
+    static void getVector(ByteBuffer in, Vector3 v) {
+        v.set(in.getFloat(), in.getFloat(), in.getFloat());
+    }
+
+    static void putMatrix(ByteBuffer out, Matrix4 m) {
+        for (int i = 0; i < 16; i++) {
+            out.putFloat(m.val[i]);
+        }
+    }
+
+    static void getMatrix(ByteBuffer in, Matrix4 m) {
+        for (int i = 0; i < 16; i++) {
+            m.val[i] = in.getFloat();
+        }
+    }
+}
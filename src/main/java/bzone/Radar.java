@@ -5,11 +5,9 @@ import static bzone.BattleZone.SCREEN_WIDTH;
 import static bzone.BattleZone.WORLD_WRAP_HALF_16BIT;
 import static bzone.BattleZone.to16;
 import static bzone.BattleZone.wrapDelta16;
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 
 import com.badlogic.gdx.graphics.PerspectiveCamera;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.MathUtils;
 import java.util.List;
 
@@ -18,7 +16,7 @@ public class Radar {
     private static final float SWEEP_REV_PER_SEC = 1f / 3f;
     private static final float STEPS_PER_SEC = 256f * SWEEP_REV_PER_SEC;
 
-    private static final float RADAR_RANGE_UNITS = WORLD_WRAP_HALF_16BIT * 1.41421356f; //SQRT2
+    static final float RADAR_RANGE_UNITS = WORLD_WRAP_HALF_16BIT * 1.41421356f; //SQRT2
     private static final float RADAR_CX = SCREEN_WIDTH / 2f;
     private static final float RADAR_CY = SCREEN_HEIGHT - 110f;
     private static final float RADAR_RADIUS = 100;
@@ -26,24 +24,84 @@ public class Radar {
     private boolean topLatched = false;       // prevents repeats while we're inside the window
     private float sweep256 = 0f;
 
-    public void drawRadar2D(PerspectiveCamera cam, ShapeRenderer sr, BaseTank tank, Missile missile,
+    public void drawRadar2D(PerspectiveCamera cam, VectorBatch vb, BaseTank tank, Missile missile,
             Saucer saucer, BaseTank flyer, List<GameModelInstance> obstacles, float dt) {
 
+        int playerHeading8 = drawScope(cam, vb, obstacles, dt);
+
+        // enemies share the offset the AI already worked out this tick; the
+        // bearing from the player is the reverse of the one to it
+        if (tank.alive) {
+            PlayerRelative toPlayer = tank.toPlayer(cam.position.x, cam.position.z);
+            drawBlip(vb, (toPlayer.bearing() + 128) & 0xFF, toPlayer.distance(), playerHeading8, 1f, 0f, 0f, 0.65f);
+            if (topLatched) {
+                Sounds.play(Sounds.Effect.RADAR);
+            }
+        }
+
+        if (missile.active) {
+            PlayerRelative toPlayer = missile.toPlayer(cam.position.x, cam.position.z);
+            drawBlip(vb, (toPlayer.bearing() + 128) & 0xFF, toPlayer.distance(), playerHeading8, 1f, 1f, 0f, 0.65f);
+        }
+
+        if (saucer.active) {
+            drawBlip(vb, cam, saucer.pos.x, saucer.pos.z, playerHeading8, 0f, 1f, 1f, 0.65f);
+        }
+
+        if (flyer.alive) {
+            PlayerRelative toPlayer = flyer.toPlayer(cam.position.x, cam.position.z);
+            drawBlip(vb, (toPlayer.bearing() + 128) & 0xFF, toPlayer.distance(), playerHeading8,
+                    Color.ORANGE.r, Color.ORANGE.g, Color.ORANGE.b, Color.ORANGE.a);
+        }
+    }
+
+    /**
+     * Same radar, drawn from a published snapshot when the simulation runs
+     * on its own thread.
+     */
+    public void drawRadar2D(PerspectiveCamera cam, VectorBatch vb, RenderSnapshot snapshot,
+            List<GameModelInstance> obstacles, float dt) {
+
+        int playerHeading8 = drawScope(cam, vb, obstacles, dt);
+
+        if (snapshot.blipActive[RenderSnapshot.BLIP_TANK]) {
+            drawBlip(vb, cam, snapshot.blipX[RenderSnapshot.BLIP_TANK], snapshot.blipZ[RenderSnapshot.BLIP_TANK],
+                    playerHeading8, 1f, 0f, 0f, 0.65f);
+            if (topLatched) {
+                Sounds.play(Sounds.Effect.RADAR);
+            }
+        }
+        if (snapshot.blipActive[RenderSnapshot.BLIP_MISSILE]) {
+            drawBlip(vb, cam, snapshot.blipX[RenderSnapshot.BLIP_MISSILE], snapshot.blipZ[RenderSnapshot.BLIP_MISSILE],
+                    playerHeading8, 1f, 1f, 0f, 0.65f);
+        }
+        if (snapshot.blipActive[RenderSnapshot.BLIP_SAUCER]) {
+            drawBlip(vb, cam, snapshot.blipX[RenderSnapshot.BLIP_SAUCER], snapshot.blipZ[RenderSnapshot.BLIP_SAUCER],
+                    playerHeading8, 0f, 1f, 1f, 0.65f);
+        }
+        if (snapshot.blipActive[RenderSnapshot.BLIP_FLYER]) {
+            drawBlip(vb, cam, snapshot.blipX[RenderSnapshot.BLIP_FLYER], snapshot.blipZ[RenderSnapshot.BLIP_FLYER],
+                    playerHeading8, Color.ORANGE.r, Color.ORANGE.g, Color.ORANGE.b, Color.ORANGE.a);
+        }
+    }
+
+    /**
+     * Draws the scope, sweep and obstacle dots.
+     *
+     * @return the player heading in 256 angle steps
+     */
+    private int drawScope(PerspectiveCamera cam, VectorBatch vb, List<GameModelInstance> obstacles, float dt) {
         if (dt > 0.1f) {
             dt = 0.1f;
         }
 
-        sr.begin(ShapeRenderer.ShapeType.Filled);
-        sr.setColor(0.05f, 0.05f, 0.05f, 0.75f);
-        sr.circle(RADAR_CX, RADAR_CY, RADAR_RADIUS);
-        sr.end();
+        vb.setColor(0.05f, 0.05f, 0.05f, 0.75f);
+        vb.disc(RADAR_CX, RADAR_CY, RADAR_RADIUS);
 
-        Gdx.gl.glLineWidth(2);
-        sr.begin(ShapeRenderer.ShapeType.Line);
-        sr.setColor(Color.RED);
-        sr.circle(RADAR_CX, RADAR_CY, RADAR_RADIUS);
-        sr.end();
-        Gdx.gl.glLineWidth(1);
+        vb.setLineWidth(2);
+        vb.setColor(Color.RED);
+        vb.circle(RADAR_CX, RADAR_CY, RADAR_RADIUS);
+        vb.setLineWidth(1);
 
         sweep256 = (sweep256 + STEPS_PER_SEC * dt) % 256f;
         int sweep8 = ((int) sweep256) & 0xFF;
@@ -53,17 +111,14 @@ public class Radar {
                 (int) Math.round(cam.direction.z * 32767f));
         int sweepRel8 = (sweep8 - playerHeading8) & 0xFF;
 
-        sr.begin(ShapeRenderer.ShapeType.Line);
-        sr.setColor(Color.RED);
+        vb.setColor(Color.RED);
 
         // draw sweep line
         float a = (sweepRel8 / 256f) * MathUtils.PI2;
         float cs = MathUtils.cos(a), sn = MathUtils.sin(a);
         float ex = RADAR_CX - sn * RADAR_RADIUS;
         float ey = RADAR_CY + cs * RADAR_RADIUS;
-        sr.line(RADAR_CX, RADAR_CY, ex, ey);
-
-        sr.end();
+        vb.line(RADAR_CX, RADAR_CY, ex, ey);
 
         if (atTop(sweepRel8)) {
             if (!topLatched) {
@@ -73,9 +128,8 @@ public class Radar {
             topLatched = false;
         }
 
-        sr.begin(ShapeRenderer.ShapeType.Filled);
-
-        for (GameModelInstance inst : obstacles) {
+        for (int i = 0, n = obstacles.size(); i < n; i++) {
+            GameModelInstance inst = obstacles.get(i);
             float dx16 = wrapDelta16(to16(inst.initialPos.x) - to16(cam.position.x));
             float dz16 = wrapDelta16(to16(inst.initialPos.z) - to16(cam.position.z));
 
@@ -91,90 +145,37 @@ public class Radar {
             float px = RADAR_CX - sb * r;
             float py = RADAR_CY + cb * r;
 
-            sr.setColor(0.2f, 0.2f, 0.2f, 0.55f);
-            sr.circle(px, py, 1);
-        }
-
-        if (tank.alive) {
-            float edx16 = wrapDelta16(to16(tank.pos.x) - to16(cam.position.x));
-            float edz16 = wrapDelta16(to16(tank.pos.z) - to16(cam.position.z));
-            int enemyBearing8 = angle256(edx16, edz16);
-            int rel8 = (enemyBearing8 - playerHeading8) & 0xFF;
-
-            float dist = (float) Math.sqrt((float) edx16 * edx16 + (float) edz16 * edz16);
-            float t = MathUtils.clamp(dist / RADAR_RANGE_UNITS, 0f, 1f);
-            float mid = t * RADAR_RADIUS;
-
-            float th = (rel8 / 256f) * MathUtils.PI2;
-            float cb = MathUtils.cos(th), sb = MathUtils.sin(th);
-            float px = RADAR_CX - sb * mid;
-            float py = RADAR_CY + cb * mid;
-            sr.setColor(1f, 0f, 0f, 0.65f);
-            sr.circle(px, py, 2);
-
-            if (topLatched) {
-                Sounds.play(Sounds.Effect.RADAR);
-            }
-        }
-
-        if (missile.active) {
-            float edx16 = wrapDelta16(to16(missile.pos.x) - to16(cam.position.x));
-            float edz16 = wrapDelta16(to16(missile.pos.z) - to16(cam.position.z));
-            int enemyBearing8 = angle256(edx16, edz16);
-            int rel8 = (enemyBearing8 - playerHeading8) & 0xFF;
-
-            float dist = (float) Math.sqrt((float) edx16 * edx16 + (float) edz16 * edz16);
-            float t = MathUtils.clamp(dist / RADAR_RANGE_UNITS, 0f, 1f);
-            float mid = t * RADAR_RADIUS;
-
-            float th = (rel8 / 256f) * MathUtils.PI2;
-            float cb = MathUtils.cos(th), sb = MathUtils.sin(th);
-            float px = RADAR_CX - sb * mid;
-            float py = RADAR_CY + cb * mid;
-            sr.setColor(1f, 1f, 0f, 0.65f);
-            sr.circle(px, py, 2);
+            vb.setColor(0.2f, 0.2f, 0.2f, 0.55f);
+            vb.disc(px, py, 1);
         }
 
-        if (saucer.active) {
-            float edx16 = wrapDelta16(to16(saucer.pos.x) - to16(cam.position.x));
-            float edz16 = wrapDelta16(to16(saucer.pos.z) - to16(cam.position.z));
-            int enemyBearing8 = angle256(edx16, edz16);
-            int rel8 = (enemyBearing8 - playerHeading8) & 0xFF;
+        return playerHeading8;
+    }
 
-            float dist = (float) Math.sqrt((float) edx16 * edx16 + (float) edz16 * edz16);
-            float t = MathUtils.clamp(dist / RADAR_RANGE_UNITS, 0f, 1f);
-            float mid = t * RADAR_RADIUS;
-
-            float th = (rel8 / 256f) * MathUtils.PI2;
-            float cb = MathUtils.cos(th), sb = MathUtils.sin(th);
-            float px = RADAR_CX - sb * mid;
-            float py = RADAR_CY + cb * mid;
-            sr.setColor(0f, 1f, 1f, 0.65f);
-            sr.circle(px, py, 2);
-        }
+    private void drawBlip(VectorBatch vb, PerspectiveCamera cam, float x, float z, int playerHeading8,
+            float r, float g, float b, float a) {
+        float edx16 = wrapDelta16(to16(x) - to16(cam.position.x));
+        float edz16 = wrapDelta16(to16(z) - to16(cam.position.z));
+        float dist = (float) Math.sqrt(edx16 * edx16 + edz16 * edz16);
+        drawBlip(vb, angle256(edx16, edz16), dist, playerHeading8, r, g, b, a);
+    }
 
-        if (flyer.alive) {
-            float edx16 = wrapDelta16(to16(flyer.pos.x) - to16(cam.position.x));
-            float edz16 = wrapDelta16(to16(flyer.pos.z) - to16(cam.position.z));
-            int enemyBearing8 = angle256(edx16, edz16);
-            int rel8 = (enemyBearing8 - playerHeading8) & 0xFF;
+    private void drawBlip(VectorBatch vb, int enemyBearing8, float dist, int playerHeading8,
+            float r, float g, float b, float a) {
+        int rel8 = (enemyBearing8 - playerHeading8) & 0xFF;
 
-            float dist = (float) Math.sqrt((float) edx16 * edx16 + (float) edz16 * edz16);
-            float t = MathUtils.clamp(dist / RADAR_RANGE_UNITS, 0f, 1f);
-            float mid = t * RADAR_RADIUS;
-
-            float th = (rel8 / 256f) * MathUtils.PI2;
-            float cb = MathUtils.cos(th), sb = MathUtils.sin(th);
-            float px = RADAR_CX - sb * mid;
-            float py = RADAR_CY + cb * mid;
-            sr.setColor(Color.ORANGE);
-            sr.circle(px, py, 2);
-        }
+        float t = MathUtils.clamp(dist / RADAR_RANGE_UNITS, 0f, 1f);
+        float mid = t * RADAR_RADIUS;
 
-        sr.end();
+        float th = (rel8 / 256f) * MathUtils.PI2;
+        float cb = MathUtils.cos(th), sb = MathUtils.sin(th);
+        float px = RADAR_CX - sb * mid;
+        float py = RADAR_CY + cb * mid;
+        vb.setColor(r, g, b, a);
+        vb.disc(px, py, 2);
     }
 
-    private static int angle256(float dx, float dz) {
+    static int angle256(float dx, float dz) {
         float ang = MathUtils.atan2(dx, dz); // 0 = +Z
         return Math.round((ang / MathUtils.PI2) * 256f) & 0xFF;
     }
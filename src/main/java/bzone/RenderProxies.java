@@ -0,0 +1,46 @@
+package bzone;
+
+import static bzone.BattleZone.nearestWrappedPos;
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.g3d.ModelBatch;
+import com.badlogic.gdx.math.Vector3;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * GL thread side of the {@link RenderSnapshot} proxies.
+ *
+ * Each simulation instance seen in a snapshot gets one render-only copy
+ * sharing its model, made the first time it shows up. The proxy transform is
+ * copied into it and culling, level of detail and the camera-relative
+ * position are applied to the copy, so the simulation's own matrices are never
+ * touched by rendering.
+ */
+public final class RenderProxies {
+
+    private final Map<GameModelInstance, GameModelInstance> copies = new IdentityHashMap<>();
+    private final Vector3 tmp = new Vector3();
+
+    public void render(Camera cam, RenderSnapshot snapshot, ModelBatch batch) {
+        for (int i = 0; i < snapshot.proxyCount; i++) {
+            GameModelInstance inst = copyOf(snapshot.proxySource[i]);
+            System.arraycopy(snapshot.proxyTransform, i * 16, inst.transform.val, 0, 16);
+
+            nearestWrappedPos(inst, cam.position.x, cam.position.z, tmp);
+            if (Culling.isVisible(cam, inst, tmp)) {
+                inst.transform.setTranslation(tmp);
+                batch.render(inst);
+                RuntimeMetrics.countDrawn();
+            }
+        }
+    }
+
+    private GameModelInstance copyOf(GameModelInstance source) {
+        GameModelInstance copy = copies.get(source);
+        if (copy == null) {
+            copy = new GameModelInstance(source.mesh, source.model);
+            copies.put(source, copy);
+        }
+        return copy;
+    }
+}
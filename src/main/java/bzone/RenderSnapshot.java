@@ -0,0 +1,116 @@
+package bzone;
+
+import com.badlogic.gdx.math.Vector3;
+
+/**
+ * Everything the GL thread needs to draw one simulation tick, copied out of a
+ * {@link GameWorld} by {@link #capture} so rendering never reads the live
+ * world.
+ *
+ * Each drawable entity becomes a render proxy: the instance it was copied
+ * from, used only as an identity key, and its full transform. A full matrix
+ * rather than position and yaw because explosion debris spins about arbitrary
+ * axes. Colour comes with the model. Snapshots are pooled by
+ * {@link SnapshotBuffer} and nothing allocates once they exist.
+ */
+public final class RenderSnapshot {
+
+    public static final int BLIP_TANK = 0;
+    public static final int BLIP_MISSILE = 1;
+    public static final int BLIP_SAUCER = 2;
+    public static final int BLIP_FLYER = 3;
+
+    static final int MAX_PROXIES = 32;
+
+    public final Vector3 playerPos = new Vector3();
+    public final Vector3 playerDir = new Vector3(0, 0, -1);
+    public float heading;
+
+    public long tick;
+    public int lives;
+    public boolean alive;
+    public int playerScore;
+
+    public int liveEnemies, activeProjectiles, explosionPieces;
+
+    int proxyCount;
+    final GameModelInstance[] proxySource = new GameModelInstance[MAX_PROXIES];
+    final float[] proxyTransform = new float[MAX_PROXIES * 16];
+
+    final boolean[] blipActive = new boolean[4];
+    final float[] blipX = new float[4];
+    final float[] blipZ = new float[4];
+
+    int spatterCount;
+    final float[] spatter = new float[Spatter.COUNT * 3];
+
+    /**
+     * Copies the state of the world after its last tick. Must be called on the
+     * thread that ticks the world.
+     */
+    public void capture(GameWorld world) {
+        GameContext ctx = world.context;
+
+        playerPos.set(world.playerPos);
+        playerDir.set(world.playerDir);
+        heading = world.heading();
+
+        tick = ctx.nmiCount;
+        lives = ctx.lives;
+        alive = ctx.alive;
+        playerScore = ctx.playerScore;
+
+        liveEnemies = world.liveEnemies();
+        activeProjectiles = world.activeProjectiles();
+        explosionPieces = world.explosion.activePieces();
+
+        proxyCount = 0;
+        if (world.tankProjectile.active) {
+            addProxy(world.tankProjectile.inst);
+        }
+        if (world.flyerProjectile.active) {
+            addProxy(world.flyerProjectile.inst);
+        }
+        if (world.playerProjectile.active) {
+            addProxy(world.playerProjectile.inst);
+        }
+        if (world.tank.alive) {
+            addProxy(world.tank.inst);
+            if (world.tank.radar != null && !ctx.isSuperTank()) {
+                addProxy(world.tank.radar);
+            }
+        }
+        if (world.flyer.alive) {
+            addProxy(world.flyer.inst);
+        }
+        if (world.missile.active) {
+            addProxy(world.missile.inst);
+        }
+        if (world.saucer.active) {
+            addProxy(world.saucer.inst);
+        }
+        world.explosion.capture(this);
+
+        setBlip(BLIP_TANK, world.tank.alive, world.tank.pos);
+        setBlip(BLIP_MISSILE, world.missile.active, world.missile.pos);
+        setBlip(BLIP_SAUCER, world.saucer.active, world.saucer.pos);
+        setBlip(BLIP_FLYER, world.flyer.alive, world.flyer.pos);
+
+        spatterCount = world.spatter.capture(spatter);
+    }
+
+    void addProxy(GameModelInstance inst) {
+        if (proxyCount == MAX_PROXIES) {
+            return;
+        }
+        proxySource[proxyCount] = inst;
+        System.arraycopy(inst.transform.val, 0, proxyTransform, proxyCount * 16, 16);
+        proxyCount++;
+    }
+
+    private void setBlip(int blip, boolean active, Vector3 pos) {
+        blipActive[blip] = active;
+        blipX[blip] = pos.x;
+        blipZ[blip] = pos.z;
+    }
+}
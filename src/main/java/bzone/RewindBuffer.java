@@ -0,0 +1,175 @@
+package bzone;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Debug recorder keeping the last few seconds of a {@link GameWorld} so they
+ * can be scrubbed backward and forward.
+ *
+ * After each tick the world state is written in the {@link QuickSave} layout
+ * and stored either as a full keyframe, every {@code keyframeInterval} ticks,
+ * or as the words that differ from the last keyframe. Seeking to a tick
+ * therefore costs one keyframe copy plus one delta, whatever the distance.
+ * A tick whose delta would not fit its slot becomes a keyframe instead.
+ *
+ * Everything is allocated up front; recording and seeking allocate nothing.
+ * Both must run on the thread that ticks the world, between ticks.
+ */
+public final class RewindBuffer {
+
+    private static final int STATE_WORDS = QuickSave.MAX_STATE_BYTES / 4;
+
+    /**
+     * Room for one delta, as (word index, value) pairs: a quarter of the
+     * state changing since the last keyframe.
+     */
+    private static final int DELTA_INTS = STATE_WORDS / 2;
+
+    private final int capacity;
+    private final int keyframeInterval;
+
+    private final ByteBuffer scratch = ByteBuffer.allocate(STATE_WORDS * 4);
+
+    private final int[][] keyframes;
+    private final long[] keyframeTick;
+    private int keyframeCount;
+    private int lastKeyframe = -1;
+
+    private final int[][] deltas;
+    private final int[] deltaLength;
+    private final long[] slotTick;
+    private final int[] slotKeyframe;
+    private final long[] slotKeyframeTick;
+    private final int[] slotWords;
+
+    private long newest = -1;
+    private int recorded;
+
+    /**
+     * @param capacity ticks kept
+     * @param keyframeInterval ticks between full keyframes
+     */
+    public RewindBuffer(int capacity, int keyframeInterval) {
+        this.capacity = capacity;
+        this.keyframeInterval = keyframeInterval;
+
+        int keys = capacity / keyframeInterval + 2;
+        this.keyframes = new int[keys][STATE_WORDS];
+        this.keyframeTick = new long[keys];
+        Arrays.fill(keyframeTick, -1);
+
+        this.deltas = new int[capacity][DELTA_INTS];
+        this.deltaLength = new int[capacity];
+        this.slotTick = new long[capacity];
+        Arrays.fill(slotTick, -1);
+        this.slotKeyframe = new int[capacity];
+        this.slotKeyframeTick = new long[capacity];
+        this.slotWords = new int[capacity];
+    }
+
+    /**
+     * Records the world as it is after its last tick. Recording a tick at or
+     * before the newest one, after seeking back, drops everything later.
+     */
+    public void record(GameWorld world) {
+        long tick = world.context.nmiCount;
+
+        scratch.clear();
+        world.writeState(scratch);
+        int words = (scratch.position() + 3) / 4;
+        while (scratch.position() < words * 4) {
+            scratch.put((byte) 0);
+        }
+
+        int slot = (int) (tick % capacity);
+        boolean keyframeDue = lastKeyframe < 0
+                || keyframeTick[lastKeyframe] > tick
+                || tick - keyframeTick[lastKeyframe] >= keyframeInterval;
+
+        int n = 0;
+        if (!keyframeDue) {
+            int[] key = keyframes[lastKeyframe];
+            int[] delta = deltas[slot];
+            for (int w = 0; w < words; w++) {
+                int v = scratch.getInt(w * 4);
+                if (v != key[w]) {
+                    if (n == DELTA_INTS) {
+                        keyframeDue = true;
+                        break;
+                    }
+                    delta[n++] = w;
+                    delta[n++] = v;
+                }
+            }
+        }
+
+        if (keyframeDue) {
+            int k = keyframeCount++ % keyframes.length;
+            int[] key = keyframes[k];
+            for (int w = 0; w < words; w++) {
+                key[w] = scratch.getInt(w * 4);
+            }
+            keyframeTick[k] = tick;
+            lastKeyframe = k;
+            n = 0;
+        }
+
+        slotTick[slot] = tick;
+        slotKeyframe[slot] = lastKeyframe;
+        slotKeyframeTick[slot] = keyframeTick[lastKeyframe];
+        slotWords[slot] = words;
+        deltaLength[slot] = n;
+
+        if (tick <= newest) {
+            long oldest = oldestTick();
+            recorded = tick >= oldest ? (int) (tick - oldest + 1) : 1;
+        } else {
+            recorded = Math.min(capacity, recorded + 1);
+        }
+        newest = tick;
+    }
+
+    public long newestTick() {
+        return newest;
+    }
+
+    /**
+     * Oldest tick still held, or -1 when nothing is recorded. Ticks whose
+     * keyframe has been recycled may still fail to {@link #seek}.
+     */
+    public long oldestTick() {
+        return recorded == 0 ? -1 : newest - recorded + 1;
+    }
+
+    /**
+     * Puts the world back to the state recorded after the given tick.
+     *
+     * @return false, leaving the world untouched, when that tick is no longer
+     * held
+     */
+    public boolean seek(GameWorld world, long tick) {
+        if (recorded == 0 || tick > newest || tick < oldestTick()) {
+            return false;
+        }
+        int slot = (int) (tick % capacity);
+        int k = slotKeyframe[slot];
+        if (slotTick[slot] != tick || keyframeTick[k] != slotKeyframeTick[slot]) {
+            return false;
+        }
+
+        int[] key = keyframes[k];
+        int words = slotWords[slot];
+        for (int w = 0; w < words; w++) {
+            scratch.putInt(w * 4, key[w]);
+        }
+        int[] delta = deltas[slot];
+        for (int i = 0, n = deltaLength[slot]; i < n; i += 2) {
+            scratch.putInt(delta[i] * 4, delta[i + 1]);
+        }
+
+        scratch.clear();
+        world.readState(scratch);
+        return true;
+    }
+}
@@ -0,0 +1,266 @@
+package bzone;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Live runtime counters for the game loop.
+ *
+ * The render thread bumps the per-frame counters through the static helpers
+ * and closes each frame with {@link #endFrame}, which publishes the totals to
+ * volatile fields read by the JMX thread. Counts that come from the
+ * simulation, which may run on a thread of its own, are kept in adders:
+ * ticks, counted with {@link #countTick} by whichever thread ticks the world,
+ * and collision queries. Frame times are kept in a ring of
+ * the last {@value #FRAME_SAMPLES} frames; percentiles are only computed when
+ * a JMX client asks for them.
+ */
+public final class RuntimeMetrics implements RuntimeMetricsMBean {
+
+    public static final RuntimeMetrics INSTANCE = new RuntimeMetrics();
+
+    private static final String OBJECT_NAME = "bzone:type=RuntimeMetrics";
+    private static final int FRAME_SAMPLES = 1024;
+    private static final long ONE_SECOND_NANOS = 1_000_000_000L;
+
+    private final float[] frameMillis = new float[FRAME_SAMPLES];
+    private int frameIndex;
+
+    private final com.sun.management.ThreadMXBean threads;
+    private final boolean allocSupported;
+
+    // written by the render thread during a frame
+    private int tested, drawn, culled, vectorFlushes, lineDraws;
+    private long frameStartNanos, frameStartAlloc;
+    private long secondStartNanos;
+    private int framesThisSecond;
+    private long ticksAtSecondStart;
+
+    // added to by the simulation, from any thread
+    private final LongAdder collisionQueries = new LongAdder();
+    private final LongAdder ticks = new LongAdder();
+
+    // added to by the audio thread
+    private final LongAdder audioUnderruns = new LongAdder();
+
+    // published at the end of each frame
+    private volatile int lastTested, lastDrawn, lastCulled, lastCollisionQueries, lastVectorFlushes, lastLineDraws;
+    private volatile int liveEnemies, activeProjectiles, explosionPieces;
+    private volatile int ticksPerSecond, framesPerSecond;
+    private volatile long allocatedBytes;
+    private volatile long frameCount;
+
+    private RuntimeMetrics() {
+        java.lang.management.ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        if (mx instanceof com.sun.management.ThreadMXBean) {
+            this.threads = (com.sun.management.ThreadMXBean) mx;
+            this.allocSupported = threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled();
+        } else {
+            this.threads = null;
+            this.allocSupported = false;
+        }
+    }
+
+    public static void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    public static void countTested() {
+        INSTANCE.tested++;
+    }
+
+    public static void countDrawn() {
+        INSTANCE.drawn++;
+    }
+
+    public static void countCulled() {
+        INSTANCE.culled++;
+    }
+
+    public static void countCollisionQueries(int n) {
+        INSTANCE.collisionQueries.add(n);
+    }
+
+    /**
+     * Counts one tick of the world, on the thread that ran it.
+     */
+    public static void countTick() {
+        INSTANCE.ticks.increment();
+    }
+
+    public static void countVectorFlush() {
+        INSTANCE.vectorFlushes++;
+    }
+
+    public static void countLineDraw() {
+        INSTANCE.lineDraws++;
+    }
+
+    public static void countAudioUnderrun() {
+        INSTANCE.audioUnderruns.increment();
+    }
+
+    public void beginFrame() {
+        frameStartNanos = System.nanoTime();
+        if (secondStartNanos == 0L) {
+            // the first second starts with the first frame
+            secondStartNanos = frameStartNanos;
+            ticksAtSecondStart = ticks.sum();
+        }
+        frameStartAlloc = allocatedByThisThread();
+        tested = 0;
+        drawn = 0;
+        culled = 0;
+        vectorFlushes = 0;
+        lineDraws = 0;
+    }
+
+    public void endFrame(int enemies, int projectiles, int pieces) {
+        long now = System.nanoTime();
+
+        frameMillis[frameIndex] = (now - frameStartNanos) / 1_000_000f;
+        frameIndex = (frameIndex + 1) % FRAME_SAMPLES;
+
+        lastTested = tested;
+        lastDrawn = drawn;
+        lastCulled = culled;
+        // every query since the last frame ended, whichever thread made it
+        lastCollisionQueries = (int) collisionQueries.sumThenReset();
+        lastVectorFlushes = vectorFlushes;
+        lastLineDraws = lineDraws;
+        liveEnemies = enemies;
+        activeProjectiles = projectiles;
+        explosionPieces = pieces;
+        allocatedBytes = allocatedByThisThread() - frameStartAlloc;
+        frameCount++;
+
+        framesThisSecond++;
+        if (now - secondStartNanos >= ONE_SECOND_NANOS) {
+            long ticksNow = ticks.sum();
+            ticksPerSecond = (int) (ticksNow - ticksAtSecondStart);
+            framesPerSecond = framesThisSecond;
+            ticksAtSecondStart = ticksNow;
+            framesThisSecond = 0;
+            secondStartNanos = now;
+        }
+    }
+
+    private long allocatedByThisThread() {
+        if (!allocSupported) {
+            return 0L;
+        }
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private float percentile(float p) {
+        long n = Math.min(frameCount, FRAME_SAMPLES);
+        if (n == 0) {
+            return 0f;
+        }
+        float[] sorted = Arrays.copyOf(frameMillis, (int) n);
+        Arrays.sort(sorted);
+        int idx = (int) Math.ceil(p * n) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, idx))];
+    }
+
+    @Override
+    public float getFrameTimeP50Millis() {
+        return percentile(0.50f);
+    }
+
+    @Override
+    public float getFrameTimeP95Millis() {
+        return percentile(0.95f);
+    }
+
+    @Override
+    public float getFrameTimeP99Millis() {
+        return percentile(0.99f);
+    }
+
+    @Override
+    public float getFrameTimeMaxMillis() {
+        return percentile(1f);
+    }
+
+    @Override
+    public int getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    @Override
+    public int getFramesPerSecond() {
+        return framesPerSecond;
+    }
+
+    @Override
+    public int getLiveEnemies() {
+        return liveEnemies;
+    }
+
+    @Override
+    public int getActiveProjectiles() {
+        return activeProjectiles;
+    }
+
+    @Override
+    public int getExplosionPieces() {
+        return explosionPieces;
+    }
+
+    @Override
+    public int getTestedInstances() {
+        return lastTested;
+    }
+
+    @Override
+    public int getDrawnInstances() {
+        return lastDrawn;
+    }
+
+    @Override
+    public int getCulledInstances() {
+        return lastCulled;
+    }
+
+    @Override
+    public int getCollisionQueriesPerFrame() {
+        return lastCollisionQueries;
+    }
+
+    @Override
+    public int getVectorFlushesPerFrame() {
+        return lastVectorFlushes;
+    }
+
+    @Override
+    public int getLineDrawCallsPerFrame() {
+        return lastLineDraws;
+    }
+
+    @Override
+    public long getAudioUnderruns() {
+        return audioUnderruns.sum();
+    }
+
+    @Override
+    public long getAllocatedBytesPerFrame() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public long getFrameCount() {
+        return frameCount;
+    }
+}
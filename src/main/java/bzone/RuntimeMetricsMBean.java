@@ -0,0 +1,45 @@
+package bzone;
+
+/**
+ * JMX view of {@link RuntimeMetrics}, registered as
+ * {@code bzone:type=RuntimeMetrics} so cabinet deployments can be watched with
+ * jconsole / VisualVM.
+ */
+public interface RuntimeMetricsMBean {
+
+    float getFrameTimeP50Millis();
+
+    float getFrameTimeP95Millis();
+
+    float getFrameTimeP99Millis();
+
+    float getFrameTimeMaxMillis();
+
+    int getTicksPerSecond();
+
+    int getFramesPerSecond();
+
+    int getLiveEnemies();
+
+    int getActiveProjectiles();
+
+    int getExplosionPieces();
+
+    int getTestedInstances();
+
+    int getDrawnInstances();
+
+    int getCulledInstances();
+
+    int getCollisionQueriesPerFrame();
+
+    int getVectorFlushesPerFrame();
+
+    int getLineDrawCallsPerFrame();
+
+    long getAudioUnderruns();
+
+    long getAllocatedBytesPerFrame();
+
+    long getFrameCount();
+}
@@ -2,7 +2,7 @@ package bzone;
 
 import static bzone.BattleZone.to16;
 import static bzone.BattleZone.wrapDelta16;
-import com.badlogic.gdx.math.MathUtils;
+import java.nio.ByteBuffer;
 
 public class SandSled extends BaseTank {
 
@@ -12,7 +12,7 @@ public class SandSled extends BaseTank {
     private static final int WIDE_OFFSET_STEPS_MAX = 24;    // ~33.75°
     private static final int PIVOT_135_STEPS = 96;    // 135°
 
-    private int serpSign = MathUtils.randomBoolean() ? +1 : -1;
+    private int serpSign = randomBoolean() ? +1 : -1;
     private int serpOffset = 8;     // steps around the base heading
     private int serpTick = 0;       // frames until next flip of serpSign
     private int serpPeriod = 3;     // how long the current serpSign lasts
@@ -21,16 +21,33 @@ public class SandSled extends BaseTank {
     private enum Plan {
         SERPENTINE, CHARGE, AIM, WANDER, SPECIAL
     }
+    private static final Plan[] PLANS = Plan.values();
     private Plan plan = Plan.SERPENTINE;
 
     public SandSled(GameModelInstance model, Projectile projectile) {
         super(model, null, projectile);
-        this.facing = MathUtils.random(0, ANGLE_STEPS - 1);
+        this.facing = random(0, ANGLE_STEPS - 1);
         this.radarFacing = this.facing;
         this.turnTo = this.facing;
         this.moveCounter = 1; // trigger immediate plan choice
     }
 
+    @Override
+    protected void writeTankState(ByteBuffer out) {
+        out.putInt(serpSign).putInt(serpOffset).putInt(serpTick).putInt(serpPeriod).putInt(serpDuration);
+        out.putInt(plan.ordinal());
+    }
+
+    @Override
+    protected void readTankState(ByteBuffer in) {
+        serpSign = in.getInt();
+        serpOffset = in.getInt();
+        serpTick = in.getInt();
+        serpPeriod = in.getInt();
+        serpDuration = in.getInt();
+        plan = PLANS[in.getInt()];
+    }
+
     @Override
     protected void updateTank(GameContext ctx, float dt) {
 
@@ -61,6 +78,7 @@ public class SandSled extends BaseTank {
 
         if (this.moveCounter == 0) {
             choosePlan(ctx, dist, angToPlayer);
+            planChanged(ctx, plan.name());
         }
 
         switch (plan) {
@@ -69,8 +87,8 @@ public class SandSled extends BaseTank {
                 if (serpTick <= 0) {
                     serpSign = -serpSign;
                     serpTick = serpPeriod;
-                    serpOffset = MathUtils.random(6, WIDE_OFFSET_STEPS_MAX);
-                    serpPeriod = MathUtils.random(2, 5);
+                    serpOffset = random(6, WIDE_OFFSET_STEPS_MAX);
+                    serpPeriod = random(2, 5);
                 } else {
                     serpTick--;
                 }
@@ -112,12 +130,12 @@ public class SandSled extends BaseTank {
         int RJIT = (int) ((ctx.nmiCount >> 1) & 0x03L);
 
         if ((ctx.nmiCount & 0x1FL) == 0L) {
-            this.reverseFlags |= 0x01 | (MathUtils.randomBoolean() ? 0x02 : 0x00);
+            this.reverseFlags |= 0x01 | (randomBoolean() ? 0x02 : 0x00);
             this.moveCounter = REVERSE_TIME_FRAMES + RJIT;
             return;
         }
 
-        int roll = MathUtils.random(0, 255);
+        int roll = random(0, 255);
 
         if (dist > 12000f) {
             if (roll < 208) {
@@ -125,7 +143,7 @@ public class SandSled extends BaseTank {
                 this.turnTo = angToPlayer;
             } else {
                 plan = Plan.SERPENTINE;
-                serpDuration = NEW_HEADING_FRAMES + JIT + MathUtils.random(8, 20);
+                serpDuration = NEW_HEADING_FRAMES + JIT + random(8, 20);
             }
             this.moveCounter = NEW_HEADING_FRAMES + JIT;
             return;
@@ -135,10 +153,10 @@ public class SandSled extends BaseTank {
             if (roll < 176) {
                 plan = Plan.AIM;
                 this.turnTo = angToPlayer;
-                this.moveCounter = MathUtils.random(14, 40) + JIT;
+                this.moveCounter = random(14, 40) + JIT;
             } else {
                 plan = Plan.SPECIAL;
-                boolean left = MathUtils.randomBoolean();
+                boolean left = randomBoolean();
                 this.turnTo = u8(angToPlayer + (left ? -PIVOT_135_STEPS : +PIVOT_135_STEPS));
                 this.moveCounter = NEW_HEADING_FRAMES + (JIT << 1);
             }
@@ -147,17 +165,17 @@ public class SandSled extends BaseTank {
 
         if (roll < 160) {
             plan = Plan.SERPENTINE;
-            serpDuration = NEW_HEADING_FRAMES + MathUtils.random(8, 24) + JIT;
+            serpDuration = NEW_HEADING_FRAMES + random(8, 24) + JIT;
             this.moveCounter = serpDuration;
         } else if (roll < 212) {
             plan = Plan.WANDER;
-            int off = MathUtils.random(0, MICRO_OFFSET_STEPS_MAX);
-            this.turnTo = u8(this.facing + (MathUtils.randomBoolean() ? +off : -off));
+            int off = random(0, MICRO_OFFSET_STEPS_MAX);
+            this.turnTo = u8(this.facing + (randomBoolean() ? +off : -off));
             this.moveCounter = NEW_HEADING_FRAMES + JIT;
         } else {
             plan = Plan.AIM;
             this.turnTo = angToPlayer;
-            this.moveCounter = MathUtils.random(10, 20) + JIT;
+            this.moveCounter = random(10, 20) + JIT;
         }
     }
 
@@ -4,11 +4,12 @@ import static bzone.BattleZone.nearestWrappedPos;
 import static bzone.BattleZone.to16;
 import static bzone.BattleZone.wrapDelta16;
 import com.badlogic.gdx.graphics.Camera;
-import com.badlogic.gdx.graphics.g3d.Environment;
 import com.badlogic.gdx.graphics.g3d.ModelBatch;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.RandomXS128;
 import com.badlogic.gdx.math.Vector3;
+import java.nio.ByteBuffer;
 
 public class Saucer {
 
@@ -29,6 +30,13 @@ public class Saucer {
     private final Vector3 vel = new Vector3();
     private float spawnCooldown = 0f;
 
+    /**
+     * The saucer's own random number stream and sounds, so it can update in
+     * parallel with the tanks.
+     */
+    final RandomXS128 random = new RandomXS128(MathUtils.random.nextLong());
+    final SoundQueue sounds = new SoundQueue();
+
     private static final Vector3 TMP1 = new Vector3();
 
     public Saucer(GameModelInstance inst) {
@@ -40,12 +48,12 @@ public class Saucer {
         active = true;
         rotTimer = 0f;
         rollNewCourse();
-        Sounds.play(Sounds.Effect.SAUCER_ACTIVE);
+        sounds.play(Sounds.Effect.SAUCER_ACTIVE);
     }
 
     public void kill() {
         active = false;
-        Sounds.Effect.SAUCER_ACTIVE.sound().stop();
+        sounds.stop(Sounds.Effect.SAUCER_ACTIVE);
     }
 
     public void update(GameContext ctx, float dt) {
@@ -81,12 +89,16 @@ public class Saucer {
     }
 
     private void rollNewCourse() {
-        courseTimer = MathUtils.random(COURSE_MIN_SECONDS, COURSE_MAX_SECONDS);
-        float sx = MathUtils.random(SPEED_MIN, SPEED_MAX) * MathUtils.randomSign();
-        float sz = MathUtils.random(SPEED_MIN, SPEED_MAX) * MathUtils.randomSign();
+        courseTimer = COURSE_MIN_SECONDS + random.nextFloat() * (COURSE_MAX_SECONDS - COURSE_MIN_SECONDS);
+        float sx = (SPEED_MIN + random.nextFloat() * (SPEED_MAX - SPEED_MIN)) * randomSign();
+        float sz = (SPEED_MIN + random.nextFloat() * (SPEED_MAX - SPEED_MIN)) * randomSign();
         vel.set(sx, 0f, sz);
     }
 
+    private int randomSign() {
+        return random.nextBoolean() ? 1 : -1;
+    }
+
     public void applyWrappedTransform(GameContext ctx) {
 
         float refX16 = to16(ctx.playerX);
@@ -103,16 +115,46 @@ public class Saucer {
         inst.transform.setToTranslation(wx, pos.y, wz);
     }
 
-    public void render(Camera cam, ModelBatch modelBatch, Environment environment) {
+    void writeState(ByteBuffer out) {
+        QuickSave.putVector(out, pos);
+        QuickSave.putVector(out, vel);
+        QuickSave.putBoolean(out, active);
+        out.putFloat(timeToLive).putFloat(rotTimer).putFloat(courseTimer).putFloat(spawnCooldown);
+        out.putLong(random.getState(0)).putLong(random.getState(1));
+        QuickSave.putMatrix(out, inst.transform);
+    }
+
+    void readState(ByteBuffer in) {
+        QuickSave.getVector(in, pos);
+        QuickSave.getVector(in, vel);
+        boolean wasActive = active;
+        active = QuickSave.getBoolean(in);
+        timeToLive = in.getFloat();
+        rotTimer = in.getFloat();
+        courseTimer = in.getFloat();
+        spawnCooldown = in.getFloat();
+        random.setState(in.getLong(), in.getLong());
+        QuickSave.getMatrix(in, inst.transform);
+
+        // the hum loops for as long as the saucer is up
+        if (wasActive && !active) {
+            sounds.stop(Sounds.Effect.SAUCER_ACTIVE);
+        } else if (!wasActive && active) {
+            sounds.play(Sounds.Effect.SAUCER_ACTIVE);
+        }
+    }
+
+    public void render(Camera cam, ModelBatch modelBatch) {
         if (!this.active) {
             return;
         }
         nearestWrappedPos(this.inst, cam.position.x, cam.position.z, TMP1);
-        if (cam.frustum.pointInFrustum(TMP1)) {
+        if (Culling.isVisible(cam, this.inst, TMP1)) {
             this.inst.transform.val[Matrix4.M03] = TMP1.x;
             this.inst.transform.val[Matrix4.M13] = TMP1.y;
             this.inst.transform.val[Matrix4.M23] = TMP1.z;
-            modelBatch.render(this.inst, environment);
+            modelBatch.render(this.inst);
+            RuntimeMetrics.countDrawn();
         }
     }
 }
@@ -0,0 +1,113 @@
+package bzone;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Timings of one {@link BenchmarkScenario} run: every tick's time, kept in an
+ * array sized for the whole run, and the bytes the running thread allocated.
+ *
+ * Recording allocates nothing, so it does not disturb the allocation figure
+ * it measures; the percentiles are only worked out by {@link #toString}.
+ */
+public final class ScenarioReport {
+
+    private final BenchmarkScenario scenario;
+    private final long[] tickNanos;
+    private int ticks;
+    private int offScriptTicks;
+
+    private final com.sun.management.ThreadMXBean threads;
+    private long startNanos, endNanos;
+    private long startAlloc, endAlloc;
+
+    public ScenarioReport(BenchmarkScenario scenario) {
+        this.scenario = scenario;
+        this.tickNanos = new long[scenario.ticks()];
+        java.lang.management.ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        if (mx instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) mx).isThreadAllocatedMemorySupported()) {
+            this.threads = (com.sun.management.ThreadMXBean) mx;
+            this.threads.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            this.threads = null;
+        }
+    }
+
+    public BenchmarkScenario scenario() {
+        return scenario;
+    }
+
+    /**
+     * Starts the clock, on the thread that will record the ticks.
+     */
+    public void begin() {
+        startAlloc = allocatedByThisThread();
+        startNanos = System.nanoTime();
+    }
+
+    public void record(long nanos) {
+        tickNanos[ticks++] = nanos;
+        if (ticks == tickNanos.length) {
+            endNanos = System.nanoTime();
+            endAlloc = allocatedByThisThread();
+        }
+    }
+
+    /**
+     * Notes whether the scenario held for the tick about to be recorded.
+     */
+    public void check(boolean holds) {
+        if (!holds) {
+            offScriptTicks++;
+        }
+    }
+
+    /**
+     * @return ticks the world was not as the scenario means it to be
+     */
+    public int offScriptTicks() {
+        return offScriptTicks;
+    }
+
+    public boolean done() {
+        return ticks == tickNanos.length;
+    }
+
+    public double ticksPerSecond() {
+        return ticks * 1e9 / (endNanos - startNanos);
+    }
+
+    /**
+     * @return bytes allocated per second of run time, or -1 when the JVM does
+     * not count them
+     */
+    public double allocatedBytesPerSecond() {
+        if (threads == null) {
+            return -1;
+        }
+        return (endAlloc - startAlloc) * 1e9 / (endNanos - startNanos);
+    }
+
+    public float percentileMillis(float p) {
+        long[] sorted = Arrays.copyOf(tickNanos, ticks);
+        Arrays.sort(sorted);
+        int idx = (int) Math.ceil(p * ticks) - 1;
+        return sorted[Math.max(0, Math.min(ticks - 1, idx))] / 1_000_000f;
+    }
+
+    private long allocatedByThisThread() {
+        if (threads == null) {
+            return 0L;
+        }
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-24s seed %d, %d ticks: %.0f ticks/s, p50 %.3f ms, p95 %.3f ms, p99 %.3f ms, "
+                + "max %.3f ms, %.0f bytes/s allocated, %d ticks off script",
+                scenario, scenario.seed, ticks, ticksPerSecond(), percentileMillis(0.50f), percentileMillis(0.95f),
+                percentileMillis(0.99f), percentileMillis(1f), allocatedBytesPerSecond(), offScriptTicks);
+    }
+}
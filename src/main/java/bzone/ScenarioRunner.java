@@ -0,0 +1,47 @@
+package bzone;
+
+/**
+ * Plays {@link BenchmarkScenario}s headless, ticking the world back to back
+ * as fast as it goes, and prints a {@link ScenarioReport} for each.
+ *
+ * Runs as {@code java -cp ... bzone.ScenarioRunner [scenario ...]}, every
+ * scenario when none is named.
+ */
+public final class ScenarioRunner {
+
+    private ScenarioRunner() {
+    }
+
+    public static ScenarioReport run(BenchmarkScenario scenario) {
+        Headless.init();
+        scenario.seed();
+        GameWorld world = new GameWorld();
+        BenchmarkScenario.Run run = scenario.start(world);
+
+        ScenarioReport report = new ScenarioReport(scenario);
+        report.begin();
+        for (int tick = 0; !report.done(); tick++) {
+            run.beforeTick(world, tick);
+            report.check(run.holds(world, tick));
+            // the scenario's own steering and checks are not the engine's cost
+            long start = System.nanoTime();
+            world.tick(SimulationThread.TICK_SECONDS);
+            report.record(System.nanoTime() - start);
+        }
+        return report;
+    }
+
+    public static void main(String[] args) {
+        Sounds.MUTE = true;
+        BenchmarkScenario[] scenarios = BenchmarkScenario.values();
+        if (args.length > 0) {
+            scenarios = new BenchmarkScenario[args.length];
+            for (int i = 0; i < args.length; i++) {
+                scenarios[i] = BenchmarkScenario.valueOf(args[i]);
+            }
+        }
+        for (BenchmarkScenario scenario : scenarios) {
+            System.out.println(run(scenario));
+        }
+    }
+}
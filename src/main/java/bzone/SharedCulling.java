@@ -0,0 +1,141 @@
+package bzone;
+
+import static bzone.BattleZone.nearestWrappedPos;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.graphics.g3d.ModelBatch;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector3;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Visibility for several cameras worked out in one pass over the instances,
+ * for {@link SplitScreen}.
+ *
+ * Each instance is tested against every camera while it is at hand, and what
+ * each camera sees is listed with the wrapped image nearest it and the level
+ * of detail picked for it. The views are then drawn from their lists, setting
+ * the translation and detail of the shared instance just before it goes to
+ * the batch, so one set of instances serves every viewport. The obstacles,
+ * which never change, are culled first in {@link #begin} and listed by index
+ * so an {@link ObstacleRenderer} can draw them from the same lists.
+ */
+final class SharedCulling {
+
+    private final List<GameModelInstance> obstacles;
+    private final Vector3 tmp = new Vector3();
+
+    private PerspectiveCamera[] cams;
+    private int views;
+
+    private GameModelInstance[][] visible;
+    private int[][] obstacleIndex;
+    private float[][] positions;
+    private int[][] lods;
+    private final int[] count;
+    private final int[] obstacleCount;
+
+    SharedCulling(List<GameModelInstance> obstacles, int maxViews) {
+        this.obstacles = obstacles;
+        int capacity = obstacles.size() + RenderSnapshot.MAX_PROXIES;
+        this.visible = new GameModelInstance[maxViews][capacity];
+        this.obstacleIndex = new int[maxViews][capacity];
+        this.positions = new float[maxViews][capacity * 3];
+        this.lods = new int[maxViews][capacity];
+        this.count = new int[maxViews];
+        this.obstacleCount = new int[maxViews];
+    }
+
+    /**
+     * Starts a frame for the given cameras, already updated, and culls the
+     * obstacles for all of them.
+     */
+    void begin(PerspectiveCamera[] cams, int views) {
+        this.cams = cams;
+        this.views = views;
+        for (int v = 0; v < views; v++) {
+            count[v] = 0;
+        }
+        for (int i = 0, n = obstacles.size(); i < n; i++) {
+            cull(obstacles.get(i), i, -1);
+        }
+        for (int v = 0; v < views; v++) {
+            obstacleCount[v] = count[v];
+        }
+    }
+
+    /**
+     * Culls a moving instance for every camera.
+     */
+    void add(GameModelInstance inst) {
+        cull(inst, -1, -1);
+    }
+
+    /**
+     * Culls a moving instance for every camera but one, as a player's own
+     * tank, which its camera sits inside, for that player's view.
+     */
+    void addExcept(GameModelInstance inst, int view) {
+        cull(inst, -1, view);
+    }
+
+    void renderObstacles(int view, ModelBatch batch) {
+        render(view, 0, obstacleCount[view], batch);
+    }
+
+    void renderObstacles(int view, ObstacleRenderer renderer) {
+        renderer.render(cams[view], obstacleIndex[view], positions[view], obstacleCount[view]);
+    }
+
+    void renderMoving(int view, ModelBatch batch) {
+        render(view, obstacleCount[view], count[view], batch);
+    }
+
+    private void cull(GameModelInstance inst, int obstacle, int skipView) {
+        for (int v = 0; v < views; v++) {
+            if (v == skipView) {
+                continue;
+            }
+            PerspectiveCamera cam = cams[v];
+            nearestWrappedPos(inst, cam.position.x, cam.position.z, tmp);
+            if (!Culling.isVisible(cam, inst, tmp)) {
+                continue;
+            }
+            int k = count[v]++;
+            if (k == visible[v].length) {
+                grow();
+            }
+            visible[v][k] = inst;
+            obstacleIndex[v][k] = obstacle;
+            positions[v][k * 3] = tmp.x;
+            positions[v][k * 3 + 1] = tmp.y;
+            positions[v][k * 3 + 2] = tmp.z;
+            lods[v][k] = inst.lod();
+        }
+    }
+
+    private void render(int view, int from, int to, ModelBatch batch) {
+        GameModelInstance[] insts = visible[view];
+        float[] pos = positions[view];
+        int[] lod = lods[view];
+        for (int k = from; k < to; k++) {
+            GameModelInstance inst = insts[k];
+            inst.transform.val[Matrix4.M03] = pos[k * 3];
+            inst.transform.val[Matrix4.M13] = pos[k * 3 + 1];
+            inst.transform.val[Matrix4.M23] = pos[k * 3 + 2];
+            inst.setLod(lod[k]);
+            batch.render(inst);
+            RuntimeMetrics.countDrawn();
+        }
+    }
+
+    private void grow() {
+        for (int v = 0; v < visible.length; v++) {
+            int n = visible[v].length * 2;
+            visible[v] = Arrays.copyOf(visible[v], n);
+            obstacleIndex[v] = Arrays.copyOf(obstacleIndex[v], n);
+            positions[v] = Arrays.copyOf(positions[v], n * 3);
+            lods[v] = Arrays.copyOf(lods[v], n);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package bzone;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Ticks a {@link GameWorld} at a fixed rate on its own thread and publishes a
+ * {@link RenderSnapshot} after every tick.
+ *
+ * Once started, the world belongs to this thread: the GL thread only writes
+ * the volatile controls below, queues {@link #request}s and reads snapshots
+ * from {@link #snapshots()}.
+ * When a tick runs late the loop catches up with back-to-back ticks, up to
+ * {@link #MAX_CATCH_UP_TICKS}, before giving up on the lost time.
+ */
+public final class SimulationThread extends Thread {
+
+    public static final float TICK_SECONDS = 1f / 60f;
+    private static final long TICK_NANOS = 1_000_000_000L / 60;
+    static final int MAX_CATCH_UP_TICKS = 5;
+
+    private final GameWorld world;
+    private final SnapshotBuffer snapshots = new SnapshotBuffer();
+
+    /**
+     * Player controls, copied into the world before each tick.
+     */
+    public volatile boolean turnLeft, turnRight, moveForward, moveBackward;
+
+    /**
+     * Stops ticking; requests are still run and snapshots still published.
+     */
+    public volatile boolean paused;
+
+    /**
+     * Drives the player in place of the controls above when set.
+     */
+    public volatile Autopilot autopilot;
+
+    private final RewindBuffer rewind;
+
+    private final AtomicBoolean fire = new AtomicBoolean();
+    private final Queue<Consumer<GameWorld>> requests = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    /**
+     * @param rewind records every tick when not null
+     */
+    public SimulationThread(GameWorld world, RewindBuffer rewind) {
+        super("simulation");
+        setDaemon(true);
+        this.world = world;
+        this.rewind = rewind;
+
+        // so the first frame has something to draw
+        snapshots.back().capture(world);
+        snapshots.publish();
+    }
+
+    public SnapshotBuffer snapshots() {
+        return snapshots;
+    }
+
+    /**
+     * Fires the player's cannon on the next tick, if the player is alive.
+     */
+    public void requestFire() {
+        fire.set(true);
+    }
+
+    /**
+     * Runs the action on the world before the next tick, such as a quick save
+     * or load.
+     */
+    public void request(Consumer<GameWorld> action) {
+        requests.add(action);
+    }
+
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(this);
+        try {
+            join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+        while (running) {
+            long now = System.nanoTime();
+            if (now < next) {
+                LockSupport.parkNanos(next - now);
+                continue;
+            }
+            if (now - next > MAX_CATCH_UP_TICKS * TICK_NANOS) {
+                next = now;
+            }
+
+            Consumer<GameWorld> request;
+            while ((request = requests.poll()) != null) {
+                request.accept(world);
+            }
+
+            if (!paused) {
+                Autopilot pilot = autopilot;
+                if (pilot != null) {
+                    pilot.drive(world);
+                } else {
+                    world.turnLeft = turnLeft;
+                    world.turnRight = turnRight;
+                    world.moveForward = moveForward;
+                    world.moveBackward = moveBackward;
+                }
+                if (fire.getAndSet(false) && world.context.alive) {
+                    world.firePlayer();
+                }
+
+                world.tick(TICK_SECONDS);
+                RuntimeMetrics.countTick();
+                if (rewind != null) {
+                    rewind.record(world);
+                }
+            }
+
+            snapshots.back().capture(world);
+            snapshots.publish();
+
+            next += TICK_NANOS;
+        }
+    }
+}
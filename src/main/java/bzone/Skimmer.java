@@ -4,7 +4,7 @@ import static bzone.BattleZone.WORLD_WRAP_HALF_16BIT;
 import static bzone.BattleZone.to16;
 import static bzone.BattleZone.wrapDelta16;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.math.MathUtils;
+import java.nio.ByteBuffer;
 
 public class Skimmer extends BaseTank {
 
@@ -32,6 +32,7 @@ public class Skimmer extends BaseTank {
     private enum Plan {
         RETREAT, PURSUE, DIVE
     }
+    private static final Plan[] PLANS = Plan.values();
     private Plan plan = Plan.PURSUE;
 
     public Skimmer(Projectile projectile) {
@@ -39,12 +40,27 @@ public class Skimmer extends BaseTank {
         this.skimmer = Models.getModelInstance(Models.Mesh.SKIMMER, Color.GREEN, 1);
         this.stinger = Models.getModelInstance(Models.Mesh.STINGER, Color.GREEN, 1);
         this.inst = this.skimmer;
-        this.facing = MathUtils.random(0, ANGLE_STEPS - 1);
+        this.facing = random(0, ANGLE_STEPS - 1);
         this.radarFacing = this.facing;
         this.turnTo = this.facing;
         this.moveCounter = 1;
     }
 
+    @Override
+    protected void writeTankState(ByteBuffer out) {
+        QuickSave.putBoolean(out, inst == stinger);
+        out.putInt(turnVelSteps).putFloat(alt).putFloat(targetAlt).putInt(plan.ordinal());
+    }
+
+    @Override
+    protected void readTankState(ByteBuffer in) {
+        inst = QuickSave.getBoolean(in) ? stinger : skimmer;
+        turnVelSteps = in.getInt();
+        alt = in.getFloat();
+        targetAlt = in.getFloat();
+        plan = PLANS[in.getInt()];
+    }
+
     @Override
     protected void updateTank(GameContext ctx, float dt) {
         boolean stinger = ctx.playerScore >= 30000;
@@ -72,6 +88,7 @@ public class Skimmer extends BaseTank {
 
         if (this.moveCounter == 0) {
             choosePlan(ctx, dist, angToPlayer);
+            planChanged(ctx, plan.name());
         }
 
         bankToward(this.turnTo, dt);
@@ -136,8 +153,8 @@ public class Skimmer extends BaseTank {
 
             //serpentine path away from player
             int awayFromPlayerAngle = u8(angToPlayer + 128); // 180° from player
-            int wobbleAngle = MathUtils.random(0, MICRO_TURN_MAX);
-            this.turnTo = u8(MathUtils.randomBoolean() ? awayFromPlayerAngle + wobbleAngle : awayFromPlayerAngle - wobbleAngle);
+            int wobbleAngle = random(0, MICRO_TURN_MAX);
+            this.turnTo = u8(randomBoolean() ? awayFromPlayerAngle + wobbleAngle : awayFromPlayerAngle - wobbleAngle);
             targetAlt = ALT_HOVER;
             this.moveCounter = 8 + JIT;
             return;
@@ -160,8 +177,8 @@ public class Skimmer extends BaseTank {
             } else {
                 plan = Plan.RETREAT;
                 int away = u8(angToPlayer + 128);
-                int wobble = MathUtils.random(0, MICRO_TURN_MAX);
-                this.turnTo = u8(MathUtils.randomBoolean() ? away + wobble : away - wobble);
+                int wobble = random(0, MICRO_TURN_MAX);
+                this.turnTo = u8(randomBoolean() ? away + wobble : away - wobble);
                 targetAlt = ALT_HOVER;
                 this.moveCounter = NEW_HEADING_FRAMES + JIT;
             }
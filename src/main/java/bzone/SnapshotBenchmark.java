@@ -0,0 +1,61 @@
+package bzone;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Measures how many snapshots one core encodes per second for a full
+ * {@link MultiplayerWorld}, each against the tick before, as a client one
+ * tick behind would get them.
+ *
+ * Runs as {@code java -cp ... bzone.SnapshotBenchmark [encodes]}, headless
+ * and outside the unit tests, like {@link ScenarioRunner}.
+ */
+public final class SnapshotBenchmark {
+
+    private static final float DT = 1f / 60f;
+    private static final int WARMUP_TICKS = 200;
+    private static final int DEFAULT_ENCODES = 200_000;
+
+    private SnapshotBenchmark() {
+    }
+
+    /**
+     * @return snapshots encoded per second and their mean size in bytes
+     */
+    public static double[] run(int encodes) {
+        Headless.init();
+        MultiplayerWorld mw = new MultiplayerWorld();
+        SnapshotEncoder[] encoders = new SnapshotEncoder[MultiplayerWorld.MAX_PLAYERS];
+        for (int i = 0; i < encoders.length; i++) {
+            mw.joinLocal();
+            encoders[i] = new SnapshotEncoder();
+        }
+        ByteBuffer buf = ByteBuffer.allocateDirect(NetProtocol.PACKET_BYTES);
+
+        for (int t = 0; t < WARMUP_TICKS; t++) {
+            mw.tick(DT);
+            for (int i = 0; i < encoders.length; i++) {
+                buf.clear();
+                encoders[i].encode(buf, mw, mw.player(i), mw.tick() - 1);
+            }
+        }
+
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (int n = 0; n < encodes; n++) {
+            int i = n % encoders.length;
+            buf.clear();
+            encoders[i].encode(buf, mw, mw.player(i), mw.tick() - 1);
+            bytes += buf.position();
+        }
+        long nanos = System.nanoTime() - start;
+        return new double[]{encodes * 1e9 / nanos, (double) bytes / encodes};
+    }
+
+    public static void main(String[] args) {
+        Sounds.MUTE = true;
+        int encodes = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ENCODES;
+        double[] result = run(encodes);
+        System.out.printf("snapshot encode: %.0f per second on one core, %.1f bytes each%n", result[0], result[1]);
+    }
+}
@@ -0,0 +1,45 @@
+package bzone;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free triple buffer of {@link RenderSnapshot}s between one producer
+ * (the simulation thread) and one consumer (the GL thread).
+ *
+ * The producer fills {@link #back()} and hands it over with {@link #publish},
+ * the consumer picks up the newest published snapshot with {@link #acquire}.
+ * Neither side ever waits for the other; the consumer simply sees the same
+ * snapshot again when no new tick has been published, and ticks it never saw
+ * are dropped.
+ */
+public final class SnapshotBuffer {
+
+    private static final int INDEX = 3;
+    private static final int FRESH = 4;
+
+    private final RenderSnapshot[] slots = {new RenderSnapshot(), new RenderSnapshot(), new RenderSnapshot()};
+
+    /**
+     * Slot in the middle, with {@link #FRESH} set when the producer put it
+     * there and the consumer has not taken it yet.
+     */
+    private final AtomicInteger middle = new AtomicInteger(1);
+
+    private int back = 0;   // producer only
+    private int front = 2;  // consumer only
+
+    public RenderSnapshot back() {
+        return slots[back];
+    }
+
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX;
+    }
+
+    public RenderSnapshot acquire() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX;
+        }
+        return slots[front];
+    }
+}
@@ -0,0 +1,135 @@
+package bzone;
+
+import static bzone.SnapshotEncoder.FIELDS;
+import static bzone.SnapshotEncoder.HISTORY;
+import static bzone.SnapshotEncoder.MESH;
+import static bzone.SnapshotEncoder.PRESENT;
+import static bzone.SnapshotEncoder.STATE_INTS;
+import static bzone.SnapshotEncoder.X;
+import static bzone.SnapshotEncoder.Y;
+import static bzone.SnapshotEncoder.YAW;
+import static bzone.SnapshotEncoder.Z;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Client side of a {@link SnapshotEncoder}: rebuilds each snapshot from the
+ * baseline it was encoded against and expands it into a
+ * {@link NetSnapshot}.
+ *
+ * Keeps the same {@link SnapshotEncoder#HISTORY} of decoded snapshots as the
+ * server keeps of sent ones, so any baseline the server picks from the
+ * client's acknowledgements is still here.
+ */
+public final class SnapshotDecoder {
+
+    private final int[][] history = new int[HISTORY][STATE_INTS];
+    private final long[] historyTick = new long[HISTORY];
+    private final int[] empty = new int[STATE_INTS];
+    private final BitReader bits = new BitReader();
+
+    public SnapshotDecoder() {
+        Arrays.fill(historyTick, -1);
+    }
+
+    /**
+     * Decodes a snapshot body, after its {@link NetProtocol#HEADER_BYTES}.
+     *
+     * @return false, leaving the snapshot untouched, when the packet is
+     * truncated, older than the snapshot already held, or encoded against a
+     * baseline no longer held
+     */
+    public boolean decode(ByteBuffer in, NetSnapshot s) {
+        if (in.remaining() < 8 + 8 + 4 + 1 + 4 + 1 + 1 + 12) {
+            return false;
+        }
+        long tick = in.getLong();
+        long baseTick = in.getLong();
+        if (tick <= s.tick) {
+            return false;
+        }
+        int[] base = empty;
+        if (baseTick >= 0) {
+            if (historyTick[(int) (baseTick % HISTORY)] != baseTick) {
+                return false;
+            }
+            base = history[(int) (baseTick % HISTORY)];
+        }
+
+        int ackedSeq = in.getInt();
+        int playerId = in.get();
+        int score = in.getInt();
+        int lives = in.get();
+        boolean alive = QuickSave.getBoolean(in);
+        float ownX = in.getFloat();
+        float ownZ = in.getFloat();
+        float ownHeading = in.getFloat();
+
+        int slot = (int) (tick % HISTORY);
+        int[] state = history[slot];
+        historyTick[slot] = -1;
+        bits.begin(in);
+        for (int o = 0; o < STATE_INTS; o += FIELDS) {
+            System.arraycopy(base, o, state, o, FIELDS);
+            if (!bits.readBit()) {
+                continue;
+            }
+            if (!bits.readBit()) {
+                Arrays.fill(state, o, o + FIELDS, 0);
+                continue;
+            }
+            state[o + PRESENT] = 1;
+            state[o + MESH] = readByte(state[o + MESH]);
+            state[o + X] = readShort(state[o + X]);
+            state[o + Z] = readShort(state[o + Z]);
+            state[o + Y] = readShort(state[o + Y]);
+            state[o + YAW] = readByte(state[o + YAW]);
+        }
+        if (bits.overrun()) {
+            return false;
+        }
+        historyTick[slot] = tick;
+
+        s.tick = tick;
+        s.ackedSeq = ackedSeq;
+        s.playerId = playerId;
+        s.score = score;
+        s.lives = lives;
+        int n = 0;
+        for (int id = 0; id < NetProtocol.MAX_ENTITIES; id++) {
+            int o = id * FIELDS;
+            if (state[o + PRESENT] == 0) {
+                continue;
+            }
+            s.id[n] = id;
+            s.mesh[n] = state[o + MESH];
+            if (id == playerId && alive) {
+                s.x[n] = ownX;
+                s.z[n] = ownZ;
+                s.yaw[n] = ownHeading;
+            } else {
+                s.x[n] = state[o + X];
+                s.z[n] = state[o + Z];
+                s.yaw[n] = state[o + YAW] * (360f / 256f);
+            }
+            s.y[n] = (short) state[o + Y];
+            n++;
+        }
+        s.count = n;
+        return true;
+    }
+
+    private int readByte(int base) {
+        return bits.readBit() ? bits.read(8) : base;
+    }
+
+    private int readShort(int base) {
+        if (!bits.readBit()) {
+            return base;
+        }
+        if (bits.readBit()) {
+            return (base + (byte) bits.read(8)) & 0xFFFF;
+        }
+        return bits.read(16);
+    }
+}
@@ -0,0 +1,218 @@
+package bzone;
+
+import static bzone.BattleZone.wrap16f;
+import static bzone.BattleZone.wrapDelta16;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Encodes the snapshots one player receives, decoded by a
+ * {@link SnapshotDecoder}.
+ *
+ * Only entities within {@link #INTEREST_RANGE} of the player are sent, plus
+ * the player's own tank and shot. Each is quantised to the 16-bit world
+ * coordinates, a 16-bit height and an 8-bit facing, and the whole set is
+ * delta-encoded against the last snapshot the client acknowledged, bit
+ * packed: an unchanged entity costs one bit and a moving one a few bytes, so
+ * a snapshot's size follows what changed near the player rather than how
+ * much is in the world. The player's own tank is also sent unquantised in
+ * the header so the client can reconcile its prediction exactly.
+ *
+ * The last {@link #HISTORY} snapshots are kept as baselines; an
+ * acknowledgement older than that gets a snapshot against nothing.
+ */
+public final class SnapshotEncoder {
+
+    /**
+     * Interest radius around each player. The radar's range covers the whole
+     * wrapped world, so by default nothing is left out; servers with big
+     * worlds or many players can narrow it.
+     */
+    public static float INTEREST_RANGE = Radar.RADAR_RANGE_UNITS;
+
+    static final int HISTORY = 32;
+
+    static final int PRESENT = 0;
+    static final int MESH = 1;
+    static final int X = 2;
+    static final int Z = 3;
+    static final int Y = 4;
+    static final int YAW = 5;
+    static final int FIELDS = 6;
+
+    static final int STATE_INTS = NetProtocol.MAX_ENTITIES * FIELDS;
+
+    private final int[][] history = new int[HISTORY][STATE_INTS];
+    private final long[] historyTick = new long[HISTORY];
+    private final int[] empty = new int[STATE_INTS];
+    private final BitWriter bits = new BitWriter();
+
+    private float centerX, centerZ, range2;
+
+    public SnapshotEncoder() {
+        reset();
+    }
+
+    /**
+     * Forgets every baseline, for a new player in the slot.
+     */
+    public void reset() {
+        Arrays.fill(historyTick, -1);
+    }
+
+    /**
+     * Puts the world as the player sees it after the current tick.
+     *
+     * @param ackedTick tick of the newest snapshot the client has decoded,
+     * or -1 for none
+     */
+    public void encode(ByteBuffer out, MultiplayerWorld mw, NetPlayer to, long ackedTick) {
+        long tick = mw.tick();
+        int slot = (int) (tick % HISTORY);
+        int[] state = history[slot];
+        capture(state, mw, to);
+        historyTick[slot] = tick;
+
+        long baseTick = -1;
+        int[] base = empty;
+        if (ackedTick >= 0 && ackedTick < tick && tick - ackedTick < HISTORY
+                && historyTick[(int) (ackedTick % HISTORY)] == ackedTick) {
+            baseTick = ackedTick;
+            base = history[(int) (ackedTick % HISTORY)];
+        }
+
+        GameContext ctx = mw.world.context;
+        NetProtocol.putHeader(out, NetProtocol.SNAPSHOT);
+        out.putLong(tick).putLong(baseTick);
+        out.putInt(to.appliedSeq).put((byte) to.id);
+        out.putInt(ctx.playerScore).put((byte) to.lives);
+        QuickSave.putBoolean(out, to.alive);
+        out.putFloat(to.pos.x).putFloat(to.pos.z).putFloat(to.headingDeg);
+
+        bits.begin(out);
+        for (int o = 0; o < STATE_INTS; o += FIELDS) {
+            if (same(base, state, o)) {
+                bits.writeBit(false);
+                continue;
+            }
+            bits.writeBit(true);
+            if (state[o + PRESENT] == 0) {
+                bits.writeBit(false);
+                continue;
+            }
+            bits.writeBit(true);
+            writeByte(base[o + MESH], state[o + MESH]);
+            writeShort(base[o + X], state[o + X]);
+            writeShort(base[o + Z], state[o + Z]);
+            writeShort(base[o + Y], state[o + Y]);
+            writeByte(base[o + YAW], state[o + YAW]);
+        }
+        bits.end();
+    }
+
+    private void writeByte(int base, int v) {
+        if (v == base) {
+            bits.writeBit(false);
+        } else {
+            bits.writeBit(true);
+            bits.write(v, 8);
+        }
+    }
+
+    /**
+     * Changes within a signed byte, the usual per-tick move, go as the
+     * wrapped difference; anything else as the full value.
+     */
+    private void writeShort(int base, int v) {
+        if (v == base) {
+            bits.writeBit(false);
+            return;
+        }
+        bits.writeBit(true);
+        int d = (short) (v - base);
+        if (d >= -128 && d <= 127) {
+            bits.writeBit(true);
+            bits.write(d, 8);
+        } else {
+            bits.writeBit(false);
+            bits.write(v, 16);
+        }
+    }
+
+    private static boolean same(int[] a, int[] b, int o) {
+        for (int i = o; i < o + FIELDS; i++) {
+            if (a[i] != b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void capture(int[] state, MultiplayerWorld mw, NetPlayer to) {
+        Arrays.fill(state, 0);
+        centerX = to.pos.x;
+        centerZ = to.pos.z;
+        range2 = INTEREST_RANGE * INTEREST_RANGE;
+
+        for (NetPlayer p : mw.players) {
+            if (p.alive && (p == to || inRange(p.pos.x, p.pos.z))) {
+                put(state, p.id, Models.Mesh.SLOW_TANK.ordinal(), p.pos.x, p.pos.z, p.pos.y, p.headingDeg);
+            }
+            if (p.projectile.active && (p == to || inRange(p.projectile.inst))) {
+                put(state, NetProtocol.PLAYER_SHOT + p.id, p.projectile.inst);
+            }
+        }
+
+        GameWorld w = mw.world;
+        if (w.tank.alive && inRange(w.tank.inst)) {
+            put(state, NetProtocol.TANK, w.tank.inst);
+        }
+        if (w.flyer.alive && inRange(w.flyer.inst)) {
+            put(state, NetProtocol.FLYER, w.flyer.inst);
+        }
+        if (w.missile.active && inRange(w.missile.inst)) {
+            put(state, NetProtocol.MISSILE, w.missile.inst);
+        }
+        if (w.saucer.active && inRange(w.saucer.inst)) {
+            put(state, NetProtocol.SAUCER, w.saucer.inst);
+        }
+        if (w.tankProjectile.active && inRange(w.tankProjectile.inst)) {
+            put(state, NetProtocol.TANK_SHOT, w.tankProjectile.inst);
+        }
+        if (w.flyerProjectile.active && inRange(w.flyerProjectile.inst)) {
+            put(state, NetProtocol.FLYER_SHOT, w.flyerProjectile.inst);
+        }
+    }
+
+    private boolean inRange(GameModelInstance inst) {
+        return inRange(inst.getX(), inst.getZ());
+    }
+
+    private boolean inRange(float x, float z) {
+        float dx = wrapDelta16(x - centerX);
+        float dz = wrapDelta16(z - centerZ);
+        return dx * dx + dz * dz <= range2;
+    }
+
+    /**
+     * Enemy transforms sit on the wrapped image nearest the player they
+     * target, so positions are wrapped back into the world first.
+     */
+    private static void put(int[] state, int id, GameModelInstance inst) {
+        float[] m = inst.transform.val;
+        float yaw = MathUtils.atan2(m[Matrix4.M02], m[Matrix4.M00]) * MathUtils.radiansToDegrees;
+        put(state, id, inst.mesh().ordinal(), inst.getX(), inst.getZ(), inst.getY(), yaw);
+    }
+
+    private static void put(int[] state, int id, int mesh, float x, float z, float y, float yawDeg) {
+        int o = id * FIELDS;
+        state[o + PRESENT] = 1;
+        state[o + MESH] = mesh;
+        state[o + X] = Math.round(wrap16f(x)) & 0xFFFF;
+        state[o + Z] = Math.round(wrap16f(z)) & 0xFFFF;
+        state[o + Y] = Math.round(y) & 0xFFFF;
+        state[o + YAW] = Math.round(yawDeg * (256f / 360f)) & 0xFF;
+    }
+}
@@ -0,0 +1,55 @@
+package bzone;
+
+/**
+ * Sound effects an entity asks for while it updates, played by the world
+ * afterwards in its serial {@link GameWorld#resolveEvents} phase. Enemies may
+ * update on worker threads, and the audio backend is not safe to drive from
+ * several threads at once.
+ *
+ * Each effect is one bit, so asking for an effect twice before the queue is
+ * played plays it once. Stops are played before starts, and a stop drops a
+ * start asked for before it.
+ */
+final class SoundQueue {
+
+    private static final Sounds.Effect[] EFFECTS = Sounds.Effect.values();
+
+    private int plays, stops;
+
+    void play(Sounds.Effect effect) {
+        plays |= 1 << effect.ordinal();
+    }
+
+    void stop(Sounds.Effect effect) {
+        int bit = 1 << effect.ordinal();
+        plays &= ~bit;
+        stops |= bit;
+    }
+
+    /**
+     * Plays and stops what was asked for since the last call, on the calling
+     * thread. Muted, or with {@link Sounds#MUTE} set, it only forgets them.
+     */
+    void flush(boolean muted) {
+        if ((plays | stops) == 0) {
+            return;
+        }
+        if (muted || Sounds.MUTE) {
+            plays = 0;
+            stops = 0;
+            return;
+        }
+        for (int i = 0; i < EFFECTS.length; i++) {
+            if ((stops & (1 << i)) != 0) {
+                Sounds.stop(EFFECTS[i]);
+            }
+        }
+        for (int i = 0; i < EFFECTS.length; i++) {
+            if ((plays & (1 << i)) != 0) {
+                Sounds.play(EFFECTS[i]);
+            }
+        }
+        plays = 0;
+        stops = 0;
+    }
+}
@@ -51,6 +51,8 @@ public class Sounds {
     }
 
     public static void stop(Effect s) {
-        s.sound.stop();
+        if (!MUTE) {
+            s.sound.stop();
+        }
     }
 }
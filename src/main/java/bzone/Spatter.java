@@ -2,9 +2,9 @@ package bzone;
 
 import static bzone.BattleZone.PLAYER_Y;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
 import com.badlogic.gdx.math.Vector3;
+import java.nio.ByteBuffer;
 
 public class Spatter {
 
@@ -14,11 +14,20 @@ public class Spatter {
     private boolean finished = true;
     private float timeAccum = 0f;
 
-    private static final int COUNT = 12;
+    static final int COUNT = 12;
 
-    private final Vector3[] particles = new Vector3[COUNT];
+    private static final float W = 4, H = 4, D = 4;
+    private static final float HX = W * 0.5f, HY = H * 0.5f, HZ = D * 0.5f;
 
-    public Spatter() {
+    private final Vector3[] particles = new Vector3[COUNT];
+    private final int[][] initPositions = new int[COUNT][3];
+    private final RandomXS128 random;
+
+    /**
+     * @param random the owning world's generator
+     */
+    public Spatter(RandomXS128 random) {
+        this.random = random;
         for (int i = 0; i < particles.length; i++) {
             particles[i] = new Vector3();
         }
@@ -26,7 +35,7 @@ public class Spatter {
 
     public void spawn(float x, float z) {
         this.origin.set(x, PLAYER_Y, z);
-        int[][] initPositions = createInitPos();
+        createInitPos(initPositions);
         for (int i = 0; i < particles.length; i++) {
             float px = origin.x + initPositions[i][0] * scale;
             float py = origin.y + initPositions[i][1] * scale;
@@ -37,23 +46,20 @@ public class Spatter {
         timeAccum = 0f;
     }
 
-    private static int[][] createInitPos() {
-        int[][] pts = new int[COUNT][3];
+    private void createInitPos(int[][] pts) {
         int idx = 0;
 
         idx = fillQuadrant(pts, idx, +1, +1);
         idx = fillQuadrant(pts, idx, -1, +1);
         idx = fillQuadrant(pts, idx, -1, -1);
         idx = fillQuadrant(pts, idx, +1, -1);
-
-        return pts;
     }
 
-    private static int fillQuadrant(int[][] pts, int idx, int sx, int sy) {
+    private int fillQuadrant(int[][] pts, int idx, int sx, int sy) {
         for (int k = 0; k < 3; k++) {
-            int x = MathUtils.random(1, 10) * sx;
-            int y = MathUtils.random(1, 10) * sy;
-            int z = MathUtils.random(1, 10) * MathUtils.randomSign();
+            int x = (1 + random.nextInt(10)) * sx;
+            int y = (1 + random.nextInt(10)) * sy;
+            int z = (1 + random.nextInt(10)) * (random.nextBoolean() ? 1 : -1);
             pts[idx][0] = x;
             pts[idx][1] = y;
             pts[idx][2] = z;
@@ -114,20 +120,60 @@ public class Spatter {
         }
     }
 
-    public void render(ShapeRenderer sr) {
+    public void render(VectorBatch vb) {
         if (finished) {
             return;
         }
 
-        final float W = 4, H = 4, D = 4;
-        final float hx = W * 0.5f, hy = H * 0.5f, hz = D * 0.5f;
+        vb.setColor(Color.GREEN);
+        for (Vector3 p : particles) {
+            vb.box(p.x - HX, p.y - HY, p.z - HZ, W, H, D);
+        }
+    }
+
+    void writeState(ByteBuffer out) {
+        QuickSave.putVector(out, origin);
+        QuickSave.putBoolean(out, finished);
+        out.putFloat(timeAccum);
+        for (Vector3 p : particles) {
+            QuickSave.putVector(out, p);
+        }
+    }
 
-        sr.begin(ShapeRenderer.ShapeType.Line);
-        sr.setColor(Color.GREEN);
+    void readState(ByteBuffer in) {
+        QuickSave.getVector(in, origin);
+        finished = QuickSave.getBoolean(in);
+        timeAccum = in.getFloat();
         for (Vector3 p : particles) {
-            sr.box(p.x - hx, p.y - hy, p.z - hz, W, H, D);
+            QuickSave.getVector(in, p);
+        }
+    }
+
+    /**
+     * Copies the particle positions as x, y, z triples.
+     *
+     * @return the number of particles copied, zero when finished
+     */
+    int capture(float[] out) {
+        if (finished) {
+            return 0;
+        }
+        for (int i = 0; i < particles.length; i++) {
+            out[i * 3] = particles[i].x;
+            out[i * 3 + 1] = particles[i].y;
+            out[i * 3 + 2] = particles[i].z;
+        }
+        return particles.length;
+    }
+
+    /**
+     * Draws particles copied by {@link #capture}.
+     */
+    static void render(VectorBatch vb, float[] xyz, int count) {
+        vb.setColor(Color.GREEN);
+        for (int i = 0; i < count; i++) {
+            vb.box(xyz[i * 3] - HX, xyz[i * 3 + 1] - HY, xyz[i * 3 + 2] - HZ, W, H, D);
         }
-        sr.end();
     }
 
 }
@@ -0,0 +1,49 @@
+package bzone;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event emitted when the player, an enemy tank, the flyer, a missile or
+ * the saucer enters the world.
+ */
+@Name("bzone.Spawn")
+@Label("Spawn")
+@Category("Battle Zone")
+@StackTrace(false)
+public class SpawnEvent extends Event {
+
+    static final EventType TYPE = EventType.getEventType(SpawnEvent.class);
+
+    @Label("Kind")
+    String kind;
+
+    @Label("X")
+    float x;
+
+    @Label("Z")
+    float z;
+
+    @Label("Player Score")
+    int playerScore;
+
+    @Label("Frame Number")
+    long frame;
+
+    static void emit(String kind, float x, float z, GameContext ctx) {
+        if (!TYPE.isEnabled()) {
+            return;
+        }
+        SpawnEvent e = new SpawnEvent();
+        e.kind = kind;
+        e.x = x;
+        e.z = z;
+        e.playerScore = ctx.playerScore;
+        e.frame = ctx.nmiCount;
+        e.commit();
+    }
+}
@@ -0,0 +1,240 @@
+package bzone;
+
+import static bzone.BattleZone.WORLD_Y;
+import bzone.Models.Mesh;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL30;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.graphics.g3d.ModelBatch;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector3;
+
+/**
+ * Two to four players at one screen, each with a tank in one shared
+ * {@link MultiplayerWorld} and a viewport of their own with its camera,
+ * background, HUD and radar. Each HUD shows its own player's lives.
+ *
+ * The world is ticked once per frame whatever the number of players, and the
+ * 3D scene is culled for every camera in one {@link SharedCulling} pass; the
+ * obstacle models, the instanced obstacle meshes and the HUD buffers are
+ * shared by all viewports. What is left per viewport is its own draw calls,
+ * so a frame costs much less than drawing the single-player frame once per
+ * player.
+ *
+ * Viewports keep the 4:3 shape of the full screen, a quarter of it each, so
+ * the HUD and radar are drawn with the full-screen projection unchanged.
+ * Player one drives with W A S D and SPACE, player two with the arrow keys
+ * and ENTER, player three with I J K L and U, player four with the numeric
+ * keypad 8 4 5 6 and 0.
+ */
+public final class SplitScreen {
+
+    public static final int MAX_VIEWS = 4;
+
+    private static final int[][] KEYS = {
+        {Input.Keys.W, Input.Keys.A, Input.Keys.S, Input.Keys.D, Input.Keys.SPACE},
+        {Input.Keys.UP, Input.Keys.LEFT, Input.Keys.DOWN, Input.Keys.RIGHT, Input.Keys.ENTER},
+        {Input.Keys.I, Input.Keys.J, Input.Keys.K, Input.Keys.L, Input.Keys.U},
+        {Input.Keys.NUMPAD_8, Input.Keys.NUMPAD_4, Input.Keys.NUMPAD_5, Input.Keys.NUMPAD_6, Input.Keys.NUMPAD_0}
+    };
+
+    private static final int[] KEY_CONTROLS = {
+        PlayerMotion.FORWARD, PlayerMotion.TURN_LEFT, PlayerMotion.BACKWARD, PlayerMotion.TURN_RIGHT, PlayerMotion.FIRE
+    };
+
+    private final MultiplayerWorld mw;
+    private final int views;
+    private final NetPlayer[] players;
+    private final int[] held;
+    private final int[] fired;
+    private final int[] seq;
+
+    private final PerspectiveCamera[] cams;
+    private final int[] viewX, viewY;
+    private int viewWidth, viewHeight;
+    private final Radar[] radars;
+    private final GameModelInstance[] tanks;
+    private final SharedCulling culling;
+
+    private final ModelBatch modelBatch;
+    private final ObstacleRenderer obstacleRenderer;
+    private final VectorBatch vectors;
+    private final Background background;
+    private final Hud hud;
+    private final OrthographicCamera hudCam;
+
+    SplitScreen(MultiplayerWorld mw, int views, ModelBatch modelBatch, ObstacleRenderer obstacleRenderer,
+            VectorBatch vectors, Background background, Hud hud, OrthographicCamera hudCam) {
+        this.mw = mw;
+        this.views = views;
+        this.modelBatch = modelBatch;
+        this.obstacleRenderer = obstacleRenderer;
+        this.vectors = vectors;
+        this.background = background;
+        this.hud = hud;
+        this.hudCam = hudCam;
+
+        this.players = new NetPlayer[views];
+        this.held = new int[views];
+        this.fired = new int[views];
+        this.seq = new int[views];
+        this.cams = new PerspectiveCamera[views];
+        this.viewX = new int[views];
+        this.viewY = new int[views];
+        this.radars = new Radar[views];
+        this.tanks = new GameModelInstance[views];
+
+        GameModelInstance tank = Models.getModelInstance(Mesh.SLOW_TANK, Color.GREEN, 1);
+        for (int v = 0; v < views; v++) {
+            players[v] = mw.joinLocal();
+            cams[v] = new PerspectiveCamera(67, 1, 1);
+            cams[v].near = 1f;
+            cams[v].far = 72000f;
+            radars[v] = new Radar();
+            tanks[v] = v == 0 ? tank : new GameModelInstance(tank.mesh, tank.model);
+        }
+        this.culling = new SharedCulling(mw.world.obstacles, views);
+
+        layout(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+    }
+
+    /**
+     * Two viewports sit side by side, centred vertically; three or four fill
+     * the quarters of the screen.
+     */
+    void layout(int width, int height) {
+        viewWidth = width / 2;
+        viewHeight = height / 2;
+        for (int v = 0; v < views; v++) {
+            viewX[v] = (v % 2) * viewWidth;
+            viewY[v] = views == 2 ? height / 4 : (1 - v / 2) * viewHeight;
+            cams[v].viewportWidth = viewWidth;
+            cams[v].viewportHeight = viewHeight;
+        }
+    }
+
+    boolean keyDown(int keycode) {
+        for (int v = 0; v < views; v++) {
+            for (int k = 0; k < KEY_CONTROLS.length; k++) {
+                if (KEYS[v][k] == keycode) {
+                    held[v] |= KEY_CONTROLS[k];
+                    if (KEY_CONTROLS[k] == PlayerMotion.FIRE) {
+                        fired[v] = PlayerMotion.FIRE;
+                    }
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    boolean keyUp(int keycode) {
+        for (int v = 0; v < views; v++) {
+            for (int k = 0; k < KEY_CONTROLS.length; k++) {
+                if (KEYS[v][k] == keycode) {
+                    held[v] &= ~KEY_CONTROLS[k];
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Hands each player's controls to the world and ticks it. Fire goes
+     * once per press.
+     */
+    void update(float dt) {
+        for (int v = 0; v < views; v++) {
+            int controls = (held[v] & ~PlayerMotion.FIRE) | fired[v];
+            fired[v] = 0;
+            players[v].queueInput(++seq[v], controls);
+        }
+        mw.tick(dt);
+    }
+
+    void render(float dt) {
+        GameWorld world = mw.world;
+        GameContext ctx = world.context;
+
+        for (int v = 0; v < views; v++) {
+            NetPlayer p = players[v];
+            PerspectiveCamera cam = cams[v];
+            cam.position.set(p.pos);
+            cam.direction.set(p.dir);
+            cam.up.set(Vector3.Y);
+            cam.update(true);
+
+            GameModelInstance tank = tanks[v];
+            tank.transform.idt()
+                    .translate(p.pos.x, WORLD_Y, p.pos.z)
+                    .rotate(Vector3.Y, MathUtils.atan2(p.dir.x, p.dir.z) * MathUtils.radiansToDegrees);
+        }
+
+        // one visibility pass over everything, for every camera
+        culling.begin(cams, views);
+        if (world.tankProjectile.active) {
+            culling.add(world.tankProjectile.inst);
+        }
+        if (world.flyerProjectile.active) {
+            culling.add(world.flyerProjectile.inst);
+        }
+        world.tank.addTo(culling, ctx);
+        world.flyer.addTo(culling, ctx);
+        if (world.missile.active) {
+            culling.add(world.missile.inst);
+        }
+        if (world.saucer.active) {
+            culling.add(world.saucer.inst);
+        }
+        world.explosion.addTo(culling);
+        for (int v = 0; v < views; v++) {
+            NetPlayer p = players[v];
+            if (p.alive) {
+                // not in its own view, whose camera is inside it
+                culling.addExcept(tanks[v], v);
+            }
+            if (p.projectile.active) {
+                culling.add(p.projectile.inst);
+            }
+        }
+
+        Gdx.gl.glViewport(0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        Gdx.gl.glClear(GL30.GL_COLOR_BUFFER_BIT | GL30.GL_DEPTH_BUFFER_BIT);
+
+        hudCam.update();
+        background.updateVolcanoParticles();
+        for (int v = 0; v < views; v++) {
+            NetPlayer p = players[v];
+            PerspectiveCamera cam = cams[v];
+            Gdx.gl.glViewport(viewX[v], viewY[v], viewWidth, viewHeight);
+
+            modelBatch.begin(cam);
+            if (obstacleRenderer == null) {
+                culling.renderObstacles(v, modelBatch);
+            }
+            culling.renderMoving(v, modelBatch);
+            modelBatch.end();
+            if (obstacleRenderer != null) {
+                culling.renderObstacles(v, obstacleRenderer);
+            }
+
+            vectors.begin(cam.combined);
+            world.spatter.render(vectors);
+            vectors.end();
+
+            vectors.begin(hudCam.combined);
+            background.drawBackground2D(vectors, hudCam.combined, (p.headingDeg % 360f + 360f) % 360f);
+            Gdx.gl.glEnable(GL30.GL_BLEND);
+            Gdx.gl.glBlendFunc(GL30.GL_SRC_ALPHA, GL30.GL_ONE_MINUS_SRC_ALPHA);
+            hud.draw(hudCam.combined, p.lives, p.alive);
+            radars[v].drawRadar2D(cam, vectors, world.tank, world.missile, world.saucer, world.flyer, world.obstacles, dt);
+            vectors.end();
+        }
+
+        Gdx.gl.glViewport(0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+    }
+}
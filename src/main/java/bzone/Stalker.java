@@ -3,9 +3,8 @@ package bzone;
 import static bzone.BattleZone.to16;
 import static bzone.BattleZone.wrapDelta16;
 import com.badlogic.gdx.graphics.Camera;
-import com.badlogic.gdx.graphics.g3d.Environment;
 import com.badlogic.gdx.graphics.g3d.ModelBatch;
-import com.badlogic.gdx.math.MathUtils;
+import java.nio.ByteBuffer;
 
 /**
  * Stalker — ROM-inspired cloaking ground unit.
@@ -41,17 +40,32 @@ public class Stalker extends BaseTank {
     private enum Plan {
         FLANK, ORBIT, CHASE, HOLD, STRAFE, BREAK
     }
+    private static final Plan[] PLANS = Plan.values();
     private Plan plan = Plan.FLANK;
-    private int orbitDir = MathUtils.randomBoolean() ? +1 : -1;
+    private int orbitDir = randomBoolean() ? +1 : -1;
 
     public Stalker(GameModelInstance stalkerModel, Projectile projectile) {
         super(stalkerModel, null, projectile);
-        this.facing = MathUtils.random(0, ANGLE_STEPS - 1);
+        this.facing = random(0, ANGLE_STEPS - 1);
         this.radarFacing = this.facing;
         this.turnTo = this.facing;
         this.moveCounter = 1; // Force immediate plan choice
     }
 
+    @Override
+    protected void writeTankState(ByteBuffer out) {
+        QuickSave.putBoolean(out, cloaked);
+        out.putInt(cloakTimer).putInt(plan.ordinal()).putInt(orbitDir);
+    }
+
+    @Override
+    protected void readTankState(ByteBuffer in) {
+        cloaked = QuickSave.getBoolean(in);
+        cloakTimer = in.getInt();
+        plan = PLANS[in.getInt()];
+        orbitDir = in.getInt();
+    }
+
     @Override
     protected void updateTank(GameContext ctx, float dt) {
 
@@ -79,6 +93,7 @@ public class Stalker extends BaseTank {
 
         if (this.moveCounter == 0) {
             choosePlan(ctx);
+            planChanged(ctx, plan.name());
         }
 
         int delta = signed8((this.facing - this.turnTo) & 0xFF);
@@ -115,7 +130,7 @@ public class Stalker extends BaseTank {
 
         // Randomly reverse sometimes (keeps it slinky)
         if ((ctx.nmiCount & 7L) == 0L) {
-            this.reverseFlags |= 0x01 | (MathUtils.randomBoolean() ? 0x02 : 0x00);
+            this.reverseFlags |= 0x01 | (randomBoolean() ? 0x02 : 0x00);
             this.moveCounter = REVERSE_TIME_FRAMES + RJIT;
             return;
         }
@@ -126,7 +141,7 @@ public class Stalker extends BaseTank {
         float dz16 = wrapDelta16(to16(ctx.playerZ) - to16(this.pos.z));
         float dist = (float) Math.sqrt(dx16 * dx16 + dz16 * dz16);
 
-        int roll = MathUtils.random(0, 255);
+        int roll = random(0, 255);
 
         if (cloaked) {
             // Cloaked: prefer FLANK and ORBIT, tighten up distance
@@ -143,10 +158,10 @@ public class Stalker extends BaseTank {
                 this.moveCounter = NEW_HEADING_FRAMES + JIT;
             } else {
                 plan = Plan.ORBIT;
-                orbitDir = (MathUtils.randomBoolean() ? +1 : -1) * orbitDir;
-                int wobble = MathUtils.random(0, MICRO_WOBBLE_MAX);
+                orbitDir = (randomBoolean() ? +1 : -1) * orbitDir;
+                int wobble = random(0, MICRO_WOBBLE_MAX);
                 int base = u8(angToPlayer + orbitDir * STRAFE_90_STEPS);
-                this.turnTo = u8((MathUtils.randomBoolean() ? base + wobble : base - wobble));
+                this.turnTo = u8((randomBoolean() ? base + wobble : base - wobble));
                 this.moveCounter = NEW_HEADING_FRAMES + JIT;
             }
             return;
@@ -192,10 +207,18 @@ public class Stalker extends BaseTank {
     }
 
     @Override
-    public void render(Camera cam, GameContext ctx, ModelBatch modelBatch, Environment environment) {
+    public void render(Camera cam, GameContext ctx, ModelBatch modelBatch) {
+        if (cloaked) {
+            return;
+        }
+        super.render(cam, ctx, modelBatch);
+    }
+
+    @Override
+    void addTo(SharedCulling culling, GameContext ctx) {
         if (cloaked) {
             return;
         }
-        super.render(cam, ctx, modelBatch, environment);
+        super.addTo(culling, ctx);
     }
 }
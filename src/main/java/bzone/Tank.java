@@ -1,8 +1,6 @@
 package bzone;
 
-import static bzone.BattleZone.to16;
-import static bzone.BattleZone.wrapDelta16;
-import com.badlogic.gdx.math.MathUtils;
+import java.nio.ByteBuffer;
 
 public class Tank extends BaseTank {
 
@@ -15,6 +13,16 @@ public class Tank extends BaseTank {
         this.superTank = superTank;
     }
 
+    @Override
+    protected void writeTankState(ByteBuffer out) {
+        QuickSave.putBoolean(out, inst == superTank);
+    }
+
+    @Override
+    protected void readTankState(ByteBuffer in) {
+        inst = QuickSave.getBoolean(in) ? superTank : slowTank;
+    }
+
     @Override
     protected void updateTank(GameContext ctx, float dt) {
 
@@ -91,9 +99,7 @@ public class Tank extends BaseTank {
         tryShootPlayer(ctx);
 
         // Distance → forward; extra push when perfectly aligned
-        float dx16 = wrapDelta16(to16(ctx.playerX) - to16(this.pos.x));
-        float dz16 = wrapDelta16(to16(ctx.playerZ) - to16(this.pos.z));
-        float dist = (float) Math.sqrt(dx16 * dx16 + dz16 * dz16);
+        float dist = distanceToPlayer(ctx);
 
         final float forwardStart = ctx.isSuperTank() ? FWD_START_DISTANCE_SUPER_TANK : FWD_START_DISTANCE_SLOW_TANK;
 
@@ -112,8 +118,9 @@ public class Tank extends BaseTank {
         if (scoreDiff == 0) {
             // GoMedium:
             if ((ctx.nmiCount & 7L) == 0L) {
-                this.reverseFlags |= 0x01 | (MathUtils.randomBoolean() ? 0x02 : 0x00);
+                this.reverseFlags |= 0x01 | (randomBoolean() ? 0x02 : 0x00);
                 this.moveCounter = REVERSE_TIME_FRAMES + RJIT;
+                planChanged(ctx, "MEDIUM");
                 return;
             }
 
@@ -124,16 +131,18 @@ public class Tank extends BaseTank {
 
             this.reverseFlags &= ~0x01;
             this.moveCounter = NEW_HEADING_FRAMES + JIT;
+            planChanged(ctx, "MEDIUM");
             return;
         }
 
         if (scoreDiff < 0) {
             // GoMild (player losing): small offset from previous heading
-            int offset = MathUtils.random(0, 31); // 31 steps × 1.40625° ≈ up to 43.7°.
+            int offset = random(0, 31); // 31 steps × 1.40625° ≈ up to 43.7°.
             boolean neg = ((ctx.nmiCount & 1L) == 0L);
             this.turnTo = u8(neg ? this.turnTo - offset : this.turnTo + offset);
             this.reverseFlags &= ~0x01;
             this.moveCounter = NEW_HEADING_FRAMES + JIT;
+            planChanged(ctx, "MILD");
             return;
         }
 
@@ -141,6 +150,7 @@ public class Tank extends BaseTank {
         this.turnTo = calcAngleToPlayer(ctx);
         this.reverseFlags &= ~0x01;
         this.moveCounter = NEW_HEADING_FRAMES + JIT;
+        planChanged(ctx, "HARD");
     }
 
 }
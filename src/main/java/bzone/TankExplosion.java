@@ -2,20 +2,22 @@ package bzone;
 
 import static bzone.BattleZone.nearestWrappedPos;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.g3d.Environment;
 import com.badlogic.gdx.graphics.g3d.ModelBatch;
 import com.badlogic.gdx.math.Vector3;
 import java.util.ArrayList;
 import java.util.List;
-import bzone.GameContext.TankSpawn;
 import com.badlogic.gdx.graphics.Camera;
 import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.RandomXS128;
 import com.badlogic.gdx.math.collision.BoundingBox;
+import java.nio.ByteBuffer;
 
 public class TankExplosion {
 
     private static final Vector3 TMP1 = new Vector3();
+    private static final BoundingBox TMP_BB = new BoundingBox();
 
     private static final int CHUNKS = 6;
 
@@ -49,6 +51,27 @@ public class TankExplosion {
             this.inst = inst;
         }
 
+        void writeState(ByteBuffer out) {
+            QuickSave.putVector(out, pos);
+            QuickSave.putVector(out, vel);
+            QuickSave.putVector(out, axis);
+            out.putFloat(spinDeg);
+            QuickSave.putBoolean(out, grounded);
+            out.putFloat(groundedTime).putFloat(size);
+            QuickSave.putMatrix(out, inst.transform);
+        }
+
+        void readState(ByteBuffer in) {
+            QuickSave.getVector(in, pos);
+            QuickSave.getVector(in, vel);
+            QuickSave.getVector(in, axis);
+            spinDeg = in.getFloat();
+            grounded = QuickSave.getBoolean(in);
+            groundedTime = in.getFloat();
+            size = in.getFloat();
+            QuickSave.getMatrix(in, inst.transform);
+        }
+
         void reset() {
             pos.set(0, 0, 0);
             vel.set(0, 0, 0);
@@ -69,6 +92,11 @@ public class TankExplosion {
     private final Vector3 origin = new Vector3();
     private boolean finished = false;
 
+    /**
+     * The explosion's own random number stream, reseeded by its world.
+     */
+    final RandomXS128 random = new RandomXS128(MathUtils.random.nextLong());
+
     public TankExplosion(Color color) {
 
         Models.Mesh[] meshes = new Models.Mesh[]{
@@ -109,7 +137,8 @@ public class TankExplosion {
 
         pieces = tank ? tankPieces : missilePieces;
 
-        for (Piece p : pieces) {
+        for (int i = 0, n = pieces.size(); i < n; i++) {
+            Piece p = pieces.get(i);
 
             float originalSize = p.size;
             p.reset();
@@ -121,17 +150,17 @@ public class TankExplosion {
 
             // Small spatial jitter (scaled to size but clamped)
             float jitter = Math.min(half * 0.05f, 80f);
-            float jx = ((float) Math.random() * 2f - 1f) * jitter;
-            float jz = ((float) Math.random() * 2f - 1f) * jitter;
-            float jy = ((float) Math.random() * 2f - 1f) * (jitter * 0.15f);
+            float jx = (random.nextFloat() * 2f - 1f) * jitter;
+            float jz = (random.nextFloat() * 2f - 1f) * jitter;
+            float jy = (random.nextFloat() * 2f - 1f) * (jitter * 0.15f);
 
             p.pos.set(origin.x + jx, startY + jy, origin.z + jz);
 
             // Aim elevation
-            float az = (float) (Math.random() * Math.PI * 2.0);  // 0..2π
+            float az = (float) (random.nextDouble() * Math.PI * 2.0);  // 0..2π
             float meanDeg = 65f;   // centered near 65°
             float spreadDeg = 20f;    //  variation
-            float elDeg = meanDeg + (float) ((Math.random() * 2.0 - 1.0) * spreadDeg);
+            float elDeg = meanDeg + (float) ((random.nextDouble() * 2.0 - 1.0) * spreadDeg);
             // clamp to a sensible range so nothing goes too flat or too vertical
             if (elDeg < 35f) {
                 elDeg = 35f;
@@ -148,7 +177,7 @@ public class TankExplosion {
             float dirZ = (float) (Math.sin(az) * cosEl);
 
             // Launch speed
-            float speed = INITIAL_SPEED_MIN + (float) Math.random() * (INITIAL_SPEED_MAX - INITIAL_SPEED_MIN);
+            float speed = INITIAL_SPEED_MIN + random.nextFloat() * (INITIAL_SPEED_MAX - INITIAL_SPEED_MIN);
             float sizeScale = 1f + Math.min(p.size / 300f, 0.35f); // up to +35% for big chunks
             speed *= sizeScale;
 
@@ -158,8 +187,8 @@ public class TankExplosion {
             float ax = 0f, ay = 1f, azz = 0f; // force Y axis spin only
             p.axis.set(ax, ay, azz);
 
-            float spin = 240f + (float) Math.random() * 600f;
-            if (Math.random() < 0.5f) {
+            float spin = 240f + random.nextFloat() * 600f;
+            if (random.nextBoolean()) {
                 spin = -spin;
             }
             p.spinDeg = spin;
@@ -169,9 +198,10 @@ public class TankExplosion {
         }
     }
 
-    public void update(float dt, TankSpawn spawn) {
+    public void update(float dt, GameEvents events) {
         boolean looksUninitialized = true;
-        for (Piece p : pieces) {
+        for (int i = 0, n = pieces.size(); i < n; i++) {
+            Piece p = pieces.get(i);
             if (!p.pos.isZero() || !p.vel.isZero() || p.spinDeg != 0f || p.groundedTime != 0f) {
                 looksUninitialized = false;
                 break;
@@ -187,7 +217,8 @@ public class TankExplosion {
 
         boolean allGrounded = true;
 
-        for (Piece p : pieces) {
+        for (int i = 0, n = pieces.size(); i < n; i++) {
+            Piece p = pieces.get(i);
 
             if (!p.grounded) {
 
@@ -242,7 +273,8 @@ public class TankExplosion {
 
         if (allGrounded) {
             boolean done = true;
-            for (Piece p : pieces) {
+            for (int i = 0, n = pieces.size(); i < n; i++) {
+                Piece p = pieces.get(i);
                 if (p.groundedTime < TTL_AFTER_SETTLE) {
                     done = false;
                     break;
@@ -250,29 +282,72 @@ public class TankExplosion {
             }
             finished = done;
 
-            if (done && spawn != null) {
-                spawn.spawn();
+            if (done && events != null) {
+                events.push(GameEvents.TANK_SPAWN);
             }
         }
     }
 
-    public void render(Camera cam, ModelBatch batch, Environment env) {
+    public void render(Camera cam, ModelBatch batch) {
         if (finished) {
             return;
         }
-        for (Piece p : pieces) {
+        for (int i = 0, n = pieces.size(); i < n; i++) {
+            Piece p = pieces.get(i);
             nearestWrappedPos(p.inst, cam.position.x, cam.position.z, TMP1);
-            if (cam.frustum.pointInFrustum(TMP1)) {
+            if (Culling.isVisible(cam, p.inst, TMP1)) {
                 p.inst.transform.val[Matrix4.M03] = TMP1.x;
                 p.inst.transform.val[Matrix4.M13] = TMP1.y;
                 p.inst.transform.val[Matrix4.M23] = TMP1.z;
-                batch.render(p.inst, env);
+                batch.render(p.inst);
+                RuntimeMetrics.countDrawn();
             }
         }
     }
 
+    void writeState(ByteBuffer out) {
+        QuickSave.putBoolean(out, pieces == tankPieces);
+        QuickSave.putBoolean(out, finished);
+        QuickSave.putVector(out, origin);
+        out.putLong(random.getState(0)).putLong(random.getState(1));
+        for (int i = 0, n = pieces.size(); i < n; i++) {
+            pieces.get(i).writeState(out);
+        }
+    }
+
+    void readState(ByteBuffer in) {
+        pieces = QuickSave.getBoolean(in) ? tankPieces : missilePieces;
+        finished = QuickSave.getBoolean(in);
+        QuickSave.getVector(in, origin);
+        random.setState(in.getLong(), in.getLong());
+        for (int i = 0, n = pieces.size(); i < n; i++) {
+            pieces.get(i).readState(in);
+        }
+    }
+
+    void capture(RenderSnapshot out) {
+        if (finished) {
+            return;
+        }
+        for (int i = 0, n = pieces.size(); i < n; i++) {
+            out.addProxy(pieces.get(i).inst);
+        }
+    }
+
+    void addTo(SharedCulling culling) {
+        if (finished) {
+            return;
+        }
+        for (int i = 0, n = pieces.size(); i < n; i++) {
+            culling.add(pieces.get(i).inst);
+        }
+    }
+
+    public int activePieces() {
+        return finished ? 0 : pieces.size();
+    }
+
     private static float computeHeight(ModelInstance inst) {
-        BoundingBox TMP_BB = new BoundingBox();
         inst.calculateBoundingBox(TMP_BB);
         TMP_BB.mul(inst.transform);
         TMP_BB.getDimensions(TMP1);
@@ -5,13 +5,15 @@ import static bzone.Models.Mesh.*;
 import com.badlogic.gdx.graphics.Color;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Random;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
+import java.nio.ByteBuffer;
 
 public class Tanks {
 
     private final Map<Mesh, BaseTank> map = new HashMap<>();
     private final Mesh[] meshes = new Mesh[]{SLOW_TANK, GIR_DRAXON, STALKER, HEAVY_TANK, PROWLER, HOVERCRAFT, SAND_SLED, LASER_TANK};
-    private Random random = new Random();
+    private final RandomXS128 random = new RandomXS128(MathUtils.random.nextLong());
     
     public Tanks(Projectile projectile) {
 
@@ -37,6 +39,50 @@ public class Tanks {
         map.put(Mesh.LASER_TANK, new LaserTank(t9, projectile));
     }
 
+    /**
+     * Seeds the choice of tank and every tank's own stream from the world's
+     * generator.
+     */
+    void seed(RandomXS128 from) {
+        random.setSeed(from.nextLong());
+        for (Mesh m : meshes) {
+            map.get(m).random.setSeed(from.nextLong());
+        }
+    }
+
+    /**
+     * Writes every tank, not just the current one, since each keeps its plan
+     * until it is picked again.
+     */
+    void writeState(ByteBuffer out, BaseTank current) {
+        out.putLong(random.getState(0)).putLong(random.getState(1));
+        out.putInt(indexOf(current));
+        for (Mesh m : meshes) {
+            map.get(m).writeState(out);
+        }
+    }
+
+    /**
+     * @return the current tank
+     */
+    BaseTank readState(ByteBuffer in) {
+        random.setState(in.getLong(), in.getLong());
+        BaseTank current = map.get(meshes[in.getInt()]);
+        for (Mesh m : meshes) {
+            map.get(m).readState(in);
+        }
+        return current;
+    }
+
+    private int indexOf(BaseTank tank) {
+        for (int i = 0; i < meshes.length; i++) {
+            if (map.get(meshes[i]) == tank) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
     public BaseTank nextTank(GameContext ctx) {
         
         if (ctx.missileCount >= 5 ) {
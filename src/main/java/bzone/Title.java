@@ -1,6 +1,5 @@
 package bzone;
 
-import com.badlogic.gdx.graphics.g3d.Environment;
 import com.badlogic.gdx.graphics.g3d.ModelBatch;
 import com.badlogic.gdx.math.Vector3;
 
@@ -21,7 +20,7 @@ public class Title {
         this.zone = zone;
     }
     
-    public void render(ModelBatch modelBatch, Environment environment) {
+    public void render(ModelBatch modelBatch) {
         
         if (pos.y >= 3000) {
             return;
@@ -34,9 +33,9 @@ public class Title {
         ttle.transform.idt().translate(pos.x, pos.y, pos.z).rotate(Vector3.X, -150);
         zone.transform.idt().translate(pos.x, pos.y, pos.z).rotate(Vector3.X, -150);
 
-        modelBatch.render(this.ba, environment);
-        modelBatch.render(this.ttle, environment);
-        modelBatch.render(this.zone, environment);
+        modelBatch.render(this.ba);
+        modelBatch.render(this.ttle);
+        modelBatch.render(this.zone);
     }
 
 }
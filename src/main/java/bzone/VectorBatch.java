@@ -0,0 +1,246 @@
+package bzone;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+
+/**
+ * Batches the vector overlay (radar, background lines, volcano sparks,
+ * spatter) for a whole pass into one dynamic buffer.
+ *
+ * Unlike {@link com.badlogic.gdx.graphics.glutils.ShapeRenderer} nothing is
+ * drawn when switching between lines and filled shapes: vertices go into one
+ * bucket per primitive type (filled triangles, then lines per line width) and
+ * {@link #end} uploads them all at once and issues one draw per non-empty
+ * bucket. Filled shapes are drawn first so outlines always land on top.
+ */
+public class VectorBatch {
+
+    private static final String VERTEX_SHADER
+            = "attribute vec4 " + ShaderProgram.POSITION_ATTRIBUTE + ";\n"
+            + "attribute vec4 " + ShaderProgram.COLOR_ATTRIBUTE + ";\n"
+            + "uniform mat4 u_projTrans;\n"
+            + "varying vec4 v_color;\n"
+            + "void main() {\n"
+            + "    v_color = " + ShaderProgram.COLOR_ATTRIBUTE + ";\n"
+            + "    gl_Position = u_projTrans * " + ShaderProgram.POSITION_ATTRIBUTE + ";\n"
+            + "}\n";
+
+    private static final String FRAGMENT_SHADER
+            = "#ifdef GL_ES\n"
+            + "precision mediump float;\n"
+            + "#endif\n"
+            + "varying vec4 v_color;\n"
+            + "void main() {\n"
+            + "    gl_FragColor = v_color;\n"
+            + "}\n";
+
+    public static final int MAX_LINE_WIDTH = 3;
+
+    private static final int FLOATS_PER_VERTEX = 4; // x, y, z, packed colour
+    private static final int BUCKET_VERTICES = 4096;
+
+    private static final int FILLED = 0; // buckets 1..MAX_LINE_WIDTH hold lines of that width
+    private static final int BUCKETS = MAX_LINE_WIDTH + 1;
+
+    private final ShaderProgram shader;
+    private final Mesh mesh;
+    private final float[][] buckets = new float[BUCKETS][BUCKET_VERTICES * FLOATS_PER_VERTEX];
+    private final int[] used = new int[BUCKETS];
+    private final float[] upload = new float[BUCKETS * BUCKET_VERTICES * FLOATS_PER_VERTEX];
+
+    private final Matrix4 projection = new Matrix4();
+    private float color = Color.WHITE.toFloatBits();
+    private int lineBucket = 1;
+    private boolean drawing;
+
+    public VectorBatch() {
+        shader = createShader();
+        mesh = new Mesh(false, BUCKETS * BUCKET_VERTICES, 0,
+                new VertexAttribute(VertexAttributes.Usage.Position, 3, ShaderProgram.POSITION_ATTRIBUTE),
+                new VertexAttribute(VertexAttributes.Usage.ColorPacked, 4, ShaderProgram.COLOR_ATTRIBUTE));
+    }
+
+    /**
+     * Flat-coloured line shader shared with {@link Hud}. The position attribute
+     * is a vec4 so meshes with 2 or 3 position components can both use it.
+     */
+    static ShaderProgram createShader() {
+        ShaderProgram program = new ShaderProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        if (!program.isCompiled()) {
+            throw new IllegalStateException("line shader: " + program.getLog());
+        }
+        return program;
+    }
+
+    public void begin(Matrix4 projection) {
+        if (drawing) {
+            throw new IllegalStateException("VectorBatch.end must be called before begin.");
+        }
+        this.projection.set(projection);
+        this.lineBucket = 1;
+        this.drawing = true;
+    }
+
+    public void end() {
+        if (!drawing) {
+            throw new IllegalStateException("VectorBatch.begin must be called before end.");
+        }
+        flush();
+        drawing = false;
+    }
+
+    public void setColor(Color c) {
+        this.color = c.toFloatBits();
+    }
+
+    public void setColor(float r, float g, float b, float a) {
+        this.color = Color.toFloatBits(r, g, b, a);
+    }
+
+    /**
+     * Line width for the lines that follow, 1 to {@link #MAX_LINE_WIDTH}.
+     */
+    public void setLineWidth(int width) {
+        this.lineBucket = MathUtils.clamp(width, 1, MAX_LINE_WIDTH);
+    }
+
+    public void line(float x1, float y1, float x2, float y2) {
+        line(x1, y1, 0f, x2, y2, 0f);
+    }
+
+    public void line(float x1, float y1, float z1, float x2, float y2, float z2) {
+        ensure(lineBucket, 2);
+        vertex(lineBucket, x1, y1, z1);
+        vertex(lineBucket, x2, y2, z2);
+    }
+
+    /**
+     * Circle outline, segmented the same way ShapeRenderer does.
+     */
+    public void circle(float x, float y, float radius) {
+        int segments = segments(radius);
+        ensure(lineBucket, segments * 2);
+        float step = MathUtils.PI2 / segments;
+        float px = x + radius, py = y;
+        for (int i = 1; i <= segments; i++) {
+            float a = i * step;
+            float nx = x + MathUtils.cos(a) * radius;
+            float ny = y + MathUtils.sin(a) * radius;
+            vertex(lineBucket, px, py, 0f);
+            vertex(lineBucket, nx, ny, 0f);
+            px = nx;
+            py = ny;
+        }
+    }
+
+    /**
+     * Filled circle, also used for point-like blips and sparks.
+     */
+    public void disc(float x, float y, float radius) {
+        int segments = segments(radius);
+        ensure(FILLED, segments * 3);
+        float step = MathUtils.PI2 / segments;
+        float px = x + radius, py = y;
+        for (int i = 1; i <= segments; i++) {
+            float a = i * step;
+            float nx = x + MathUtils.cos(a) * radius;
+            float ny = y + MathUtils.sin(a) * radius;
+            vertex(FILLED, x, y, 0f);
+            vertex(FILLED, px, py, 0f);
+            vertex(FILLED, nx, ny, 0f);
+            px = nx;
+            py = ny;
+        }
+    }
+
+    /**
+     * Wireframe box with its minimum corner at (x, y, z).
+     */
+    public void box(float x, float y, float z, float width, float height, float depth) {
+        float x2 = x + width, y2 = y + height, z2 = z + depth;
+
+        line(x, y, z, x2, y, z);
+        line(x2, y, z, x2, y, z2);
+        line(x2, y, z2, x, y, z2);
+        line(x, y, z2, x, y, z);
+
+        line(x, y2, z, x2, y2, z);
+        line(x2, y2, z, x2, y2, z2);
+        line(x2, y2, z2, x, y2, z2);
+        line(x, y2, z2, x, y2, z);
+
+        line(x, y, z, x, y2, z);
+        line(x2, y, z, x2, y2, z);
+        line(x2, y, z2, x2, y2, z2);
+        line(x, y, z2, x, y2, z2);
+    }
+
+    public void dispose() {
+        mesh.dispose();
+        shader.dispose();
+    }
+
+    private static int segments(float radius) {
+        return Math.max(1, (int) (6 * (float) Math.cbrt(radius)));
+    }
+
+    private void ensure(int bucket, int vertices) {
+        if (used[bucket] + vertices * FLOATS_PER_VERTEX > buckets[bucket].length) {
+            flush();
+        }
+    }
+
+    private void vertex(int bucket, float x, float y, float z) {
+        float[] v = buckets[bucket];
+        int o = used[bucket];
+        v[o] = x;
+        v[o + 1] = y;
+        v[o + 2] = z;
+        v[o + 3] = color;
+        used[bucket] = o + FLOATS_PER_VERTEX;
+    }
+
+    private void flush() {
+        int total = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            System.arraycopy(buckets[b], 0, upload, total, used[b]);
+            total += used[b];
+        }
+        if (total == 0) {
+            return;
+        }
+
+        mesh.setVertices(upload, 0, total);
+
+        shader.bind();
+        shader.setUniformMatrix("u_projTrans", projection);
+        mesh.bind(shader);
+
+        int offset = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            int count = used[b] / FLOATS_PER_VERTEX;
+            if (count == 0) {
+                continue;
+            }
+            if (b == FILLED) {
+                mesh.render(shader, GL20.GL_TRIANGLES, offset, count, false);
+            } else {
+                Gdx.gl.glLineWidth(b);
+                mesh.render(shader, GL20.GL_LINES, offset, count, false);
+            }
+            offset += count;
+            used[b] = 0;
+        }
+        Gdx.gl.glLineWidth(1);
+
+        mesh.unbind(shader);
+        RuntimeMetrics.countVectorFlush();
+    }
+}
@@ -0,0 +1,291 @@
+package bzone;
+
+import static bzone.BattleZone.to16;
+import static bzone.BattleZone.wrapDelta16;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Vector3;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Several headless {@link GameWorld}s stepped in lock-step for training
+ * agents, in the manner of a vectorised gym environment: {@link #reset} once,
+ * then {@link #step} with one action per world, reading {@link #observations},
+ * {@link #rewards} and {@link #dones} after each step.
+ *
+ * An action is a set of {@link PlayerMotion} control bits, fire included, held
+ * for one tick. A world whose game is over, out of lives or out of ticks, is
+ * flagged in {@link #dones} and restarted at once, so its observation is
+ * already the first of the next game.
+ *
+ * Observations are {@link #OBS_SIZE} floats per world, laid out one world after
+ * another in a single array: the player's heading as the sine and cosine of
+ * its angle from +Z, whether it is alive and its lives, then for each enemy,
+ * the nearest obstacle and each projectile whether it is there and its
+ * bearing and distance from the player. Bearings are given
+ * relative to the heading as a sine, positive to the right, and a cosine,
+ * positive ahead; distances are fractions of the furthest anything can be on
+ * the wrapped world.
+ *
+ * With {@code parallel} the worlds step on the common {@link ForkJoinPool},
+ * one task per world. Each world draws only from its own random number
+ * generators, seeded by {@link #reset}, so parallel steps replay the same
+ * games as serial ones. The worlds are {@link GameWorld#muted}, as several
+ * at once would drive the audio backend from several threads. Every array
+ * and task is allocated up front, so steps and restarts allocate nothing.
+ */
+public final class VectorEnv {
+
+    public static final int HEADING_SIN = 0;
+    public static final int HEADING_COS = 1;
+    public static final int ALIVE = 2;
+    public static final int LIVES = 3;
+
+    /**
+     * Slots of {@link #SLOT_SIZE} floats after the player's, each laid out as
+     * {@link #PRESENT}, {@link #BEARING_SIN}, {@link #BEARING_COS} and
+     * {@link #DISTANCE}.
+     */
+    public static final int TANK = 0, FLYER = 1, MISSILE = 2, SAUCER = 3, OBSTACLE = 4,
+            PLAYER_SHOT = 5, TANK_SHOT = 6, FLYER_SHOT = 7;
+    public static final int SLOTS = 8;
+
+    public static final int PRESENT = 0, BEARING_SIN = 1, BEARING_COS = 2, DISTANCE = 3;
+    public static final int SLOT_SIZE = 4;
+
+    private static final int FIRST_SLOT = 4;
+    public static final int OBS_SIZE = FIRST_SLOT + SLOTS * SLOT_SIZE;
+
+    private static final float MAX_DISTANCE = Radar.RADAR_RANGE_UNITS;
+
+    /**
+     * Turns one world's score and lives changes over a step into a reward.
+     */
+    public interface Reward {
+
+        float reward(GameContext ctx, int scoreGained, int livesLost);
+    }
+
+    /**
+     * A point per thousand scored, ten lost per life.
+     */
+    public static final Reward SCORE_AND_LIVES = (ctx, scoreGained, livesLost) -> scoreGained / 1000f - 10f * livesLost;
+
+    public final float[] observations;
+    public final float[] rewards;
+    public final boolean[] dones;
+
+    /**
+     * Called for every world after every step.
+     */
+    public Reward reward = SCORE_AND_LIVES;
+
+    private final int envs;
+    private final int maxTicks;
+    private final boolean parallel;
+
+    private final GameWorld[] worlds;
+    private final ByteBuffer[] initial;
+    private final int[] ticks;
+    private final int[] lastScore;
+    private final int[] lastLives;
+    private final ForkJoinTask<?>[] tasks;
+    private final RandomXS128 seeds = new RandomXS128();
+
+    private int[] actions;
+
+    /**
+     * @param envs worlds stepped together
+     * @param maxTicks ticks after which a game is over even with lives left
+     * @param parallel steps the worlds on the common fork-join pool
+     */
+    public VectorEnv(int envs, int maxTicks, boolean parallel) {
+        this.envs = envs;
+        this.maxTicks = maxTicks;
+        this.parallel = parallel;
+        this.observations = new float[envs * OBS_SIZE];
+        this.rewards = new float[envs];
+        this.dones = new boolean[envs];
+        this.worlds = new GameWorld[envs];
+        this.ticks = new int[envs];
+        this.lastScore = new int[envs];
+        this.lastLives = new int[envs];
+        this.tasks = new ForkJoinTask<?>[envs];
+        for (int i = 0; i < envs; i++) {
+            worlds[i] = new GameWorld();
+            worlds[i].muted = true;
+            final int env = i;
+            tasks[i] = ForkJoinTask.adapt(() -> stepWorld(env));
+        }
+
+        // one view of the new world's state per world, so worlds restarting
+        // at the same time each read from their own position
+        ByteBuffer state = ByteBuffer.allocate(QuickSave.MAX_STATE_BYTES);
+        worlds[0].writeState(state);
+        this.initial = new ByteBuffer[envs];
+        for (int i = 0; i < envs; i++) {
+            initial[i] = state.duplicate();
+        }
+    }
+
+    public int size() {
+        return envs;
+    }
+
+    public GameWorld world(int env) {
+        return worlds[env];
+    }
+
+    /**
+     * Seeds every world, each with a seed of its own drawn from the given
+     * one, and starts a new game in each.
+     */
+    public void reset(long seed) {
+        seeds.setSeed(seed);
+        for (int i = 0; i < envs; i++) {
+            worlds[i].seed(seeds.nextLong());
+            restart(i);
+            dones[i] = false;
+            rewards[i] = 0f;
+            observe(i);
+        }
+    }
+
+    /**
+     * Runs one tick of every world.
+     *
+     * @param actions {@link PlayerMotion} control bits for each world
+     */
+    public void step(int[] actions) {
+        this.actions = actions;
+        if (parallel) {
+            ForkJoinPool pool = ForkJoinPool.commonPool();
+            for (int i = 1; i < envs; i++) {
+                tasks[i].reinitialize();
+                pool.execute(tasks[i]);
+            }
+            tasks[0].reinitialize();
+            tasks[0].invoke();
+            for (int i = 1; i < envs; i++) {
+                tasks[i].join();
+            }
+        } else {
+            for (int i = 0; i < envs; i++) {
+                stepWorld(i);
+            }
+        }
+    }
+
+    private void stepWorld(int env) {
+        GameWorld world = worlds[env];
+        GameContext ctx = world.context;
+        int controls = actions[env];
+
+        world.turnLeft = (controls & PlayerMotion.TURN_LEFT) != 0;
+        world.turnRight = (controls & PlayerMotion.TURN_RIGHT) != 0;
+        world.moveForward = (controls & PlayerMotion.FORWARD) != 0;
+        world.moveBackward = (controls & PlayerMotion.BACKWARD) != 0;
+        if ((controls & PlayerMotion.FIRE) != 0 && ctx.alive) {
+            world.firePlayer();
+        }
+        world.tick(SimulationThread.TICK_SECONDS);
+        ticks[env]++;
+
+        rewards[env] = reward.reward(ctx, ctx.playerScore - lastScore[env], lastLives[env] - ctx.lives);
+        lastScore[env] = ctx.playerScore;
+        lastLives[env] = ctx.lives;
+
+        dones[env] = ctx.lives <= 0 || ticks[env] >= maxTicks;
+        if (dones[env]) {
+            restart(env);
+        }
+        observe(env);
+    }
+
+    private void restart(int env) {
+        GameWorld world = worlds[env];
+        world.restart(initial[env]);
+        ticks[env] = 0;
+        lastScore[env] = world.context.playerScore;
+        lastLives[env] = world.context.lives;
+    }
+
+    private void observe(int env) {
+        GameWorld world = worlds[env];
+        GameContext ctx = world.context;
+        float[] obs = observations;
+        int o = env * OBS_SIZE;
+
+        Vector3 dir = world.playerDir;
+        float px = world.playerPos.x;
+        float pz = world.playerPos.z;
+
+        obs[o + HEADING_SIN] = dir.x;
+        obs[o + HEADING_COS] = dir.z;
+        obs[o + ALIVE] = ctx.alive ? 1f : 0f;
+        obs[o + LIVES] = ctx.lives;
+
+        o += FIRST_SLOT;
+        slot(obs, o + TANK * SLOT_SIZE, world.tank.alive, world.tank.pos.x, world.tank.pos.z, px, pz, dir);
+        slot(obs, o + FLYER * SLOT_SIZE, world.flyer.alive, world.flyer.pos.x, world.flyer.pos.z, px, pz, dir);
+        slot(obs, o + MISSILE * SLOT_SIZE, world.missile.active, world.missile.pos.x, world.missile.pos.z, px, pz, dir);
+        slot(obs, o + SAUCER * SLOT_SIZE, world.saucer.active, world.saucer.pos.x, world.saucer.pos.z, px, pz, dir);
+        nearestObstacle(obs, o + OBSTACLE * SLOT_SIZE, world.obstacles, px, pz, dir);
+        shot(obs, o + PLAYER_SHOT * SLOT_SIZE, world.playerProjectile, px, pz, dir);
+        shot(obs, o + TANK_SHOT * SLOT_SIZE, world.tankProjectile, px, pz, dir);
+        shot(obs, o + FLYER_SHOT * SLOT_SIZE, world.flyerProjectile, px, pz, dir);
+    }
+
+    private static void shot(float[] obs, int o, Projectile p, float px, float pz, Vector3 dir) {
+        slot(obs, o, p.active, p.inst.getX(), p.inst.getZ(), px, pz, dir);
+    }
+
+    private static void nearestObstacle(float[] obs, int o, List<GameModelInstance> obstacles,
+            float px, float pz, Vector3 dir) {
+        float best = Float.MAX_VALUE;
+        float bx = 0f, bz = 0f;
+        for (int i = 0, n = obstacles.size(); i < n; i++) {
+            GameModelInstance inst = obstacles.get(i);
+            float dx = wrapDelta16(to16(inst.initialPos.x) - to16(px));
+            float dz = wrapDelta16(to16(inst.initialPos.z) - to16(pz));
+            float d2 = dx * dx + dz * dz;
+            if (d2 < best) {
+                best = d2;
+                bx = dx;
+                bz = dz;
+            }
+        }
+        relative(obs, o, bx, bz, dir);
+    }
+
+    private static void slot(float[] obs, int o, boolean present, float x, float z,
+            float px, float pz, Vector3 dir) {
+        if (!present) {
+            obs[o + PRESENT] = 0f;
+            obs[o + BEARING_SIN] = 0f;
+            obs[o + BEARING_COS] = 0f;
+            obs[o + DISTANCE] = 0f;
+            return;
+        }
+        relative(obs, o, wrapDelta16(to16(x) - to16(px)), wrapDelta16(to16(z) - to16(pz)), dir);
+    }
+
+    /**
+     * Bearing of an offset from the player relative to its heading, and its
+     * distance.
+     */
+    private static void relative(float[] obs, int o, float dx, float dz, Vector3 dir) {
+        float d = (float) Math.sqrt(dx * dx + dz * dz);
+        obs[o + PRESENT] = 1f;
+        if (d == 0f) {
+            obs[o + BEARING_SIN] = 0f;
+            obs[o + BEARING_COS] = 1f;
+        } else {
+            obs[o + BEARING_SIN] = (dz * dir.x - dx * dir.z) / d;
+            obs[o + BEARING_COS] = (dx * dir.x + dz * dir.z) / d;
+        }
+        obs[o + DISTANCE] = Math.min(d / MAX_DISTANCE, 1f);
+    }
+}
@@ -0,0 +1,45 @@
+import bzone.Autopilot;
+import bzone.GameWorld;
+import bzone.Headless;
+import static bzone.BattleZone.to16;
+import static bzone.BattleZone.wrapDelta16;
+import com.badlogic.gdx.math.MathUtils;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Lets the autopilot play a headless world for a few minutes of game time and
+ * checks it drives around, lines up on enemies and scores without a human at
+ * the controls.
+ */
+public class AutopilotTest {
+
+    private static final int TICKS = 5 * 60 * 60;
+
+    @Test
+    public void autopilotHuntsAndScores() {
+        Headless.init();
+        MathUtils.random.setSeed(11);
+        GameWorld world = new GameWorld();
+        Autopilot pilot = new Autopilot();
+
+        float travelled = 0f;
+        for (int i = 0; i < TICKS; i++) {
+            float x = world.playerPos.x, z = world.playerPos.z;
+            boolean alive = world.context.alive;
+            pilot.drive(world);
+            world.tick(TestWorlds.DT);
+            // only distance driven while alive, not deaths and respawns,
+            // measured the short way across the world's wrap
+            if (alive && world.context.alive) {
+                float dx = wrapDelta16(to16(world.playerPos.x) - to16(x));
+                float dz = wrapDelta16(to16(world.playerPos.z) - to16(z));
+                travelled += (float) Math.sqrt(dx * dx + dz * dz);
+            }
+        }
+
+        assertTrue(travelled > 10_000f, "travelled " + travelled);
+        assertTrue(pilot.engagements() > 0, "engaged " + pilot.engagements() + " times");
+        assertTrue(world.context.playerScore > 0, "scored " + world.context.playerScore);
+    }
+}
@@ -0,0 +1,25 @@
+
+import bzone.BenchmarkScenario;
+import bzone.ScenarioReport;
+import bzone.ScenarioRunner;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Plays every scripted scenario headless to the end and checks that each held
+ * the world as it means to on every tick.
+ */
+public class BenchmarkScenarioTest {
+
+    @Test
+    public void everyScenarioHoldsToTheEnd() {
+        for (BenchmarkScenario scenario : BenchmarkScenario.values()) {
+            ScenarioReport report = ScenarioRunner.run(scenario);
+
+            assertTrue(report.done(), scenario.name());
+            assertEquals(report.scenario(), scenario);
+            assertEquals(report.offScriptTicks(), 0, report.toString());
+        }
+    }
+}
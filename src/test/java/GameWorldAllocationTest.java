@@ -0,0 +1,25 @@
+
+import bzone.GameWorld;
+import bzone.Headless;
+import org.testng.annotations.Test;
+
+/**
+ * Ticks a headless world through thousands of steady-state frames and checks
+ * that the simulation thread allocates nothing at all once warmed up.
+ */
+public class GameWorldAllocationTest {
+
+    @Test
+    public void steadyStateTicksDoNotAllocate() throws Exception {
+        Headless.init();
+        GameWorld world = new GameWorld();
+
+        // drive in a wide circle and keep firing so movement blocking, the
+        // player projectile and enemy hits are all exercised
+        world.moveForward = true;
+        world.turnLeft = true;
+
+        TestWorlds.assertNoAllocation(TestWorlds.WARMUP_TICKS, TestWorlds.MEASURED_TICKS,
+                i -> TestWorlds.tick(world, i));
+    }
+}
@@ -0,0 +1,106 @@
+
+import bzone.GameWorld;
+import bzone.Headless;
+import bzone.MultiplayerClient;
+import bzone.MultiplayerServer;
+import bzone.NetSnapshot;
+import bzone.PlayerMotion;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Runs a server and loopback clients in one thread, stepping the server by
+ * hand: both players see each other, the server applies the inputs the
+ * clients send, each client's prediction lands where the server puts its
+ * tank, and steady-state networking allocates nothing.
+ */
+public class MultiplayerLoopbackTest {
+
+    @Test
+    public void clientsShareTheWorldAndPredictTheServer() throws IOException {
+        Headless.init();
+        GameWorld local = new GameWorld();
+
+        try (MultiplayerServer server = new MultiplayerServer(0);
+                MultiplayerClient a = new MultiplayerClient(address(server), local.context.collisionChecker);
+                MultiplayerClient b = new MultiplayerClient(address(server), local.context.collisionChecker)) {
+
+            a.join();
+            b.join();
+            server.step();
+            a.poll();
+            b.poll();
+            assertEquals(a.playerId(), 0);
+            assertEquals(b.playerId(), 1);
+            assertEquals(server.world().playerCount(), 2);
+
+            // spawned on the first tick after joining
+            server.step();
+            a.poll();
+            b.poll();
+            assertTrue(a.alive);
+            assertTrue(b.alive);
+
+            for (int i = 0; i < 120; i++) {
+                a.sendInput(PlayerMotion.FORWARD);
+                b.sendInput(PlayerMotion.TURN_LEFT);
+                server.step();
+                a.poll();
+                b.poll();
+            }
+
+            NetSnapshot seenByB = b.snapshot();
+            assertTrue(seenByB.indexOf(a.playerId()) >= 0);
+            assertTrue(seenByB.indexOf(b.playerId()) >= 0);
+            assertEquals(b.headingDeg, 60f, 0.01f);
+
+            // predict one tick ahead of the server, then let it catch up
+            a.sendInput(PlayerMotion.FORWARD);
+            float predictedX = a.pos.x, predictedZ = a.pos.z;
+
+            server.step();
+            a.poll();
+            int i = a.snapshot().indexOf(a.playerId());
+            assertEquals(a.snapshot().x[i], predictedX, 1f);
+            assertEquals(a.snapshot().z[i], predictedZ, 1f);
+
+            a.leave();
+            server.step();
+            assertEquals(server.world().playerCount(), 1);
+        }
+    }
+
+    @Test
+    public void steadyStateNetworkingDoesNotAllocate() throws Exception {
+        Headless.init();
+        GameWorld local = new GameWorld();
+
+        // two clients, so the server hears from more than one address
+        try (MultiplayerServer server = new MultiplayerServer(0);
+                MultiplayerClient a = new MultiplayerClient(address(server), local.context.collisionChecker);
+                MultiplayerClient b = new MultiplayerClient(address(server), local.context.collisionChecker)) {
+
+            a.join();
+            b.join();
+            TestWorlds.assertNoAllocation(TestWorlds.WARMUP_TICKS, TestWorlds.MEASURED_TICKS,
+                    i -> tick(server, a, b, i));
+            assertEquals(server.world().playerCount(), 2);
+        }
+    }
+
+    private static void tick(MultiplayerServer server, MultiplayerClient a, MultiplayerClient b, int i) throws IOException {
+        int fire = (i & 31) == 0 ? PlayerMotion.FIRE : 0;
+        a.sendInput(PlayerMotion.FORWARD | PlayerMotion.TURN_LEFT | fire);
+        b.sendInput(PlayerMotion.FORWARD | PlayerMotion.TURN_RIGHT | fire);
+        server.step();
+        a.poll();
+        b.poll();
+    }
+
+    private static InetSocketAddress address(MultiplayerServer server) throws IOException {
+        return new InetSocketAddress("127.0.0.1", server.port());
+    }
+}
@@ -0,0 +1,66 @@
+
+import bzone.GameWorld;
+import bzone.Headless;
+import bzone.PolarOccupancy;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Keeps a polar grid up to date through a few thousand ticks of play and
+ * checks after each one that it counts everything in the world, and that it
+ * matches a grid built from scratch at that moment.
+ */
+public class PolarOccupancyTest {
+
+    private static final int TICKS = 3_000;
+
+    @Test
+    public void incrementalGridMatchesFreshOne() {
+        Headless.init();
+        GameWorld world = new GameWorld();
+        world.moveForward = true;
+        world.turnLeft = true;
+
+        PolarOccupancy grid = new PolarOccupancy(16, 8);
+        for (int i = 0; i < TICKS; i++) {
+            // stand still now and then so the untouched path runs too
+            world.moveForward = (i / 200) % 2 == 0;
+            world.turnLeft = world.moveForward;
+            TestWorlds.tick(world, i);
+            grid.update(world);
+
+            assertEquals(layerTotal(grid, PolarOccupancy.OBSTACLES), (float) GameWorld.OBSTACLE_COUNT);
+            assertEquals(layerTotal(grid, PolarOccupancy.ENEMIES), (float) world.liveEnemies());
+            assertEquals(layerTotal(grid, PolarOccupancy.SHOTS), (float) world.activeProjectiles());
+
+            if (i % 100 == 0) {
+                PolarOccupancy fresh = new PolarOccupancy(16, 8);
+                fresh.update(world);
+                for (int k = 0; k < grid.grid.capacity(); k++) {
+                    assertEquals(grid.grid.get(k), fresh.grid.get(k), "cell " + k + " at tick " + i);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void obstaclesOutOfRangeAreLeftOut() {
+        Headless.init();
+        GameWorld world = new GameWorld();
+
+        PolarOccupancy near = new PolarOccupancy(8, 4, 4000f);
+        near.update(world);
+        assertTrue(layerTotal(near, PolarOccupancy.OBSTACLES) < GameWorld.OBSTACLE_COUNT);
+    }
+
+    private static float layerTotal(PolarOccupancy grid, int layer) {
+        float total = 0f;
+        for (int ring = 0; ring < grid.rings; ring++) {
+            for (int sector = 0; sector < grid.sectors; sector++) {
+                total += grid.at(layer, ring, sector);
+            }
+        }
+        return total;
+    }
+}
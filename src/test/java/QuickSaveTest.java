@@ -0,0 +1,125 @@
+import bzone.GameWorld;
+import bzone.Headless;
+import bzone.QuickSave;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+import org.testng.annotations.Test;
+
+/**
+ * Saves a world mid-game, plays on, loads the save back and plays the same
+ * ticks again; both runs must end in the same state. A save cut short on
+ * disk, or whose state is not a world's, must be refused without touching
+ * the world.
+ */
+public class QuickSaveTest {
+
+    @Test
+    public void loadReplaysIdentically() throws Exception {
+        Headless.init();
+        GameWorld world = new GameWorld();
+        world.moveForward = true;
+        world.turnLeft = true;
+        TestWorlds.runTicks(world, 3000);
+
+        Path file = Files.createTempFile("bzone", ".sav");
+        try (QuickSave slot = new QuickSave(file)) {
+            slot.save(world);
+
+            TestWorlds.runTicks(world, 2000);
+            float x = world.playerPos.x, z = world.playerPos.z;
+            int score = world.context.playerScore;
+            int lives = world.context.lives;
+            long nmi = world.context.nmiCount;
+            int enemies = world.liveEnemies();
+
+            assertTrue(slot.load(world));
+            TestWorlds.runTicks(world, 2000);
+
+            assertEquals(world.playerPos.x, x);
+            assertEquals(world.playerPos.z, z);
+            assertEquals(world.context.playerScore, score);
+            assertEquals(world.context.lives, lives);
+            assertEquals(world.context.nmiCount, nmi);
+            assertEquals(world.liveEnemies(), enemies);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void truncatedSaveIsRefused() throws Exception {
+        Headless.init();
+        GameWorld world = new GameWorld();
+        TestWorlds.runTicks(world, 600);
+
+        Path file = Files.createTempFile("bzone", ".sav");
+        try {
+            try (QuickSave slot = new QuickSave(file)) {
+                slot.save(world);
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(64);
+            }
+            try (QuickSave slot = new QuickSave(file)) {
+                slot.load(world);
+                fail("loaded a truncated save");
+            } catch (IOException expected) {
+                assertTrue(expected.getMessage().startsWith("Truncated"), expected.getMessage());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void shortStateIsRefusedWithoutTouchingTheWorld() throws Exception {
+        Headless.init();
+        GameWorld saved = new GameWorld();
+        TestWorlds.runTicks(saved, 600);
+        GameWorld world = new GameWorld();
+        TestWorlds.runTicks(world, 1200);
+
+        Path file = Files.createTempFile("bzone", ".sav");
+        try {
+            try (QuickSave slot = new QuickSave(file)) {
+                slot.save(saved);
+            }
+            // the header claims less state than a world holds, well inside the file
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                ByteBuffer length = ByteBuffer.allocate(4).putInt(0, 200);
+                channel.write(length, 8);
+            }
+
+            float x = world.playerPos.x, z = world.playerPos.z;
+            float heading = world.headingDeg;
+            int score = world.context.playerScore;
+            int lives = world.context.lives;
+            long nmi = world.context.nmiCount;
+            int enemies = world.liveEnemies();
+
+            try (QuickSave slot = new QuickSave(file)) {
+                slot.load(world);
+                fail("loaded a save with a short state");
+            } catch (IOException expected) {
+                assertTrue(expected.getMessage().startsWith("Quick save holds"), expected.getMessage());
+            }
+
+            assertEquals(world.playerPos.x, x);
+            assertEquals(world.playerPos.z, z);
+            assertEquals(world.headingDeg, heading);
+            assertEquals(world.context.playerScore, score);
+            assertEquals(world.context.lives, lives);
+            assertEquals(world.context.nmiCount, nmi);
+            assertEquals(world.liveEnemies(), enemies);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
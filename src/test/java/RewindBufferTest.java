@@ -0,0 +1,61 @@
+import bzone.GameWorld;
+import bzone.Headless;
+import bzone.RewindBuffer;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Records a few seconds of play, seeks back into them and checks the world
+ * matches what it was at that tick, and that replaying from there gives the
+ * same result as the first time.
+ */
+public class RewindBufferTest {
+
+    private static final int CAPACITY = 300;
+
+    @Test
+    public void seekRestoresRecordedTicks() {
+        Headless.init();
+        GameWorld world = new GameWorld();
+        world.moveForward = true;
+        world.turnLeft = true;
+
+        RewindBuffer rewind = new RewindBuffer(CAPACITY, 60);
+        for (int i = 0; i < 1000; i++) {
+            tick(world, rewind, i);
+        }
+        long newest = rewind.newestTick();
+        assertEquals(rewind.oldestTick(), newest - CAPACITY + 1);
+        assertFalse(rewind.seek(world, newest - CAPACITY));
+
+        long target = newest - 200;
+        assertTrue(rewind.seek(world, target));
+        assertEquals(world.context.nmiCount, target);
+        float x = world.playerPos.x, z = world.playerPos.z;
+
+        for (int i = 0; i < 100; i++) {
+            tick(world, rewind, i);
+        }
+        float laterX = world.playerPos.x, laterZ = world.playerPos.z;
+        int laterScore = world.context.playerScore;
+        assertEquals(rewind.newestTick(), target + 100);
+
+        assertTrue(rewind.seek(world, target));
+        assertEquals(world.playerPos.x, x);
+        assertEquals(world.playerPos.z, z);
+
+        for (int i = 0; i < 100; i++) {
+            tick(world, rewind, i);
+        }
+        assertEquals(world.playerPos.x, laterX);
+        assertEquals(world.playerPos.z, laterZ);
+        assertEquals(world.context.playerScore, laterScore);
+    }
+
+    private static void tick(GameWorld world, RewindBuffer rewind, int i) {
+        TestWorlds.tick(world, i);
+        rewind.record(world);
+    }
+}
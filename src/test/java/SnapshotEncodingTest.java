@@ -0,0 +1,79 @@
+
+import bzone.Headless;
+import bzone.MultiplayerWorld;
+import bzone.NetPlayer;
+import bzone.NetProtocol;
+import bzone.NetSnapshot;
+import bzone.SnapshotDecoder;
+import bzone.SnapshotEncoder;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Encodes a full server's snapshots for one player tick after tick, each
+ * against the one before, decodes them like a client and checks what comes
+ * out matches the world, and that deltas stay small.
+ */
+public class SnapshotEncodingTest {
+
+    private static final int TICKS = 200;
+
+    @Test
+    public void deltasDecodeToTheWorld() {
+        MultiplayerWorld mw = fullWorld();
+        NetPlayer to = mw.player(0);
+        SnapshotEncoder encoder = new SnapshotEncoder();
+        SnapshotDecoder decoder = new SnapshotDecoder();
+        NetSnapshot snapshot = new NetSnapshot();
+        ByteBuffer buf = ByteBuffer.allocateDirect(NetProtocol.PACKET_BYTES);
+
+        int fullBytes = 0;
+        int maxDeltaBytes = 0;
+        for (int t = 0; t < TICKS; t++) {
+            mw.tick(TestWorlds.DT);
+            buf.clear();
+            encoder.encode(buf, mw, to, snapshot.tick);
+            int bytes = buf.position();
+            if (t == 0) {
+                fullBytes = bytes;
+            } else {
+                maxDeltaBytes = Math.max(maxDeltaBytes, bytes);
+            }
+
+            buf.flip();
+            buf.position(NetProtocol.HEADER_BYTES);
+            assertTrue(decoder.decode(buf, snapshot));
+            assertEquals(snapshot.tick, mw.tick());
+        }
+
+        // the radar range takes in the whole world
+        for (int id = 0; id < MultiplayerWorld.MAX_PLAYERS; id++) {
+            NetPlayer p = mw.player(id);
+            int i = snapshot.indexOf(id);
+            assertEquals(i >= 0, p.alive);
+            if (i >= 0 && p != to) {
+                assertEquals(snapshot.x[i], (float) (Math.round(p.pos.x) & 0xFFFF));
+                assertEquals(snapshot.z[i], (float) (Math.round(p.pos.z) & 0xFFFF));
+            }
+        }
+        int own = snapshot.indexOf(to.id);
+        assertEquals(snapshot.x[own], to.pos.x);
+        assertEquals(snapshot.z[own], to.pos.z);
+
+        assertTrue(maxDeltaBytes < fullBytes / 2, maxDeltaBytes + " byte deltas against " + fullBytes + " byte snapshots");
+    }
+
+    private static MultiplayerWorld fullWorld() {
+        Headless.init();
+        MultiplayerWorld mw = new MultiplayerWorld();
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        for (int i = 0; i < MultiplayerWorld.MAX_PLAYERS; i++) {
+            mw.join(new InetSocketAddress(loopback, 20000 + i));
+        }
+        return mw;
+    }
+}
@@ -66,7 +66,7 @@ public class TankExplosionTest extends ApplicationAdapter implements InputProces
 
         modelBatch.begin(cam);
         modelBatch.render(gridInstance, environment);
-        explosion.render(cam, modelBatch, environment);
+        explosion.render(cam, modelBatch);
         modelBatch.end();
 
     }
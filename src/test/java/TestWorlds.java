@@ -0,0 +1,69 @@
+
+import bzone.GameWorld;
+import java.lang.management.ManagementFactory;
+import static org.testng.Assert.assertEquals;
+import org.testng.SkipException;
+
+/**
+ * What the world tests share: the standard tick, play that fires now and
+ * then, and the check that a warmed-up loop allocates nothing.
+ */
+final class TestWorlds {
+
+    static final float DT = 1f / 60f;
+    static final int WARMUP_TICKS = 20_000;
+    static final int MEASURED_TICKS = 10_000;
+
+    /**
+     * One step of a loop under test, numbered from 0.
+     */
+    interface Step {
+
+        void run(int i) throws Exception;
+    }
+
+    private TestWorlds() {
+    }
+
+    /**
+     * Ticks the world and fires every 32 ticks while the player is alive.
+     */
+    static void tick(GameWorld world, int i) {
+        world.tick(DT);
+        if ((i & 31) == 0 && world.context.alive) {
+            world.firePlayer();
+        }
+    }
+
+    static void runTicks(GameWorld world, int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            tick(world, i);
+        }
+    }
+
+    /**
+     * Runs {@code warmup} steps, then checks that {@code measured} more
+     * allocate nothing at all on this thread. Skips where the JVM does not
+     * count allocations per thread.
+     */
+    static void assertNoAllocation(int warmup, int measured, Step step) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            throw new SkipException("per-thread allocation counters not supported");
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        for (int i = 0; i < warmup; i++) {
+            step.run(i);
+        }
+
+        long tid = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < measured; i++) {
+            step.run(i);
+        }
+        long allocated = threads.getThreadAllocatedBytes(tid) - before;
+
+        assertEquals(allocated, 0L, measured + " steps allocated " + allocated + " bytes");
+    }
+}
@@ -0,0 +1,120 @@
+
+import bzone.Headless;
+import bzone.PlayerMotion;
+import bzone.VectorEnv;
+import com.badlogic.gdx.math.MathUtils;
+import java.util.Arrays;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import org.testng.annotations.Test;
+
+/**
+ * Steps a batch of environments with scripted actions and checks that a
+ * seeded reset replays the same games, in parallel as well as serially, that
+ * observations stay in range, and that steps allocate nothing.
+ */
+public class VectorEnvTest {
+
+    private static final int ENVS = 8;
+    private static final int STEPS = 2_000;
+    private static final int MEASURED_STEPS = 5_000;
+
+    private static final int OBSTACLE_PRESENT = VectorEnv.OBS_SIZE
+            - (VectorEnv.SLOTS - VectorEnv.OBSTACLE) * VectorEnv.SLOT_SIZE + VectorEnv.PRESENT;
+
+    @Test
+    public void seededResetReplaysTheSameGames() {
+        Headless.init();
+        VectorEnv env = new VectorEnv(ENVS, 600, false);
+        int[] actions = new int[ENVS];
+
+        env.reset(42);
+        float[] first = run(env, actions);
+        env.reset(42);
+        float[] second = run(env, actions);
+
+        assertTrue(Arrays.equals(first, second));
+    }
+
+    @Test
+    public void parallelStepsReplayTheSerialGames() {
+        Headless.init();
+        int[] actions = new int[ENVS];
+
+        MathUtils.random.setSeed(5);
+        VectorEnv serial = new VectorEnv(ENVS, 600, false);
+        serial.reset(42);
+        float[] expected = run(serial, actions);
+
+        MathUtils.random.setSeed(5);
+        VectorEnv parallel = new VectorEnv(ENVS, 600, true);
+        parallel.reset(42);
+        float[] actual = run(parallel, actions);
+
+        assertTrue(Arrays.equals(expected, actual));
+    }
+
+    @Test
+    public void observationsStayInRange() {
+        Headless.init();
+        VectorEnv env = new VectorEnv(ENVS, 600, true);
+        int[] actions = new int[ENVS];
+        env.reset(7);
+
+        int dones = 0;
+        for (int t = 0; t < STEPS; t++) {
+            act(actions, t);
+            env.step(actions);
+            for (int i = 0; i < ENVS; i++) {
+                if (env.dones[i]) {
+                    dones++;
+                }
+                int o = i * VectorEnv.OBS_SIZE;
+                for (int k = 0; k < VectorEnv.OBS_SIZE; k++) {
+                    if (k == VectorEnv.LIVES) {
+                        continue;
+                    }
+                    float v = env.observations[o + k];
+                    assertTrue(v >= -1.001f && v <= 1.001f, "observation " + k + " of env " + i + " is " + v);
+                }
+                assertEquals(env.observations[o + OBSTACLE_PRESENT], 1f);
+            }
+        }
+        // every game runs out of ticks at least three times
+        assertTrue(dones >= ENVS * 3, dones + " games over");
+    }
+
+    @Test
+    public void stepsDoNotAllocate() throws Exception {
+        Headless.init();
+        VectorEnv env = new VectorEnv(ENVS, 600, false);
+        int[] actions = new int[ENVS];
+        env.reset(1);
+        TestWorlds.assertNoAllocation(STEPS * 5, MEASURED_STEPS, t -> {
+            act(actions, t);
+            env.step(actions);
+        });
+    }
+
+    private static float[] run(VectorEnv env, int[] actions) {
+        for (int t = 0; t < STEPS; t++) {
+            act(actions, t);
+            env.step(actions);
+        }
+        return env.observations.clone();
+    }
+
+    /**
+     * Each environment drives its own circle and fires now and then.
+     */
+    private static void act(int[] actions, int t) {
+        for (int i = 0; i < actions.length; i++) {
+            int controls = PlayerMotion.FORWARD;
+            controls |= (i & 1) == 0 ? PlayerMotion.TURN_LEFT : PlayerMotion.TURN_RIGHT;
+            if (((t + i) & 31) == 0) {
+                controls |= PlayerMotion.FIRE;
+            }
+            actions[i] = controls;
+        }
+    }
+}